@@ -0,0 +1,57 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal;
+
+import java.util.function.Consumer;
+
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.reaktivity.nukleus.http_cache.internal.stream.HttpCacheProxyFactory;
+import org.reaktivity.nukleus.http_cache.internal.stream.HttpCacheProxyFactoryBuilder;
+
+final class HttpCacheAgent implements Agent
+{
+    private final HttpCacheCommands commands;
+    private final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue;
+    private final Consumer<Consumer<HttpCacheProxyFactory>> onCommand;
+
+    HttpCacheAgent(
+        HttpCacheCommands commands,
+        HttpCacheProxyFactoryBuilder proxyFactoryBuilder)
+    {
+        this.commands = commands;
+        this.queue = commands.newQueue();
+        this.onCommand = proxyFactoryBuilder::onCommand;
+    }
+
+    @Override
+    public int doWork()
+    {
+        return queue.drain(onCommand);
+    }
+
+    @Override
+    public void onClose()
+    {
+        commands.removeQueue(queue);
+    }
+
+    @Override
+    public String roleName()
+    {
+        return String.format("%s.commands", HttpCacheNukleus.NAME);
+    }
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.reaktivity.nukleus.http_cache.internal.stream.HttpCacheProxyFactory;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheBanFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheInvalidateFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCachePurgeFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheResizeFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget;
+
+/**
+ * Hands cache control commands from the controller to every worker of the same reaktor.
+ * <p>
+ * The reaktor control plane only routes {@code route}, {@code unroute} and {@code freeze},
+ * so cache commands are decoded here and queued per worker, then applied by {@link HttpCacheAgent}
+ * on the worker thread so they never race the data path.
+ * <p>
+ * Each {@link HttpCacheNukleus} owns one instance and attaches it to its reaktor directory so the
+ * controller can find it. The instance detaches itself once its last worker queue is removed.
+ */
+final class HttpCacheCommands
+{
+    private static final int COMMAND_QUEUE_CAPACITY = 1024;
+
+    private static final ConcurrentMap<Path, HttpCacheCommands> ATTACHED = new ConcurrentHashMap<>();
+
+    private final HttpCachePurgeFW purgeRO = new HttpCachePurgeFW();
+    private final HttpCacheInvalidateFW invalidateRO = new HttpCacheInvalidateFW();
+    private final HttpCacheResizeFW resizeRO = new HttpCacheResizeFW();
+    private final HttpCacheBanFW banRO = new HttpCacheBanFW();
+
+    private final List<ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>>> queues;
+    private final Path directory;
+
+    HttpCacheCommands(
+        Path directory)
+    {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.queues = new ArrayList<>();
+    }
+
+    static HttpCacheCommands attached(
+        Path directory)
+    {
+        return ATTACHED.get(directory.toAbsolutePath().normalize());
+    }
+
+    void attach()
+    {
+        ATTACHED.put(directory, this);
+    }
+
+    synchronized ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> newQueue()
+    {
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue =
+                new ManyToOneConcurrentArrayQueue<>(COMMAND_QUEUE_CAPACITY);
+        queues.add(queue);
+        return queue;
+    }
+
+    void removeQueue(
+        ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue)
+    {
+        synchronized (this)
+        {
+            queues.remove(queue);
+
+            if (queues.isEmpty())
+            {
+                ATTACHED.remove(directory, this);
+            }
+        }
+
+        queue.drain(command -> command.accept(null));
+    }
+
+    synchronized CompletableFuture<Void> onCommand(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        CompletableFuture<Void> future;
+
+        switch (msgTypeId)
+        {
+        case HttpCachePurgeFW.TYPE_ID:
+            final HttpCachePurgeFW purge = purgeRO.wrap(buffer, index, index + length);
+            future = submit(new PurgeCommand(purge.target().get(), purge.value().asString()));
+            break;
+        case HttpCacheInvalidateFW.TYPE_ID:
+            final HttpCacheInvalidateFW invalidate = invalidateRO.wrap(buffer, index, index + length);
+            future = submit(new InvalidateCommand(invalidate.target().get(), invalidate.value().asString()));
+            break;
+        case HttpCacheResizeFW.TYPE_ID:
+            final HttpCacheResizeFW resize = resizeRO.wrap(buffer, index, index + length);
+            future = submit(new ResizeCommand(resize.allowedCachePercentage(), resize.allowedCacheEvictionCount()));
+            break;
+        case HttpCacheBanFW.TYPE_ID:
+            final HttpCacheBanFW ban = banRO.wrap(buffer, index, index + length);
+            future = submit(new BanCommand(ban.prefix().asString(),
+                                           ban.headerName().asString(),
+                                           ban.headerValue().asString()));
+            break;
+        default:
+            future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalArgumentException("Unexpected command type: " + msgTypeId));
+            break;
+        }
+
+        return future;
+    }
+
+    synchronized CompletableFuture<Void> onUnrouted(
+        long routeId)
+    {
+        return submit(new UnrouteCommand(routeId));
+    }
+
+    private CompletableFuture<Void> submit(
+        Consumer<HttpCacheProxyFactory> command)
+    {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final AtomicInteger remaining = new AtomicInteger(queues.size());
+        final Consumer<HttpCacheProxyFactory> tracked = factory ->
+        {
+            try
+            {
+                if (factory != null)
+                {
+                    command.accept(factory);
+                }
+
+                if (remaining.decrementAndGet() == 0)
+                {
+                    future.complete(null);
+                }
+            }
+            catch (Throwable ex)
+            {
+                future.completeExceptionally(ex);
+            }
+        };
+
+        boolean acceptable = true;
+        for (int i = 0; i < queues.size(); i++)
+        {
+            acceptable &= queues.get(i).remainingCapacity() > 0;
+        }
+
+        if (!acceptable)
+        {
+            future.completeExceptionally(new IllegalStateException("Command queue full"));
+        }
+        else if (queues.isEmpty())
+        {
+            future.complete(null);
+        }
+        else
+        {
+            for (int i = 0; i < queues.size(); i++)
+            {
+                final boolean offered = queues.get(i).offer(tracked);
+                assert offered;
+            }
+        }
+
+        return future;
+    }
+
+    private static final class PurgeCommand implements Consumer<HttpCacheProxyFactory>
+    {
+        private final HttpCacheTarget target;
+        private final String value;
+
+        private PurgeCommand(
+            HttpCacheTarget target,
+            String value)
+        {
+            this.target = target;
+            this.value = value;
+        }
+
+        @Override
+        public void accept(
+            HttpCacheProxyFactory factory)
+        {
+            factory.purge(target, value);
+        }
+    }
+
+    private static final class InvalidateCommand implements Consumer<HttpCacheProxyFactory>
+    {
+        private final HttpCacheTarget target;
+        private final String value;
+
+        private InvalidateCommand(
+            HttpCacheTarget target,
+            String value)
+        {
+            this.target = target;
+            this.value = value;
+        }
+
+        @Override
+        public void accept(
+            HttpCacheProxyFactory factory)
+        {
+            factory.invalidate(target, value);
+        }
+    }
+
+    private static final class BanCommand implements Consumer<HttpCacheProxyFactory>
+    {
+        private final String pathPrefix;
+        private final String headerName;
+        private final String headerValue;
+
+        private BanCommand(
+            String pathPrefix,
+            String headerName,
+            String headerValue)
+        {
+            this.pathPrefix = pathPrefix;
+            this.headerName = headerName;
+            this.headerValue = headerValue;
+        }
+
+        @Override
+        public void accept(
+            HttpCacheProxyFactory factory)
+        {
+            factory.ban(pathPrefix, headerName, headerValue);
+        }
+    }
+
+    private static final class UnrouteCommand implements Consumer<HttpCacheProxyFactory>
+    {
+        private final long routeId;
+
+        private UnrouteCommand(
+            long routeId)
+        {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public void accept(
+            HttpCacheProxyFactory factory)
+        {
+            factory.unroute(routeId);
+        }
+    }
+
+    private static final class ResizeCommand implements Consumer<HttpCacheProxyFactory>
+    {
+        private final int allowedCachePercentage;
+        private final int allowedCacheEvictionCount;
+
+        private ResizeCommand(
+            int allowedCachePercentage,
+            int allowedCacheEvictionCount)
+        {
+            this.allowedCachePercentage = allowedCachePercentage;
+            this.allowedCacheEvictionCount = allowedCacheEvictionCount;
+        }
+
+        @Override
+        public void accept(
+            HttpCacheProxyFactory factory)
+        {
+            factory.resize(allowedCachePercentage, allowedCacheEvictionCount);
+        }
+    }
+}
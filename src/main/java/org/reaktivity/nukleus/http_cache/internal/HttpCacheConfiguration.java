@@ -31,6 +31,26 @@ public class HttpCacheConfiguration extends Configuration
     public static final IntPropertyDef HTTP_CACHE_MAXIMUM_CACHE_EVICTION_COUNT;
     public static final IntPropertyDef HTTP_CACHE_PREFER_WAIT_MAXIMUM;
     public static final IntPropertyDef HTTP_CACHE_INITIAL_WINDOW_SIZE;
+    public static final IntPropertyDef HTTP_CACHE_MAXIMUM_FLUSH_BATCH;
+    public static final IntPropertyDef HTTP_CACHE_TIMER_WHEEL_TICK;
+    public static final DoublePropertyDef HTTP_CACHE_REFRESH_AHEAD_BETA;
+    public static final IntPropertyDef HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS;
+    public static final IntPropertyDef HTTP_CACHE_RETRY_BACKOFF_BASE;
+    public static final IntPropertyDef HTTP_CACHE_RETRY_BACKOFF_MAXIMUM;
+    public static final IntPropertyDef HTTP_CACHE_CIRCUIT_BREAKER_FAILURES;
+    public static final IntPropertyDef HTTP_CACHE_CIRCUIT_BREAKER_OPEN;
+    public static final IntPropertyDef HTTP_CACHE_HEDGE_DELAY;
+    public static final IntPropertyDef HTTP_CACHE_REFRESH_AHEAD_MINIMUM_FREQUENCY;
+    public static final IntPropertyDef HTTP_CACHE_MAXIMUM_OBJECT_SIZE;
+    public static final IntPropertyDef HTTP_CACHE_HEURISTIC_FRESHNESS_PERCENTAGE;
+    public static final IntPropertyDef HTTP_CACHE_HEURISTIC_FRESHNESS_MAXIMUM;
+    public static final IntPropertyDef HTTP_CACHE_MINIMUM_TTL;
+    public static final IntPropertyDef HTTP_CACHE_MAXIMUM_TTL;
+    public static final IntPropertyDef HTTP_CACHE_NEGATIVE_TTL;
+    public static final IntPropertyDef HTTP_CACHE_NEGATIVE_ERROR_TTL;
+    public static final IntPropertyDef HTTP_CACHE_NEGATIVE_CAPACITY;
+    public static final PropertyDef<String> HTTP_CACHE_TAG_HEADER;
+    public static final IntPropertyDef HTTP_CACHE_BAN_WALK_LIMIT;
 
     private static final ConfigurationDef HTTP_CACHE_CONFIG;
 
@@ -46,6 +66,26 @@ public class HttpCacheConfiguration extends Configuration
             200);
         HTTP_CACHE_PREFER_WAIT_MAXIMUM = config.property("prefer.wait.maximum", Integer.MAX_VALUE);
         HTTP_CACHE_INITIAL_WINDOW_SIZE = config.property("initial.window.size", 6291456);
+        HTTP_CACHE_MAXIMUM_FLUSH_BATCH = config.property("maximum.flush.batch", 1024);
+        HTTP_CACHE_TIMER_WHEEL_TICK = config.property("timer.wheel.tick", 10); // milliseconds
+        HTTP_CACHE_REFRESH_AHEAD_BETA = config.property("refresh.ahead.beta", 0.0); // disabled
+        HTTP_CACHE_REFRESH_AHEAD_MINIMUM_FREQUENCY = config.property("refresh.ahead.minimum.frequency", 2);
+        HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS = config.property("maximum.upstream.requests", 256); // per route
+        HTTP_CACHE_RETRY_BACKOFF_BASE = config.property("retry.backoff.base", 100); // milliseconds
+        HTTP_CACHE_RETRY_BACKOFF_MAXIMUM = config.property("retry.backoff.maximum", 10000); // milliseconds
+        HTTP_CACHE_CIRCUIT_BREAKER_FAILURES = config.property("circuit.breaker.failures", 5);
+        HTTP_CACHE_CIRCUIT_BREAKER_OPEN = config.property("circuit.breaker.open", 5000); // milliseconds
+        HTTP_CACHE_HEDGE_DELAY = config.property("hedge.delay", 0); // milliseconds, disabled
+        HTTP_CACHE_MAXIMUM_OBJECT_SIZE = config.property("maximum.object.size", 1024 * 64 * 16); // bytes
+        HTTP_CACHE_HEURISTIC_FRESHNESS_PERCENTAGE = config.property("heuristic.freshness.percentage", 10);
+        HTTP_CACHE_HEURISTIC_FRESHNESS_MAXIMUM = config.property("heuristic.freshness.maximum", 86400); // seconds
+        HTTP_CACHE_MINIMUM_TTL = config.property("minimum.ttl", 0); // seconds
+        HTTP_CACHE_MAXIMUM_TTL = config.property("maximum.ttl", Integer.MAX_VALUE); // seconds
+        HTTP_CACHE_NEGATIVE_TTL = config.property("negative.ttl", 0); // seconds, 404 and 410
+        HTTP_CACHE_NEGATIVE_ERROR_TTL = config.property("negative.error.ttl", 0); // seconds, 5xx
+        HTTP_CACHE_NEGATIVE_CAPACITY = config.property("negative.capacity", 4096); // entries
+        HTTP_CACHE_TAG_HEADER = config.property("tag.header", "surrogate-key");
+        HTTP_CACHE_BAN_WALK_LIMIT = config.property("ban.walk.limit", 1024); // entries per tick
         HTTP_CACHE_CONFIG = config;
     }
 
@@ -89,4 +129,104 @@ public class HttpCacheConfiguration extends Configuration
     {
         return HTTP_CACHE_INITIAL_WINDOW_SIZE.getAsInt(this);
     }
+
+    public int maximumFlushBatch()
+    {
+        return HTTP_CACHE_MAXIMUM_FLUSH_BATCH.getAsInt(this);
+    }
+
+    public int timerWheelTick()
+    {
+        return HTTP_CACHE_TIMER_WHEEL_TICK.getAsInt(this);
+    }
+
+    public double refreshAheadBeta()
+    {
+        return HTTP_CACHE_REFRESH_AHEAD_BETA.getAsDouble(this);
+    }
+
+    public int refreshAheadMinimumFrequency()
+    {
+        return HTTP_CACHE_REFRESH_AHEAD_MINIMUM_FREQUENCY.getAsInt(this);
+    }
+
+    public int maximumUpstreamRequests()
+    {
+        return HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS.getAsInt(this);
+    }
+
+    public int retryBackoffBase()
+    {
+        return HTTP_CACHE_RETRY_BACKOFF_BASE.getAsInt(this);
+    }
+
+    public int retryBackoffMaximum()
+    {
+        return HTTP_CACHE_RETRY_BACKOFF_MAXIMUM.getAsInt(this);
+    }
+
+    public int circuitBreakerFailures()
+    {
+        return HTTP_CACHE_CIRCUIT_BREAKER_FAILURES.getAsInt(this);
+    }
+
+    public int circuitBreakerOpen()
+    {
+        return HTTP_CACHE_CIRCUIT_BREAKER_OPEN.getAsInt(this);
+    }
+
+    public int hedgeDelay()
+    {
+        return HTTP_CACHE_HEDGE_DELAY.getAsInt(this);
+    }
+
+    public int maximumObjectSize()
+    {
+        return HTTP_CACHE_MAXIMUM_OBJECT_SIZE.getAsInt(this);
+    }
+
+    public int heuristicFreshnessPercentage()
+    {
+        return HTTP_CACHE_HEURISTIC_FRESHNESS_PERCENTAGE.getAsInt(this);
+    }
+
+    public int heuristicFreshnessMaximum()
+    {
+        return HTTP_CACHE_HEURISTIC_FRESHNESS_MAXIMUM.getAsInt(this);
+    }
+
+    public int minimumTtl()
+    {
+        return HTTP_CACHE_MINIMUM_TTL.getAsInt(this);
+    }
+
+    public int maximumTtl()
+    {
+        return HTTP_CACHE_MAXIMUM_TTL.getAsInt(this);
+    }
+
+    public int negativeTtl()
+    {
+        return HTTP_CACHE_NEGATIVE_TTL.getAsInt(this);
+    }
+
+    public int negativeErrorTtl()
+    {
+        return HTTP_CACHE_NEGATIVE_ERROR_TTL.getAsInt(this);
+    }
+
+    public int negativeCapacity()
+    {
+        return HTTP_CACHE_NEGATIVE_CAPACITY.getAsInt(this);
+    }
+
+    public String tagHeader()
+    {
+        return HTTP_CACHE_TAG_HEADER.get(this);
+    }
+
+    public int banWalkLimit()
+    {
+        return HTTP_CACHE_BAN_WALK_LIMIT.getAsInt(this);
+    }
 }
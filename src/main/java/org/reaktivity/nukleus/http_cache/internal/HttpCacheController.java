@@ -20,8 +20,11 @@ import static java.nio.ByteOrder.nativeOrder;
 import static org.reaktivity.nukleus.route.RouteKind.PROXY;
 import static org.reaktivity.nukleus.route.RouteKind.SERVER;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.Controller;
@@ -29,11 +32,26 @@ import org.reaktivity.nukleus.ControllerSpi;
 import org.reaktivity.nukleus.http_cache.internal.types.Flyweight;
 import org.reaktivity.nukleus.http_cache.internal.types.OctetsFW;
 import org.reaktivity.nukleus.http_cache.internal.types.control.FreezeFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheBanFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheInvalidateFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCachePurgeFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheResizeFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheRouteExFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget;
 import org.reaktivity.nukleus.http_cache.internal.types.control.Role;
 import org.reaktivity.nukleus.http_cache.internal.types.control.RouteFW;
 import org.reaktivity.nukleus.http_cache.internal.types.control.UnrouteFW;
 import org.reaktivity.nukleus.route.RouteKind;
 
+/**
+ * Controls routes and cache contents of the {@code http-cache} nukleus.
+ * <p>
+ * Routing goes through the reaktor control plane. Cache commands ({@link #purge}, {@link #invalidate},
+ * {@link #ban} and {@link #resize}) do not: the control plane only carries route, unroute and freeze,
+ * so these are handed directly to the workers of the nukleus attached to the same reaktor directory.
+ * They therefore only reach a nukleus running in the same JVM as this controller, and complete
+ * exceptionally with {@link IllegalStateException} otherwise.
+ */
 public final class HttpCacheController implements Controller
 {
     private static final int MAX_SEND_LENGTH = 1024; // TODO: HttpPushConfiguration and Context
@@ -42,17 +60,27 @@ public final class HttpCacheController implements Controller
     private final RouteFW.Builder routeRW = new RouteFW.Builder();
     private final UnrouteFW.Builder unrouteRW = new UnrouteFW.Builder();
     private final FreezeFW.Builder freezeRW = new FreezeFW.Builder();
+    private final HttpCachePurgeFW.Builder purgeRW = new HttpCachePurgeFW.Builder();
+    private final HttpCacheInvalidateFW.Builder invalidateRW = new HttpCacheInvalidateFW.Builder();
+    private final HttpCacheResizeFW.Builder resizeRW = new HttpCacheResizeFW.Builder();
+    private final HttpCacheBanFW.Builder banRW = new HttpCacheBanFW.Builder();
+    private final HttpCacheRouteExFW.Builder routeExRW = new HttpCacheRouteExFW.Builder();
 
     private final OctetsFW extensionRO = new OctetsFW().wrap(new UnsafeBuffer(new byte[0]), 0, 0);
 
     private final ControllerSpi controllerSpi;
+    private final Path directory;
     private final MutableDirectBuffer commandBuffer;
+    private final MutableDirectBuffer extensionBuffer;
 
-    public HttpCacheController(
-        ControllerSpi controllerSpi)
+    HttpCacheController(
+        ControllerSpi controllerSpi,
+        Path directory)
     {
         this.controllerSpi = controllerSpi;
+        this.directory = directory;
         this.commandBuffer = new UnsafeBuffer(allocateDirect(MAX_SEND_LENGTH).order(nativeOrder()));
+        this.extensionBuffer = new UnsafeBuffer(allocateDirect(MAX_SEND_LENGTH).order(nativeOrder()));
     }
 
     @Override
@@ -103,6 +131,34 @@ public final class HttpCacheController implements Controller
         return doRoute(kind, localAddress, remoteAddress, extensionRO);
     }
 
+    public CompletableFuture<Long> route(
+        RouteKind kind,
+        String localAddress,
+        String remoteAddress,
+        String partition,
+        int quota)
+    {
+        final HttpCacheRouteExFW routeEx = routeExRW.wrap(extensionBuffer, 0, extensionBuffer.capacity())
+                                                    .partition(partition)
+                                                    .quota(quota)
+                                                    .build();
+
+        return doRoute(kind, localAddress, remoteAddress, routeEx);
+    }
+
+    public CompletableFuture<Long> route(
+        RouteKind kind,
+        String localAddress,
+        String remoteAddress,
+        Consumer<HttpCacheRouteExFW.Builder> mutator)
+    {
+        routeExRW.wrap(extensionBuffer, 0, extensionBuffer.capacity());
+        mutator.accept(routeExRW);
+        final HttpCacheRouteExFW routeEx = routeExRW.build();
+
+        return doRoute(kind, localAddress, remoteAddress, routeEx);
+    }
+
     public CompletableFuture<Void> unroute(
         long routeId)
     {
@@ -114,7 +170,8 @@ public final class HttpCacheController implements Controller
                                      .routeId(routeId)
                                      .build();
 
-        return controllerSpi.doUnroute(unroute.typeId(), unroute.buffer(), unroute.offset(), unroute.sizeof());
+        return controllerSpi.doUnroute(unroute.typeId(), unroute.buffer(), unroute.offset(), unroute.sizeof())
+                            .thenCompose(v -> onUnrouted(routeId));
     }
 
     public CompletableFuture<Void> freeze()
@@ -129,6 +186,146 @@ public final class HttpCacheController implements Controller
         return controllerSpi.doFreeze(freeze.typeId(), freeze.buffer(), freeze.offset(), freeze.sizeof());
     }
 
+    /**
+     * Removes matching entries from the cache, or invalidates them if a request group still uses them.
+     * <p>
+     * {@link HttpCacheTarget#URL} matches the full request URL, including any query, such as
+     * {@code http://localhost:8080/path?v=1}. {@link HttpCacheTarget#PREFIX} matches either an absolute URL
+     * prefix, such as {@code http://localhost:8080/api/}, or a path prefix starting with {@code /}, such as
+     * {@code /api/v1/catalog/}, on any scheme and authority. {@link HttpCacheTarget#TAG} matches entries
+     * tagged with any of the space separated tags.
+     * <p>
+     * Only applies to a nukleus running in the same JVM, see {@link HttpCacheController}.
+     */
+    public CompletableFuture<Void> purge(
+        HttpCacheTarget target,
+        String value)
+    {
+        long correlationId = controllerSpi.nextCorrelationId();
+
+        HttpCachePurgeFW purge = purgeRW.wrap(commandBuffer, 0, commandBuffer.capacity())
+                                        .correlationId(correlationId)
+                                        .nukleus(name())
+                                        .target(b -> b.set(target))
+                                        .value(value)
+                                        .build();
+
+        return doCommand(purge.typeId(), purge.buffer(), purge.offset(), purge.sizeof());
+    }
+
+    /**
+     * Marks matching entries as requiring validation, with the same target matching as {@link #purge}.
+     * A {@link HttpCacheTarget#PREFIX} invalidation is applied lazily as a {@link #ban}.
+     * <p>
+     * Only applies to a nukleus running in the same JVM, see {@link HttpCacheController}.
+     */
+    public CompletableFuture<Void> invalidate(
+        HttpCacheTarget target,
+        String value)
+    {
+        long correlationId = controllerSpi.nextCorrelationId();
+
+        HttpCacheInvalidateFW invalidate = invalidateRW.wrap(commandBuffer, 0, commandBuffer.capacity())
+                                                       .correlationId(correlationId)
+                                                       .nukleus(name())
+                                                       .target(b -> b.set(target))
+                                                       .value(value)
+                                                       .build();
+
+        return doCommand(invalidate.typeId(), invalidate.buffer(), invalidate.offset(), invalidate.sizeof());
+    }
+
+    /**
+     * Invalidates entries matching the URL or path prefix, as for {@link #purge}, and the response header.
+     * Either may be {@code null}, but not both. Entries are checked as they are served and by a bounded
+     * background walk.
+     * <p>
+     * Only applies to a nukleus running in the same JVM, see {@link HttpCacheController}.
+     */
+    public CompletableFuture<Void> ban(
+        String pathPrefix,
+        String headerName,
+        String headerValue)
+    {
+        if (pathPrefix == null && headerName == null || headerName != null && headerValue == null)
+        {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalArgumentException(
+                String.format("Invalid ban: prefix %s, header %s=%s", pathPrefix, headerName, headerValue)));
+            return future;
+        }
+
+        long correlationId = controllerSpi.nextCorrelationId();
+
+        HttpCacheBanFW ban = banRW.wrap(commandBuffer, 0, commandBuffer.capacity())
+                                  .correlationId(correlationId)
+                                  .nukleus(name())
+                                  .prefix(pathPrefix)
+                                  .headerName(headerName)
+                                  .headerValue(headerValue)
+                                  .build();
+
+        return doCommand(ban.typeId(), ban.buffer(), ban.offset(), ban.sizeof());
+    }
+
+    /**
+     * Changes the share of cache capacity in use before eviction and the number of entries evicted at once.
+     * <p>
+     * Only applies to a nukleus running in the same JVM, see {@link HttpCacheController}.
+     */
+    public CompletableFuture<Void> resize(
+        int allowedCachePercentage,
+        int allowedCacheEvictionCount)
+    {
+        if (allowedCachePercentage < 0 || allowedCachePercentage > 100 || allowedCacheEvictionCount < 0)
+        {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalArgumentException(
+                String.format("Invalid cache size: %d%%, eviction count %d",
+                              allowedCachePercentage, allowedCacheEvictionCount)));
+            return future;
+        }
+
+        long correlationId = controllerSpi.nextCorrelationId();
+
+        HttpCacheResizeFW resize = resizeRW.wrap(commandBuffer, 0, commandBuffer.capacity())
+                                           .correlationId(correlationId)
+                                           .nukleus(name())
+                                           .allowedCachePercentage(allowedCachePercentage)
+                                           .allowedCacheEvictionCount(allowedCacheEvictionCount)
+                                           .build();
+
+        return doCommand(resize.typeId(), resize.buffer(), resize.offset(), resize.sizeof());
+    }
+
+    private CompletableFuture<Void> doCommand(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final HttpCacheCommands commands = HttpCacheCommands.attached(directory);
+
+        CompletableFuture<Void> future;
+        if (commands != null)
+        {
+            future = commands.onCommand(msgTypeId, buffer, index, length);
+        }
+        else
+        {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException(String.format("%s nukleus not running", name())));
+        }
+        return future;
+    }
+
+    private CompletableFuture<Void> onUnrouted(
+        long routeId)
+    {
+        final HttpCacheCommands commands = HttpCacheCommands.attached(directory);
+        return commands != null ? commands.onUnrouted(routeId) : CompletableFuture.completedFuture(null);
+    }
+
     private CompletableFuture<Long> doRoute(
         RouteKind kind,
         String localAddress,
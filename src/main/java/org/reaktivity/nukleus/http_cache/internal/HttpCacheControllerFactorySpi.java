@@ -38,7 +38,7 @@ public final class HttpCacheControllerFactorySpi implements ControllerFactorySpi
         Configuration config,
         ControllerBuilder<HttpCacheController> builder)
     {
-        return builder.setFactory(HttpCacheController::new)
+        return builder.setFactory(spi -> new HttpCacheController(spi, config.directory()))
                       .build();
     }
 }
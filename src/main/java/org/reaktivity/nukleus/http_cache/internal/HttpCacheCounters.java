@@ -28,6 +28,19 @@ public class HttpCacheCounters
     public final LongSupplier requestsCacheable;
     public final LongSupplier groupRequestsCacheable;
     public final LongSupplier requestsRetry;
+    public final LongSupplier requestsRefreshAhead;
+    public final LongSupplier upstreamRequestsQueued;
+    public final LongSupplier requestsCircuitOpen;
+    public final LongSupplier requestsHedged;
+    public final LongSupplier requestsHedgeWins;
+    public final LongSupplier requestsCoalesced;
+    public final LongSupplier responsesSpilled;
+    public final LongSupplier responsesBypassed;
+    public final LongSupplier responsesRanged;
+    public final LongSupplier responsesNegative;
+    public final LongSupplier requestsShared;
+    public final LongSupplier tagInvalidations;
+    public final LongSupplier banInvalidations;
     public final LongSupplier responses;
     public final LongSupplier responsesRetry;
     public final LongSupplier responsesNotModified;
@@ -40,6 +53,10 @@ public class HttpCacheCounters
     public final LongConsumer cacheEntries;
     public final LongConsumer frequencyBuckets;
     public final LongConsumer requestGroups;
+    public final LongConsumer upstreamQueueDepth;
+    public final LongConsumer upstreamQueueWait;
+    public final LongConsumer responseBytesBypassed;
+    public final LongConsumer bans;
 
     public HttpCacheCounters(
         Function<String, LongSupplier> supplyCounter,
@@ -52,6 +69,19 @@ public class HttpCacheCounters
         this.requestsCacheable = supplyCounter.apply("http-cache.requests.cacheable");
         this.groupRequestsCacheable = supplyCounter.apply("http-cache.group.requests.cacheable");
         this.requestsRetry = supplyCounter.apply("http-cache.requests.retry");
+        this.requestsRefreshAhead = supplyCounter.apply("http-cache.requests.refresh.ahead");
+        this.upstreamRequestsQueued = supplyCounter.apply("http-cache.upstream.requests.queued");
+        this.requestsCircuitOpen = supplyCounter.apply("http-cache.requests.circuit.open");
+        this.requestsHedged = supplyCounter.apply("http-cache.requests.hedged");
+        this.requestsHedgeWins = supplyCounter.apply("http-cache.requests.hedge.wins");
+        this.requestsCoalesced = supplyCounter.apply("http-cache.requests.coalesced");
+        this.responsesSpilled = supplyCounter.apply("http-cache.responses.spilled");
+        this.responsesBypassed = supplyCounter.apply("http-cache.responses.bypassed");
+        this.responsesRanged = supplyCounter.apply("http-cache.responses.ranged");
+        this.responsesNegative = supplyCounter.apply("http-cache.responses.negative");
+        this.requestsShared = supplyCounter.apply("http-cache.requests.shared");
+        this.tagInvalidations = supplyCounter.apply("http-cache.tag.invalidations");
+        this.banInvalidations = supplyCounter.apply("http-cache.ban.invalidations");
         this.responses = supplyCounter.apply("http-cache.responses");
         this.groupResponsesCacheable = supplyCounter.apply("http-cache.group.responses.cacheable");
         this.responsesRetry = supplyCounter.apply("http-cache.responses.retry");
@@ -63,6 +93,10 @@ public class HttpCacheCounters
         this.cacheEntries = supplyAccumulator.apply("http-cache.cache.entries");
         this.requestGroups = supplyAccumulator.apply("http-cache.request.groups");
         this.frequencyBuckets = supplyAccumulator.apply("http-cache.frequency.buckets");
+        this.upstreamQueueDepth = supplyAccumulator.apply("http-cache.upstream.queue.depth");
+        this.upstreamQueueWait = supplyAccumulator.apply("http-cache.upstream.queue.wait"); // milliseconds
+        this.responseBytesBypassed = supplyAccumulator.apply("http-cache.response.bytes.bypassed");
+        this.bans = supplyAccumulator.apply("http-cache.bans");
         this.cachePurgeAttempts = supplyCounter.apply("http-cache.cache.purge.attempts");
     }
 }
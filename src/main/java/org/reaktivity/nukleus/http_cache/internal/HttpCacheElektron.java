@@ -21,6 +21,7 @@ import static org.reaktivity.nukleus.route.RouteKind.SERVER;
 import java.util.EnumMap;
 import java.util.Map;
 
+import org.agrona.concurrent.Agent;
 import org.reaktivity.nukleus.Elektron;
 import org.reaktivity.nukleus.http_cache.internal.stream.HttpCacheProxyFactoryBuilder;
 import org.reaktivity.nukleus.http_cache.internal.stream.ServerStreamFactoryBuilder;
@@ -30,15 +31,20 @@ import org.reaktivity.nukleus.stream.StreamFactoryBuilder;
 final class HttpCacheElektron implements Elektron
 {
     private final Map<RouteKind, StreamFactoryBuilder> streamFactoryBuilders;
+    private final HttpCacheAgent agent;
 
     HttpCacheElektron(
-        HttpCacheConfiguration config)
+        HttpCacheConfiguration config,
+        HttpCacheCommands commands)
     {
+        final HttpCacheProxyFactoryBuilder proxyFactoryBuilder = new HttpCacheProxyFactoryBuilder(config);
+
         Map<RouteKind, StreamFactoryBuilder> streamFactoryBuilders = new EnumMap<>(RouteKind.class);
         streamFactoryBuilders.put(SERVER, new ServerStreamFactoryBuilder());
-        streamFactoryBuilders.put(PROXY, new HttpCacheProxyFactoryBuilder(config));
+        streamFactoryBuilders.put(PROXY, proxyFactoryBuilder);
 
         this.streamFactoryBuilders = streamFactoryBuilders;
+        this.agent = new HttpCacheAgent(commands, proxyFactoryBuilder);
     }
 
     @Override
@@ -48,6 +54,12 @@ final class HttpCacheElektron implements Elektron
         return streamFactoryBuilders.get(kind);
     }
 
+    @Override
+    public Agent agent()
+    {
+        return agent;
+    }
+
     @Override
     public String toString()
     {
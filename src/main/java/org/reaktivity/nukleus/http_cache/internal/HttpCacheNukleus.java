@@ -22,11 +22,14 @@ final class HttpCacheNukleus implements Nukleus
     static final String NAME = "http-cache";
 
     private final HttpCacheConfiguration config;
+    private final HttpCacheCommands commands;
 
     HttpCacheNukleus(
         HttpCacheConfiguration config)
     {
         this.config = config;
+        this.commands = new HttpCacheCommands(config.directory());
+        this.commands.attach();
     }
 
     @Override
@@ -44,6 +47,6 @@ final class HttpCacheNukleus implements Nukleus
     @Override
     public HttpCacheElektron supplyElektron()
     {
-        return new HttpCacheElektron(config);
+        return new HttpCacheElektron(config, commands);
     }
 }
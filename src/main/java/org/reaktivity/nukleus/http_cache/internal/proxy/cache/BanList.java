@@ -0,0 +1,129 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+final class BanList
+{
+    private final ArrayDeque<Ban> bans;
+
+    private long sequence;
+
+    BanList()
+    {
+        this.bans = new ArrayDeque<>();
+    }
+
+    long sequence()
+    {
+        return sequence;
+    }
+
+    boolean isEmpty()
+    {
+        return bans.isEmpty();
+    }
+
+    int size()
+    {
+        return bans.size();
+    }
+
+    long add(
+        String pathPrefix,
+        String headerName,
+        String headerValue)
+    {
+        assert pathPrefix != null || headerName != null;
+        assert headerName == null || headerValue != null;
+
+        bans.addLast(new Ban(++sequence, pathPrefix, headerName, headerValue));
+        return sequence;
+    }
+
+    boolean isBanned(
+        DefaultCacheEntry entry)
+    {
+        final long checkedSequence = entry.banSequence();
+
+        boolean banned = false;
+        if (checkedSequence < sequence)
+        {
+            for (Iterator<Ban> i = bans.descendingIterator(); i.hasNext() && !banned; )
+            {
+                final Ban ban = i.next();
+                if (ban.sequence <= checkedSequence)
+                {
+                    break;
+                }
+                banned = ban.matches(entry);
+            }
+            entry.banSequence(sequence);
+        }
+
+        return banned;
+    }
+
+    int retire(
+        long checkedSequence)
+    {
+        int retired = 0;
+        while (!bans.isEmpty() && bans.peekFirst().sequence <= checkedSequence)
+        {
+            bans.removeFirst();
+            retired++;
+        }
+        return retired;
+    }
+
+    private static final class Ban
+    {
+        private final long sequence;
+        private final String pathPrefix;
+        private final String headerName;
+        private final String headerValue;
+
+        private Ban(
+            long sequence,
+            String pathPrefix,
+            String headerName,
+            String headerValue)
+        {
+            this.sequence = sequence;
+            this.pathPrefix = pathPrefix;
+            this.headerName = headerName;
+            this.headerValue = headerValue;
+        }
+
+        private boolean matches(
+            DefaultCacheEntry entry)
+        {
+            return (pathPrefix == null || DefaultCache.matchesPrefix(entry.requestPath(), pathPrefix)) &&
+                   (headerName == null || matchesHeader(entry));
+        }
+
+        private boolean matchesHeader(
+            DefaultCacheEntry entry)
+        {
+            return !entry.getResponseSlots().isEmpty() &&
+                   headerValue.equals(getHeader(entry.getCachedResponseHeaders(), headerName));
+        }
+    }
+}
@@ -33,6 +33,7 @@ public final class CacheDirectives
     public static final String MAX_STALE = "max-stale";
     public static final String MIN_FRESH = "min-fresh";
     public static final String MAX_AGE_0 = "max-age=0";
+    public static final String IMMUTABLE = "immutable";
 
     private CacheDirectives()
     {
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import java.nio.ByteBuffer;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.reaktivity.nukleus.buffer.BufferPool;
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
+
+public final class CachePartition
+{
+    private final DefaultCache cache;
+    private final int id;
+    private final String name;
+    private final Int2ObjectHashMap<FrequencyBucket> frequencies;
+    private final BufferPool requestPool;
+    private final BufferPool responsePool;
+
+    final LongConsumer entries;
+    final LongConsumer slots;
+    final LongSupplier evictions;
+
+    private int quotaSlots;
+    private int acquiredSlots;
+
+    CachePartition(
+        DefaultCache cache,
+        int id,
+        String name,
+        BufferPool requestPool,
+        BufferPool responsePool,
+        HttpCacheCounters counters)
+    {
+        this.cache = cache;
+        this.id = id;
+        this.name = name;
+        this.frequencies = new Int2ObjectHashMap<>();
+        this.requestPool = new PartitionBufferPool(requestPool);
+        this.responsePool = new PartitionBufferPool(responsePool);
+        this.entries = counters.supplyAccumulator.apply(String.format("http-cache.partition.%s.entries", name));
+        this.slots = counters.supplyAccumulator.apply(String.format("http-cache.partition.%s.slots", name));
+        this.evictions = counters.supplyCounter.apply(String.format("http-cache.partition.%s.evictions", name));
+    }
+
+    public int id()
+    {
+        return id;
+    }
+
+    public String name()
+    {
+        return name;
+    }
+
+    int quotaSlots()
+    {
+        return quotaSlots;
+    }
+
+    void quotaSlots(
+        int quotaSlots)
+    {
+        this.quotaSlots = quotaSlots;
+    }
+
+    int acquiredSlots()
+    {
+        return acquiredSlots;
+    }
+
+    int overflowSlots()
+    {
+        return Math.max(acquiredSlots - quotaSlots, 0);
+    }
+
+    int reservedSlots()
+    {
+        return Math.max(quotaSlots - acquiredSlots, 0);
+    }
+
+    Int2ObjectHashMap<FrequencyBucket> frequencies()
+    {
+        return frequencies;
+    }
+
+    BufferPool requestPool()
+    {
+        return requestPool;
+    }
+
+    BufferPool responsePool()
+    {
+        return responsePool;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s [id=%d, quotaSlots=%d, acquiredSlots=%d]", name, id, quotaSlots, acquiredSlots);
+    }
+
+    private final class PartitionBufferPool implements BufferPool
+    {
+        private final BufferPool bufferPool;
+
+        private PartitionBufferPool(
+            BufferPool bufferPool)
+        {
+            this.bufferPool = bufferPool;
+        }
+
+        @Override
+        public int slotCapacity()
+        {
+            return bufferPool.slotCapacity();
+        }
+
+        @Override
+        public int acquire(
+            long streamId)
+        {
+            int slot = NO_SLOT;
+
+            if (cache.canAcquireSlot(CachePartition.this))
+            {
+                slot = bufferPool.acquire(streamId);
+
+                if (slot != NO_SLOT)
+                {
+                    acquiredSlots++;
+                    slots.accept(1);
+                }
+            }
+
+            return slot;
+        }
+
+        @Override
+        public MutableDirectBuffer buffer(
+            int slot)
+        {
+            return bufferPool.buffer(slot);
+        }
+
+        @Override
+        public ByteBuffer byteBuffer(
+            int slot)
+        {
+            return bufferPool.byteBuffer(slot);
+        }
+
+        @Override
+        public MutableDirectBuffer buffer(
+            int slot,
+            int offset)
+        {
+            return bufferPool.buffer(slot, offset);
+        }
+
+        @Override
+        public void release(
+            int slot)
+        {
+            bufferPool.release(slot);
+
+            if (slot != NO_SLOT)
+            {
+                acquiredSlots--;
+                slots.accept(-1);
+            }
+        }
+
+        @Override
+        public BufferPool duplicate()
+        {
+            return new PartitionBufferPool(bufferPool.duplicate());
+        }
+
+        @Override
+        public int acquiredSlots()
+        {
+            return acquiredSlots;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
 
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
 import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
 import static java.util.Collections.unmodifiableList;
@@ -28,8 +29,11 @@ import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.METHOD;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.STATUS;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.SURROGATE_CONTROL;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.HAS_IF_NONE_MATCH;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
 
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +56,7 @@ public final class CacheUtils
             new String16FW("TRACE")));
     public static final String RESPONSE_IS_STALE = "110 - \"Response is Stale\"";
     public static final String8FW METHOD_NAME = new String8FW(METHOD);
+    public static final long NO_DATE = -1L;
 
     private CacheUtils()
     {
@@ -64,6 +69,12 @@ public final class CacheUtils
         return headers.anyMatch(h -> METHOD_NAME.equals(h.name()) && !SAFE_METHOD.contains(h.value()));
     }
 
+    public static boolean isMethodHead(
+        Array32FW<HttpHeaderFW> headers)
+    {
+        return HttpMethods.HEAD.equalsIgnoreCase(getHeader(headers, METHOD));
+    }
+
     public static boolean hasMaxAgeZero(
         Array32FW<HttpHeaderFW> headers)
     {
@@ -239,7 +250,7 @@ public final class CacheUtils
         String etag)
     {
         String ifMatch = HttpHeadersUtil.getHeader(requestHeaders, HttpHeaders.IF_NONE_MATCH);
-        if (ifMatch == null)
+        if (ifMatch == null || etag == null)
         {
             return false;
         }
@@ -248,4 +259,38 @@ public final class CacheUtils
         return Arrays.stream(ifMatch.split(",")).anyMatch(t -> etag.equals(t.trim()));
     }
 
+    public static boolean isNotModifiedSince(
+        Array32FW<HttpHeaderFW> requestHeaders,
+        long lastModifiedAt)
+    {
+        // If-None-Match takes precedence over If-Modified-Since, RFC 7232 section 3.3
+        if (lastModifiedAt == NO_DATE || requestHeaders.anyMatch(HAS_IF_NONE_MATCH))
+        {
+            return false;
+        }
+
+        final long ifModifiedSince = parseDate(getHeader(requestHeaders, HttpHeaders.IF_MODIFIED_SINCE));
+        return ifModifiedSince != NO_DATE && lastModifiedAt <= ifModifiedSince;
+    }
+
+    public static long parseDate(
+        String value)
+    {
+        long epochMillis = NO_DATE;
+
+        if (value != null)
+        {
+            try
+            {
+                epochMillis = ZonedDateTime.parse(value, RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            }
+            catch (DateTimeParseException ex)
+            {
+                // invalid dates are ignored, RFC 7232 section 3.3
+            }
+        }
+
+        return epochMillis;
+    }
+
 }
@@ -32,15 +32,23 @@ import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.TRANSFER_ENCODING;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
 
-import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.function.ToIntFunction;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.agrona.MutableDirectBuffer;
 import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.IntHashSet;
+import org.agrona.collections.Object2ObjectHashMap;
 import org.agrona.collections.ObjectHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.buffer.BufferPool;
 import org.reaktivity.nukleus.function.MessageConsumer;
 import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
@@ -52,34 +60,65 @@ import org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil;
 import org.reaktivity.nukleus.http_cache.internal.stream.util.Writer;
 import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
 import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.HttpBeginExFW;
 import org.reaktivity.nukleus.route.RouteManager;
 
 public class DefaultCache
 {
-    private static final Pattern LINK_URL_PATTERN =
-        Pattern.compile(
-            "((<(?<scheme>https?):/)?/?(?<hostname>[^:/\\s]+)(?<port>:(\\d+))?(?<path>[\\w\\-.]*[^#?\\s]+).*>;" +
-            ".*(rel=\"(collection|items)\"))");
+    private static final String DEFAULT_PARTITION_NAME = "default";
+    private static final Pattern TAG_SEPARATOR_PATTERN = Pattern.compile("[\\s,]+");
+    private static final String SCHEME_SEPARATOR = "://";
+    private static final String HTTP_SCHEME = "http://";
+    private static final String HTTPS_SCHEME = "https://";
+    private static final String LINK_RELATION = "rel=";
+    private static final String LINK_RELATION_COLLECTION = "collection";
+    private static final String LINK_RELATION_ITEMS = "items";
+    private static final String EXPOSE_PREFERENCE_APPLIED_AND_ETAG = String.format("%s, %s", PREFERENCE_APPLIED, ETAG);
 
     final Array32FW<HttpHeaderFW> cachedResponseHeadersRO = new HttpBeginExFW().headers();
     final Array32FW<HttpHeaderFW> requestHeadersRO = new HttpBeginExFW().headers();
 
     final CacheControl responseCacheControl = new CacheControl();
     final CacheControl cachedRequestCacheControl = new CacheControl();
+    final FreshnessPolicy freshnessPolicy;
+
+    private final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> notModifiedHeadersRW =
+        new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW());
+    private final Consumer<HttpHeaderFW.Builder> notModifiedEtagHeader = this::notModifiedEtagHeader;
+    private final Consumer<HttpHeaderFW.Builder> notModifiedPreferenceAppliedHeader = this::notModifiedPreferenceAppliedHeader;
 
     private final BufferPool cachedRequestBufferPool;
     private final BufferPool cachedResponseBufferPool;
     private final BufferPool cacheBufferPool;
 
     private final Writer writer;
+    private final MutableDirectBuffer notModifiedHeadersBuffer;
     private final Int2ObjectHashMap<DefaultCacheEntry> cachedEntriesByRequestHash;
-    private final Int2ObjectHashMap<FrequencyBucket> frequencies;
-    private final Int2ObjectHashMap<Int2ObjectHashMap<DefaultCacheEntry>> cachedEntriesByRequestHashWithoutQuery;
+    private final Object2ObjectHashMap<String, CachePartition> partitionsByName;
+    private final List<CachePartition> partitions;
+    private final CachePartition defaultPartition;
+    private final PathTrie cachedEntriesByPath;
+    private final Object2ObjectHashMap<String, IntHashSet> cachedEntriesByTag;
+    private final BanList bans;
+    private final IntArrayList purgeHashes;
 
     private final HttpCacheCounters counters;
-    private final int allowedSlots;
-    private final int allowedCacheEvictionCount;
+    private final int totalSlots;
+    private final double refreshAheadBeta;
+    private final int refreshAheadMinimumFrequency;
+    private final String tagHeader;
+
+    private String notModifiedEtag;
+    private String notModifiedPreferWait;
+    private int allowedSlots;
+    private int allowedCacheEvictionCount;
+    private int reservedSlots;
+
+    private int[] banWalkHashes;
+    private int banWalkIndex;
+    private int banWalkLimit;
+    private long banWalkSequence;
 
     public DefaultCache(
         RouteManager router,
@@ -89,11 +128,16 @@ public class DefaultCache
         ToIntFunction<String> supplyTypeId,
         int allowedCachePercentage,
         int cacheCapacity,
-        int allowedCacheEvictionCount)
+        int allowedCacheEvictionCount,
+        double refreshAheadBeta,
+        int refreshAheadMinimumFrequency,
+        FreshnessPolicy freshnessPolicy,
+        String tagHeader)
     {
         assert allowedCachePercentage >= 0 && allowedCachePercentage <= 100;
         this.cacheBufferPool = cacheBufferPool;
         this.writer = new Writer(router, supplyTypeId, writeBuffer);
+        this.notModifiedHeadersBuffer = new UnsafeBuffer(new byte[writeBuffer.capacity()]);
         this.cachedRequestBufferPool = new CountingBufferPool(
                 cacheBufferPool,
                 counters.supplyCounter.apply("http-cache.cached.request.acquires"),
@@ -103,14 +147,68 @@ public class DefaultCache
                 counters.supplyCounter.apply("http-cache.cached.response.acquires"),
                 counters.supplyCounter.apply("http-cache.cached.response.releases"));
         this.cachedEntriesByRequestHash = new Int2ObjectHashMap<>();
-        this.frequencies = new Int2ObjectHashMap<>();
-        this.cachedEntriesByRequestHashWithoutQuery = new Int2ObjectHashMap<>();
+        this.cachedEntriesByPath = new PathTrie();
         this.counters = counters;
-        int totalSlots = cacheCapacity / cacheBufferPool.slotCapacity();
+        this.partitionsByName = new Object2ObjectHashMap<>();
+        this.partitions = new ArrayList<>();
+        this.defaultPartition = newPartition(DEFAULT_PARTITION_NAME);
+        this.totalSlots = cacheCapacity / cacheBufferPool.slotCapacity();
+        resize(allowedCachePercentage, allowedCacheEvictionCount);
+        this.refreshAheadBeta = refreshAheadBeta;
+        this.refreshAheadMinimumFrequency = refreshAheadMinimumFrequency;
+        this.freshnessPolicy = freshnessPolicy;
+        this.tagHeader = tagHeader;
+        this.cachedEntriesByTag = new Object2ObjectHashMap<>();
+        this.bans = new BanList();
+        this.banWalkHashes = new int[0];
+        this.purgeHashes = new IntArrayList();
+    }
+
+    public void resize(
+        int allowedCachePercentage,
+        int allowedCacheEvictionCount)
+    {
+        assert allowedCachePercentage >= 0 && allowedCachePercentage <= 100;
+        assert allowedCacheEvictionCount >= 0;
         this.allowedSlots = (totalSlots * allowedCachePercentage) / 100;
         this.allowedCacheEvictionCount = allowedCacheEvictionCount;
     }
 
+    public CachePartition defaultPartition()
+    {
+        return defaultPartition;
+    }
+
+    public CachePartition supplyPartition(
+        String name,
+        int quota)
+    {
+        CachePartition partition = partitionsByName.get(name);
+        if (partition == null)
+        {
+            partition = newPartition(name);
+        }
+
+        // clamp so the sum of partition quotas never over-commits the allowed cache slots
+        final int requestedSlots = Math.max(quota, 0) / cacheBufferPool.slotCapacity();
+        final int availableSlots = Math.max(allowedSlots - (reservedSlots - partition.quotaSlots()), 0);
+        final int quotaSlots = Math.min(requestedSlots, availableSlots);
+        reservedSlots += quotaSlots - partition.quotaSlots();
+        partition.quotaSlots(quotaSlots);
+
+        return partition;
+    }
+
+    private CachePartition newPartition(
+        String name)
+    {
+        final CachePartition partition = new CachePartition(this, partitions.size(), name, cachedRequestBufferPool,
+                                                            cachedResponseBufferPool, counters);
+        partitionsByName.put(name, partition);
+        partitions.add(partition);
+        return partition;
+    }
+
     public BufferPool getResponsePool()
     {
         return cachedResponseBufferPool;
@@ -133,49 +231,71 @@ public class DefaultCache
         return entry;
     }
 
+    public boolean isRefreshAheadDue(
+        DefaultCacheEntry entry,
+        Instant now)
+    {
+        final FrequencyBucket frequency = entry.frequencyParent();
+        return refreshAheadBeta > 0.0 &&
+               frequency != null &&
+               frequency.frequency() >= refreshAheadMinimumFrequency &&
+               entry.isRefreshAheadDue(now, refreshAheadBeta, 1.0 - ThreadLocalRandom.current().nextDouble());
+    }
+
     public DefaultCacheEntry supply(
+        CachePartition partition,
         int requestHash,
         short authScope,
         String requestURL)
     {
-        final int requestHashWithoutQuery = generateRequestHashWithoutQuery(requestURL);
-        Int2ObjectHashMap<DefaultCacheEntry> cachedEntriesByRequestHashFromWithoutQueryList =
-            cachedEntriesByRequestHashWithoutQuery.computeIfAbsent(requestHashWithoutQuery, l -> new Int2ObjectHashMap<>());
+        final String requestPath = requestPath(requestURL);
 
         DefaultCacheEntry entry = cachedEntriesByRequestHash.get(requestHash);
         if (entry == null)
         {
-            entry = new DefaultCacheEntry(this, requestHash, authScope, requestHashWithoutQuery, cachedRequestBufferPool,
-                                          cachedResponseBufferPool);
+            entry = new DefaultCacheEntry(this, partition, requestHash, authScope, requestURL, requestPath);
             cachedEntriesByRequestHash.put(requestHash, entry);
+            cachedEntriesByPath.add(requestPath, requestHash);
             counters.cacheEntries.accept(1);
+            partition.entries.accept(1);
+        }
+        else if (entry.isPinned())
+        {
+            final DefaultCacheEntry version = new DefaultCacheEntry(this, entry.partition(), requestHash, authScope,
+                                                                    requestURL, requestPath);
+            final FrequencyBucket frequencyParent = entry.frequencyParent();
+            if (frequencyParent != null)
+            {
+                frequencyParent.entries().remove(entry);
+                frequencyParent.entries().add(version);
+                version.frequencyParent(frequencyParent);
+            }
+            cachedEntriesByRequestHash.put(requestHash, version);
+            unindexTags(entry);
+            entry.retire();
+            entry = version;
+        }
+        else
+        {
+            entry.authScope(authScope);
         }
-
-        cachedEntriesByRequestHashFromWithoutQueryList.put(requestHash, entry);
 
         return entry;
     }
 
-    private int generateRequestHashWithoutQuery(
-        String requestURL)
-    {
-        final URI requestURI = URI.create(requestURL);
-        return String.format("%s://%s%s",
-                             requestURI.getScheme(),
-                             requestURI.getAuthority(),
-                             requestURI.getPath()).hashCode();
-    }
-
-
     public boolean matchCacheableRequest(
         Array32FW<HttpHeaderFW> requestHeaders,
         short authScope,
         int requestHash)
     {
         final DefaultCacheEntry cacheEntry = cachedEntriesByRequestHash.get(requestHash);
+        if (cacheEntry != null)
+        {
+            checkBans(cacheEntry);
+        }
 
-        return satisfiedByCache(requestHeaders) &&
-               cacheEntry != null &&
+        return cacheEntry != null &&
+               (satisfiedByCache(requestHeaders) || cacheEntry.isImmutable(Instant.now())) &&
                (cacheEntry.etag() != null || cacheEntry.isResponseCompleted()) &&
                cacheEntry.canServeRequest(requestHeaders, authScope);
     }
@@ -191,12 +311,12 @@ public class DefaultCache
             entry.frequencyParent().entries().remove(entry);
         }
 
-        final int requestHashWithoutQuery = entry.requestHashWithoutQuery();
-        cachedEntriesByRequestHashWithoutQuery.computeIfPresent(
-            requestHashWithoutQuery, (h, m) -> m.remove(requestHash) != null && m.isEmpty() ? null : m);
+        cachedEntriesByPath.remove(entry.requestPath(), requestHash);
 
-        entry.purge();
+        unindexTags(entry);
+        entry.retire();
         counters.cacheEntries.accept(-1);
+        entry.partition().entries.accept(-1);
         counters.responsesPurged.getAsLong();
     }
 
@@ -214,6 +334,290 @@ public class DefaultCache
         }
 
         headers.forEach(header -> invalidateLinkCacheEntry(factory, requestURL, traceId, header));
+
+        final String tags = getHeader(headers, tagHeader);
+        if (tags != null)
+        {
+            invalidateTags(factory, tags, traceId);
+        }
+    }
+
+    public void invalidateTags(
+        HttpCacheProxyFactory factory,
+        String tags,
+        long traceId)
+    {
+        invalidateTags(factory::getRequestGroup, tags, traceId);
+    }
+
+    void invalidateTags(
+        IntFunction<HttpProxyCacheableRequestGroup> supplyRequestGroup,
+        String tags,
+        long traceId)
+    {
+        for (String tag : TAG_SEPARATOR_PATTERN.split(tags))
+        {
+            final IntHashSet requestHashes = cachedEntriesByTag.get(tag);
+            if (requestHashes != null)
+            {
+                for (IntHashSet.IntIterator i = requestHashes.iterator(); i.hasNext(); )
+                {
+                    invalidateCacheEntry(supplyRequestGroup, i.nextValue(), traceId);
+                }
+                counters.tagInvalidations.getAsLong();
+            }
+        }
+    }
+
+    public void invalidatePath(
+        HttpCacheProxyFactory factory,
+        String path,
+        long traceId)
+    {
+        final IntFunction<HttpProxyCacheableRequestGroup> supplyRequestGroup = factory::getRequestGroup;
+        cachedEntriesByPath.forEach(path, requestHash -> invalidateCacheEntry(supplyRequestGroup, requestHash, traceId));
+    }
+
+    public void invalidate(
+        HttpCacheProxyFactory factory,
+        HttpCacheTarget target,
+        String value,
+        long traceId)
+    {
+        switch (target)
+        {
+        case URL:
+            invalidateURL(factory::getRequestGroup, value, traceId);
+            break;
+        case PREFIX:
+            ban(value, null, null);
+            break;
+        case TAG:
+            invalidateTags(factory, value, traceId);
+            break;
+        }
+    }
+
+    void invalidateURL(
+        IntFunction<HttpProxyCacheableRequestGroup> supplyRequestGroup,
+        String requestURL,
+        long traceId)
+    {
+        cachedEntriesByPath.forEach(requestPath(requestURL), requestHash ->
+        {
+            if (matchesRequestURL(requestHash, requestURL))
+            {
+                invalidateCacheEntry(supplyRequestGroup, requestHash, traceId);
+            }
+        });
+    }
+
+    public void purge(
+        HttpCacheProxyFactory factory,
+        HttpCacheTarget target,
+        String value,
+        long traceId)
+    {
+        purge(factory::getRequestGroup, target, value, traceId);
+    }
+
+    void purge(
+        IntFunction<HttpProxyCacheableRequestGroup> supplyRequestGroup,
+        HttpCacheTarget target,
+        String value,
+        long traceId)
+    {
+        switch (target)
+        {
+        case URL:
+            cachedEntriesByPath.forEach(requestPath(value), requestHash ->
+            {
+                if (matchesRequestURL(requestHash, value))
+                {
+                    purgeHashes.addInt(requestHash);
+                }
+            });
+            break;
+        case PREFIX:
+            if (isPathPrefix(value))
+            {
+                for (Int2ObjectHashMap<DefaultCacheEntry>.ValueIterator i = cachedEntriesByRequestHash.values().iterator();
+                     i.hasNext(); )
+                {
+                    final DefaultCacheEntry entry = i.next();
+                    if (matchesPrefix(entry.requestPath(), value))
+                    {
+                        purgeHashes.addInt(entry.requestHash());
+                    }
+                }
+            }
+            else
+            {
+                cachedEntriesByPath.forEachPrefix(value, purgeHashes::addInt);
+            }
+            break;
+        case TAG:
+            for (String tag : TAG_SEPARATOR_PATTERN.split(value))
+            {
+                final IntHashSet requestHashes = cachedEntriesByTag.get(tag);
+                if (requestHashes != null)
+                {
+                    requestHashes.forEach(purgeHashes::addInt);
+                }
+            }
+            break;
+        }
+
+        for (int i = 0; i < purgeHashes.size(); i++)
+        {
+            final int requestHash = purgeHashes.getInt(i);
+            if (supplyRequestGroup.apply(requestHash) != null)
+            {
+                invalidateCacheEntry(supplyRequestGroup, requestHash, traceId);
+            }
+            else if (cachedEntriesByRequestHash.containsKey(requestHash))
+            {
+                purge(requestHash);
+            }
+        }
+        purgeHashes.clear();
+    }
+
+    private boolean matchesRequestURL(
+        int requestHash,
+        String requestURL)
+    {
+        final DefaultCacheEntry entry = cachedEntriesByRequestHash.get(requestHash);
+        return entry != null && requestURL.equals(entry.requestURL());
+    }
+
+    private void invalidateCacheEntry(
+        IntFunction<HttpProxyCacheableRequestGroup> supplyRequestGroup,
+        int requestHash,
+        long traceId)
+    {
+        final DefaultCacheEntry entry = cachedEntriesByRequestHash.get(requestHash);
+        if (entry != null)
+        {
+            final HttpProxyCacheableRequestGroup requestGroup = supplyRequestGroup.apply(requestHash);
+            if (requestGroup != null)
+            {
+                requestGroup.onCacheEntryInvalidated(traceId);
+            }
+            entry.invalidate();
+        }
+    }
+
+    public void ban(
+        String pathPrefix,
+        String headerName,
+        String headerValue)
+    {
+        bans.add(pathPrefix, headerName, headerValue);
+        counters.bans.accept(1);
+    }
+
+    public boolean hasBans()
+    {
+        return !bans.isEmpty();
+    }
+
+    public void walkBans(
+        int limit)
+    {
+        if (banWalkIndex == banWalkLimit && !bans.isEmpty())
+        {
+            startBanWalk();
+        }
+
+        final int walkLimit = Math.min(banWalkIndex + limit, banWalkLimit);
+        for (; banWalkIndex < walkLimit; banWalkIndex++)
+        {
+            final DefaultCacheEntry entry = cachedEntriesByRequestHash.get(banWalkHashes[banWalkIndex]);
+            if (entry != null)
+            {
+                checkBans(entry);
+            }
+        }
+
+        if (banWalkIndex == banWalkLimit)
+        {
+            final int retired = bans.retire(banWalkSequence);
+            if (retired != 0)
+            {
+                counters.bans.accept(-retired);
+            }
+        }
+    }
+
+    long banSequence()
+    {
+        return bans.sequence();
+    }
+
+    private void startBanWalk()
+    {
+        final int size = cachedEntriesByRequestHash.size();
+        if (banWalkHashes.length < size)
+        {
+            banWalkHashes = new int[size];
+        }
+
+        int index = 0;
+        for (Int2ObjectHashMap<DefaultCacheEntry>.KeyIterator i = cachedEntriesByRequestHash.keySet().iterator(); i.hasNext(); )
+        {
+            banWalkHashes[index++] = i.nextInt();
+        }
+
+        banWalkIndex = 0;
+        banWalkLimit = index;
+        banWalkSequence = bans.sequence();
+    }
+
+    private void checkBans(
+        DefaultCacheEntry entry)
+    {
+        if (bans.isBanned(entry))
+        {
+            entry.invalidate();
+            counters.banInvalidations.getAsLong();
+        }
+    }
+
+    void indexTags(
+        DefaultCacheEntry entry,
+        Array32FW<HttpHeaderFW> responseHeaders)
+    {
+        unindexTags(entry);
+
+        final String tags = getHeader(responseHeaders, tagHeader);
+        if (tags != null)
+        {
+            final int requestHash = entry.requestHash();
+            for (String tag : TAG_SEPARATOR_PATTERN.split(tags))
+            {
+                if (!tag.isEmpty())
+                {
+                    cachedEntriesByTag.computeIfAbsent(tag, t -> new IntHashSet()).add(requestHash);
+                }
+            }
+            entry.tags(tags);
+        }
+    }
+
+    private void unindexTags(
+        DefaultCacheEntry entry)
+    {
+        final String tags = entry.tags();
+        if (tags != null)
+        {
+            final int requestHash = entry.requestHash();
+            for (String tag : TAG_SEPARATOR_PATTERN.split(tags))
+            {
+                cachedEntriesByTag.computeIfPresent(tag, (t, s) -> s.remove(requestHash) && s.isEmpty() ? null : s);
+            }
+            entry.tags(null);
+        }
     }
 
     private void invalidateLinkCacheEntry(
@@ -222,45 +626,131 @@ public class DefaultCache
         long traceId,
         HttpHeaderFW header)
     {
-        final String linkName = header.name().asString();
-        final String linkValue = header.value().asString();
-        if (LINK.equals(linkName))
+        if (LINK.equals(header.name().asString()))
         {
-            for (String linkTarget: linkValue.split("\\s*,\\s*"))
+            final String linkValue = header.value().asString();
+            int targetStart = linkValue.indexOf('<');
+            while (targetStart != -1)
             {
-                Matcher matcher = LINK_URL_PATTERN.matcher(linkTarget);
-                if (matcher.matches())
+                final int targetEnd = linkValue.indexOf('>', targetStart);
+                if (targetEnd == -1)
                 {
-                    final URI requestURI = URI.create(requestURL);
-                    final String linkTargetScheme = matcher.group("scheme");
-                    final String linkTargetHostname = matcher.group("hostname");
-
-                    if ((linkTargetScheme != null && linkTargetHostname != null) &&
-                        (!linkTargetScheme.equals(requestURI.getScheme()) || !linkTargetHostname.equals(requestURI.getHost())))
-                    {
-                        return;
-                    }
+                    break;
+                }
 
-                    final String linkTargetFullUrl = String.format("%s://%s%s", requestURI.getScheme(),
-                        requestURI.getAuthority(),  matcher.group("path"));
-                    final int requestHashWithoutQuery = generateRequestHashWithoutQuery(linkTargetFullUrl);
-                    Int2ObjectHashMap<DefaultCacheEntry> requestHashWithoutQueryList =
-                        cachedEntriesByRequestHashWithoutQuery.get(requestHashWithoutQuery);
-                    if (requestHashWithoutQueryList != null)
+                final int nextTargetStart = linkValue.indexOf('<', targetEnd);
+                final int paramsEnd = nextTargetStart != -1 ? nextTargetStart : linkValue.length();
+                if (isCollectionOrItemsRelation(linkValue, targetEnd, paramsEnd))
+                {
+                    final String linkTarget = linkValue.substring(targetStart + 1, targetEnd).trim();
+                    final String linkPath = resolveLinkPath(requestURL, linkTarget);
+                    if (linkPath != null)
                     {
-                        requestHashWithoutQueryList.forEach((hash, entry) ->
-                        {
-                            final HttpProxyCacheableRequestGroup requestGroup = factory.getRequestGroup(hash);
-                            if (requestGroup != null)
-                            {
-                                requestGroup.onCacheEntryInvalidated(traceId);
-                            }
-                            entry.invalidate();
-                        });
+                        invalidatePath(factory, linkPath, traceId);
                     }
                 }
+
+                targetStart = nextTargetStart;
+            }
+        }
+    }
+
+    private static boolean isCollectionOrItemsRelation(
+        String linkValue,
+        int paramsStart,
+        int paramsEnd)
+    {
+        final int relationAt = linkValue.indexOf(LINK_RELATION, paramsStart);
+        boolean matches = false;
+        if (relationAt != -1 && relationAt < paramsEnd)
+        {
+            final int relationStart = relationAt + LINK_RELATION.length();
+            final int semicolonAt = linkValue.indexOf(';', relationStart);
+            int relationEnd = semicolonAt != -1 && semicolonAt < paramsEnd ? semicolonAt : paramsEnd;
+            final String relations = linkValue.substring(relationStart, relationEnd).replace('"', ' ').replace(',', ' ');
+            for (String relation : relations.split(" "))
+            {
+                matches |= LINK_RELATION_COLLECTION.equalsIgnoreCase(relation) ||
+                           LINK_RELATION_ITEMS.equalsIgnoreCase(relation);
             }
         }
+        return matches;
+    }
+
+    private static String resolveLinkPath(
+        String requestURL,
+        String linkTarget)
+    {
+        final int originEnd = originEnd(requestURL);
+        final String linkPath = requestPath(linkTarget);
+
+        String resolved = null;
+        if (linkPath.startsWith(HTTP_SCHEME) || linkPath.startsWith(HTTPS_SCHEME))
+        {
+            if (linkPath.regionMatches(true, 0, requestURL, 0, originEnd) &&
+                (linkPath.length() == originEnd || linkPath.charAt(originEnd) == '/'))
+            {
+                resolved = linkPath;
+            }
+        }
+        else if (linkPath.startsWith("//"))
+        {
+            final int authorityStart = requestURL.indexOf(SCHEME_SEPARATOR) + 1;
+            if (linkPath.regionMatches(true, 0, requestURL, authorityStart, originEnd - authorityStart))
+            {
+                resolved = requestURL.substring(0, authorityStart) + linkPath;
+            }
+        }
+        else if (linkPath.startsWith("/"))
+        {
+            resolved = requestURL.substring(0, originEnd) + linkPath;
+        }
+        else if (linkPath.indexOf(':') == -1)
+        {
+            final String requestPath = requestPath(requestURL);
+            final int directoryEnd = Math.max(requestPath.lastIndexOf('/') + 1, originEnd);
+            resolved = requestPath.substring(0, directoryEnd) + (directoryEnd == originEnd ? "/" : "") + linkPath;
+        }
+        return resolved;
+    }
+
+    private static int originEnd(
+        String requestURL)
+    {
+        final int schemeEnd = requestURL.indexOf(SCHEME_SEPARATOR);
+        final int authorityStart = schemeEnd != -1 ? schemeEnd + SCHEME_SEPARATOR.length() : 0;
+        int originEnd = authorityStart;
+        while (originEnd < requestURL.length() && "/?#".indexOf(requestURL.charAt(originEnd)) == -1)
+        {
+            originEnd++;
+        }
+        return originEnd;
+    }
+
+    static boolean matchesPrefix(
+        String requestPath,
+        String prefix)
+    {
+        return isPathPrefix(prefix)
+                ? requestPath.startsWith(prefix, originEnd(requestPath))
+                : requestPath.startsWith(prefix);
+    }
+
+    private static boolean isPathPrefix(
+        String prefix)
+    {
+        return prefix.startsWith("/");
+    }
+
+    private static String requestPath(
+        String requestURL)
+    {
+        int pathEnd = 0;
+        while (pathEnd < requestURL.length() && "?#".indexOf(requestURL.charAt(pathEnd)) == -1)
+        {
+            pathEnd++;
+        }
+        return pathEnd == requestURL.length() ? requestURL : requestURL.substring(0, pathEnd);
     }
 
     public boolean checkTrailerToRetry(
@@ -334,47 +824,101 @@ public class DefaultCache
         boolean promiseNextPollRequest)
     {
         DefaultCacheEntry cacheEntry = lookup(requestHash);
-        if (preferWait != null)
+
+        writer.doHttpResponse(reply, routeId, replyId, traceId, notModifiedHeaders(etag, preferWait));
+
+        if (preferWait != null && promiseNextPollRequest)
         {
-            writer.doHttpResponse(
+            writer.doHttpPushPromise(
                 reply,
                 routeId,
                 replyId,
-                traceId,
-                e -> e.item(h -> h.name(STATUS).value(NOT_MODIFIED_304))
-                      .item(h -> h.name(ETAG).value(etag))
-                      .item(h -> h.name(PREFERENCE_APPLIED).value(preferWait))
-                      .item(h -> h.name(ACCESS_CONTROL_EXPOSE_HEADERS).value(String.format("%s, %s", PREFERENCE_APPLIED, ETAG))));
+                authorization,
+                cacheEntry.getRequestHeaders(),
+                cacheEntry.getCachedResponseHeaders(),
+                cacheEntry.etag());
+        }
 
-            if (promiseNextPollRequest)
-            {
-                writer.doHttpPushPromise(
-                    reply,
-                    routeId,
-                    replyId,
-                    authorization,
-                    cacheEntry.getRequestHeaders(),
-                    cacheEntry.getCachedResponseHeaders(),
-                    cacheEntry.etag());
-            }
+        writer.doHttpEnd(reply, routeId, replyId, traceId);
+    }
+
+    public Array32FW<HttpHeaderFW> notModifiedHeaders(
+        String etag,
+        String preferWait)
+    {
+        notModifiedEtag = etag;
+        notModifiedPreferWait = preferWait;
+
+        final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder =
+            notModifiedHeadersRW.wrap(notModifiedHeadersBuffer, 0, notModifiedHeadersBuffer.capacity());
+        notModifiedHeaders(builder);
+        return builder.build();
+    }
+
+    private void notModifiedHeaders(
+        Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder)
+    {
+        builder.item(h -> h.name(STATUS).value(NOT_MODIFIED_304));
+
+        if (notModifiedEtag != null)
+        {
+            builder.item(notModifiedEtagHeader);
         }
-        else
+
+        if (notModifiedPreferWait != null)
         {
-            writer.doHttpResponse(
-                reply,
-                routeId,
-                replyId,
-                traceId,
-                e -> e.item(h -> h.name(STATUS).value(NOT_MODIFIED_304))
-                      .item(h -> h.name(ETAG).value(etag)));
+            builder.item(notModifiedPreferenceAppliedHeader)
+                   .item(h -> h.name(ACCESS_CONTROL_EXPOSE_HEADERS).value(EXPOSE_PREFERENCE_APPLIED_AND_ETAG));
         }
+    }
 
-        writer.doHttpEnd(reply, routeId, replyId, traceId);
+    private void notModifiedEtagHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(ETAG).value(notModifiedEtag);
+    }
+
+    private void notModifiedPreferenceAppliedHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(PREFERENCE_APPLIED).value(notModifiedPreferWait);
+    }
+
+    public boolean isCacheFull(
+        CachePartition partition)
+    {
+        return partition.acquiredSlots() >= partition.quotaSlots() &&
+               overflowSlots() >= Math.max(allowedSlots - reservedSlots, 0);
     }
 
-    public boolean isCacheFull()
+    boolean canAcquireSlot(
+        CachePartition partition)
     {
-        return cacheBufferPool.acquiredSlots() >= allowedSlots;
+        boolean canAcquire = true;
+
+        if (partition.acquiredSlots() >= partition.quotaSlots() && reservedSlots != 0)
+        {
+            int unusedReservedSlots = 0;
+            for (int i = 0; i < partitions.size(); i++)
+            {
+                unusedReservedSlots += partitions.get(i).reservedSlots();
+            }
+
+            final int freeSlots = totalSlots - cacheBufferPool.acquiredSlots();
+            canAcquire = freeSlots > unusedReservedSlots;
+        }
+
+        return canAcquire;
+    }
+
+    private int overflowSlots()
+    {
+        int overflowSlots = 0;
+        for (int i = 0; i < partitions.size(); i++)
+        {
+            overflowSlots += partitions.get(i).overflowSlots();
+        }
+        return overflowSlots;
     }
 
     public boolean isRequestCacheable(
@@ -389,7 +933,8 @@ public class DefaultCache
             case CACHE_CONTROL:
                 return value.contains(CacheDirectives.NO_STORE);
             case METHOD:
-                return !HttpMethods.GET.equalsIgnoreCase(value);
+                return !HttpMethods.GET.equalsIgnoreCase(value) &&
+                       !HttpMethods.HEAD.equalsIgnoreCase(value);
             case TRANSFER_ENCODING:
                 return true;
             default:
@@ -399,37 +944,62 @@ public class DefaultCache
     }
 
     public void purgeEntriesForNonPendingRequests(
+        CachePartition partition,
         Set<Integer> requestHashes)
     {
+        final CachePartition victim = partition.overflowSlots() != 0 ? partition : largestOverflowPartition(partition);
+        final Int2ObjectHashMap<FrequencyBucket> frequencies = victim.frequencies();
+
         int frequency = 1;
-        for (int count = 1; count <= allowedCacheEvictionCount;)
+        int remainingBuckets = frequencies.size();
+        while (purgeHashes.size() < allowedCacheEvictionCount && remainingBuckets > 0)
         {
             final FrequencyBucket frequencyBucket = frequencies.get(frequency);
 
             if (frequencyBucket != null)
             {
+                remainingBuckets--;
                 for (DefaultCacheEntry entry : frequencyBucket.entries())
                 {
+                    if (purgeHashes.size() == allowedCacheEvictionCount)
+                    {
+                        break;
+                    }
+
                     final int requestHash = entry.requestHash();
                     if (!requestHashes.contains(requestHash))
                     {
-                        if (count <= allowedCacheEvictionCount)
-                        {
-                            purge(requestHash);
-                            count++;
-                        }
-                        else
-                        {
-                            return;
-                        }
+                        purgeHashes.addInt(requestHash);
                     }
                 }
             }
             frequency++;
         }
+
+        for (int i = 0; i < purgeHashes.size(); i++)
+        {
+            purge(purgeHashes.getInt(i));
+            victim.evictions.getAsLong();
+        }
+        purgeHashes.clear();
         counters.cachePurgeAttempts.getAsLong();
     }
 
+    private CachePartition largestOverflowPartition(
+        CachePartition partition)
+    {
+        CachePartition largest = partition;
+        for (int i = 0; i < partitions.size(); i++)
+        {
+            final CachePartition candidate = partitions.get(i);
+            if (candidate.overflowSlots() > largest.overflowSlots())
+            {
+                largest = candidate;
+            }
+        }
+        return largest;
+    }
+
     public void updateResponseHeaderIfNecessary(
         int requestHash,
         Array32FW<HttpHeaderFW> responseHeaders)
@@ -465,6 +1035,7 @@ public class DefaultCache
     private void incrementFrequency(
         DefaultCacheEntry entry)
     {
+        final Int2ObjectHashMap<FrequencyBucket> frequencies = entry.partition().frequencies();
         final FrequencyBucket frequencyBucket = entry.frequencyParent();
         final int currentParentKey = (frequencyBucket != null) ? frequencyBucket.frequency() : 0;
         final FrequencyBucket currentFrequency = frequencies.get(currentParentKey);
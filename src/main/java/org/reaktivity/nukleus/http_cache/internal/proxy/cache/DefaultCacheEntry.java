@@ -21,6 +21,7 @@ import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.MAX_AGE;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.MAX_STALE;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.MIN_FRESH;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.PUBLIC;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.S_MAXAGE;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils.sameAuthorizationScope;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpStatus.NOT_MODIFIED_304;
@@ -49,6 +50,7 @@ import org.reaktivity.nukleus.http_cache.internal.types.stream.HttpBeginExFW;
 public final class DefaultCacheEntry
 {
     public static final int NUM_OF_HEADER_SLOTS = 1;
+    private static final long LAST_MODIFIED_UNPARSED = -2L;
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz");
 
     private final BufferPool requestPool;
@@ -56,12 +58,15 @@ public final class DefaultCacheEntry
     private final IntArrayList responseSlots;
 
     private final DefaultCache cache;
+    private final CachePartition partition;
     private final int requestHash;
-    private final int requestHashWithoutQuery;
-    private final short authScope;
+    private final String requestURL;
+    private final String requestPath;
+    private short authScope;
 
     private String etag;
     private String varyBy;
+    private String tags;
     private FrequencyBucket frequencyParent = null;
     private int requestSlot = NO_SLOT;
     private int responseHeadersSize;
@@ -70,22 +75,39 @@ public final class DefaultCacheEntry
     private boolean responseCompleted;
     private Instant cacheStaleAt;
     private Instant cacheReceivedAt;
+    private long lastModifiedAt = LAST_MODIFIED_UNPARSED;
+    private long fetchMillis;
+    private int minimumTtl;
+    private int maximumTtl;
+    private long banSequence;
+    private int pins;
+    private boolean retired;
 
     DefaultCacheEntry(
         DefaultCache cache,
+        CachePartition partition,
         int requestHash,
         short authScope,
-        int requestHashWithoutQuery,
-        BufferPool requestPool,
-        BufferPool responsePool)
+        String requestURL,
+        String requestPath)
     {
         this.cache = cache;
+        this.partition = partition;
         this.requestHash = requestHash;
         this.authScope = authScope;
-        this.requestHashWithoutQuery = requestHashWithoutQuery;
-        this.requestPool = requestPool;
-        this.responsePool = responsePool;
+        this.requestURL = requestURL;
+        this.requestPath = requestPath;
+        this.requestPool = partition.requestPool();
+        this.responsePool = partition.responsePool();
         this.responseSlots = new IntArrayList();
+        this.banSequence = cache.banSequence();
+        this.minimumTtl = cache.freshnessPolicy.minimumTtl();
+        this.maximumTtl = cache.freshnessPolicy.maximumTtl();
+    }
+
+    public CachePartition partition()
+    {
+        return partition;
     }
 
     public FrequencyBucket frequencyParent()
@@ -99,6 +121,38 @@ public final class DefaultCacheEntry
         this.frequencyParent = frequencyParent;
     }
 
+    public void pin()
+    {
+        assert !retired || pins > 0;
+        pins++;
+    }
+
+    public void unpin()
+    {
+        assert pins > 0;
+        pins--;
+
+        if (retired && pins == 0)
+        {
+            purge();
+        }
+    }
+
+    public boolean isPinned()
+    {
+        return pins > 0;
+    }
+
+    void retire()
+    {
+        retired = true;
+
+        if (pins == 0)
+        {
+            purge();
+        }
+    }
+
     public String getVaryBy()
     {
         return varyBy;
@@ -109,9 +163,65 @@ public final class DefaultCacheEntry
         return requestHash;
     }
 
-    public int requestHashWithoutQuery()
+    String tags()
+    {
+        return tags;
+    }
+
+    void tags(
+        String tags)
+    {
+        this.tags = tags;
+    }
+
+    long banSequence()
+    {
+        return banSequence;
+    }
+
+    void banSequence(
+        long banSequence)
+    {
+        this.banSequence = banSequence;
+    }
+
+    public short authScope()
+    {
+        return authScope;
+    }
+
+    void authScope(
+        short authScope)
+    {
+        this.authScope = authScope;
+    }
+
+    public boolean isShareable()
+    {
+        if (responseSlots.isEmpty())
+        {
+            return false;
+        }
+
+        final CacheControl responseCacheControl = responseCacheControl();
+        return !SurrogateControl.isProtectedEx(getCachedResponseHeaders()) &&
+               (responseCacheControl.contains(PUBLIC) || responseCacheControl.contains(S_MAXAGE));
+    }
+
+    public boolean isShareableWith(
+        short requestAuthScope)
+    {
+        return requestAuthScope == authScope || isShareable();
+    }
+
+    public String requestURL()
+    {
+        return requestURL;
+    }
+
+    public String requestPath()
     {
-        return requestHashWithoutQuery;
+        return requestPath;
     }
 
     public int responseSize()
@@ -151,6 +261,11 @@ public final class DefaultCacheEntry
         validationRequired = true;
     }
 
+    boolean isValidationRequired()
+    {
+        return validationRequired;
+    }
+
     public IntArrayList getResponseSlots()
     {
         return responseSlots;
@@ -211,9 +326,11 @@ public final class DefaultCacheEntry
     public boolean storeResponseHeaders(
         Array32FW<HttpHeaderFW> responseHeaders)
     {
+        assert !retired;
         evictResponseIfNecessary();
         varyBy = getHeader(responseHeaders, HttpHeaders.VARY);
         etag = getHeader(responseHeaders, ETAG);
+        banSequence = cache.banSequence();
         resetCacheTiming();
 
         final int slotCapacity = responsePool.slotCapacity();
@@ -232,6 +349,7 @@ public final class DefaultCacheEntry
         MutableDirectBuffer buffer = responsePool.buffer(headerSlot);
         buffer.putBytes(0, responseHeaders.buffer(), responseHeaders.offset(), responseHeaders.sizeof());
         responseHeadersSize = responseHeaders.sizeof();
+        cache.indexTags(this, responseHeaders);
 
         return true;
     }
@@ -278,7 +396,7 @@ public final class DefaultCacheEntry
             headersRW.item(y -> y.name(entry.getKey()).value(entry.getValue()));
         }
 
-        headersRW.build();
+        cache.indexTags(this, headersRW.build());
     }
 
     public boolean storeResponseData(
@@ -303,7 +421,7 @@ public final class DefaultCacheEntry
         final boolean doesNotVaryBy = doesNotVaryBy(requestHeaders);
         final boolean satisfiesFreshnessRequirements = satisfiesFreshnessRequirementsOf(requestHeaders, now);
         final boolean satisfiesStalenessRequirements = satisfiesStalenessRequirementsOf(requestHeaders, now);
-        final boolean satisfiesAgeRequirements = satisfiesAgeRequirementsOf(requestHeaders, now);
+        final boolean satisfiesAgeRequirements = isImmutable(now) || satisfiesAgeRequirementsOf(requestHeaders, now);
 
         return canBeServedToAuthorized &&
                doesNotVaryBy &&
@@ -379,6 +497,37 @@ public final class DefaultCacheEntry
         return now.getEpochSecond() > staleAt.getEpochSecond();
     }
 
+    public boolean isImmutable(
+        Instant now)
+    {
+        return cache.freshnessPolicy.isImmutable(responseCacheControl()) && !isStale(now);
+    }
+
+    public void fetchMillis(
+        long fetchMillis)
+    {
+        this.fetchMillis = fetchMillis;
+    }
+
+    public void ttlBounds(
+        int minimumTtl,
+        int maximumTtl)
+    {
+        this.minimumTtl = minimumTtl;
+        this.maximumTtl = maximumTtl;
+        this.cacheStaleAt = null;
+    }
+
+    boolean isRefreshAheadDue(
+        Instant now,
+        double beta,
+        double random)
+    {
+        // XFetch: refresh early by fetch time scaled by beta and an exponentially distributed draw
+        final double earlyMillis = fetchMillis * beta * -Math.log(random);
+        return now.toEpochMilli() + earlyMillis >= staleAt().toEpochMilli();
+    }
+
     private CacheControl responseCacheControl()
     {
         Array32FW<HttpHeaderFW> responseHeaders = getCachedResponseHeaders();
@@ -476,26 +625,16 @@ public final class DefaultCacheEntry
     {
         if (cacheStaleAt == null)
         {
-            final CacheControl cacheControl = responseCacheControl();
+            final Array32FW<HttpHeaderFW> responseHeaders = getCachedResponseHeaders();
             final Instant receivedAt = receivedAt();
-            int staleInSeconds = 0;
-
-            final String sMaxAge = cacheControl.getValue(S_MAXAGE);
-            if (sMaxAge != null)
-            {
-                staleInSeconds = parseInt(sMaxAge);
-            }
-            else
-            {
-                final String maxAge = cacheControl.getValue(MAX_AGE);
-                if (maxAge != null)
-                {
-                    staleInSeconds = parseInt(maxAge);
-                }
-            }
-
-            final int surrogateAge = getSurrogateAge(this.getCachedResponseHeaders());
-            staleInSeconds = Math.max(staleInSeconds, surrogateAge);
+            final int staleInSeconds = cache.freshnessPolicy.freshnessLifetime(
+                responseCacheControl(),
+                getHeader(responseHeaders, HttpHeaders.EXPIRES) != null,
+                getSurrogateAge(responseHeaders),
+                receivedAt.toEpochMilli(),
+                lastModifiedAt(),
+                minimumTtl,
+                maximumTtl);
 
             cacheStaleAt = receivedAt.plusSeconds(staleInSeconds);
         }
@@ -530,9 +669,21 @@ public final class DefaultCacheEntry
         return cacheReceivedAt;
     }
 
+    public long lastModifiedAt()
+    {
+        if (lastModifiedAt == LAST_MODIFIED_UNPARSED)
+        {
+            final Array32FW<HttpHeaderFW> responseHeaders = getCachedResponseHeaders();
+            lastModifiedAt = CacheUtils.parseDate(getHeader(responseHeaders, HttpHeaders.LAST_MODIFIED));
+        }
+
+        return lastModifiedAt;
+    }
+
     private void resetCacheTiming()
     {
         cacheStaleAt = null;
         cacheReceivedAt = null;
+        lastModifiedAt = LAST_MODIFIED_UNPARSED;
     }
 }
@@ -0,0 +1,103 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static java.lang.Integer.parseInt;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.IMMUTABLE;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.MAX_AGE;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.S_MAXAGE;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils.NO_DATE;
+
+public final class FreshnessPolicy
+{
+    private final int heuristicPercentage;
+    private final int heuristicMaximum;
+    private final int minimumTtl;
+    private final int maximumTtl;
+
+    public FreshnessPolicy(
+        int heuristicPercentage,
+        int heuristicMaximum,
+        int minimumTtl,
+        int maximumTtl)
+    {
+        assert heuristicPercentage >= 0 && heuristicPercentage <= 100;
+        assert minimumTtl <= maximumTtl;
+        this.heuristicPercentage = heuristicPercentage;
+        this.heuristicMaximum = heuristicMaximum;
+        this.minimumTtl = minimumTtl;
+        this.maximumTtl = maximumTtl;
+    }
+
+    public int minimumTtl()
+    {
+        return minimumTtl;
+    }
+
+    public int maximumTtl()
+    {
+        return maximumTtl;
+    }
+
+    public int freshnessLifetime(
+        CacheControl cacheControl,
+        boolean expires,
+        int surrogateAge,
+        long receivedAt,
+        long lastModifiedAt)
+    {
+        return freshnessLifetime(cacheControl, expires, surrogateAge, receivedAt, lastModifiedAt, minimumTtl, maximumTtl);
+    }
+
+    public int freshnessLifetime(
+        CacheControl cacheControl,
+        boolean expires,
+        int surrogateAge,
+        long receivedAt,
+        long lastModifiedAt,
+        int minimumTtl,
+        int maximumTtl)
+    {
+        int lifetime = 0;
+
+        final String sMaxAge = cacheControl.getValue(S_MAXAGE);
+        final String maxAge = cacheControl.getValue(MAX_AGE);
+        if (sMaxAge != null)
+        {
+            lifetime = parseInt(sMaxAge);
+        }
+        else if (maxAge != null)
+        {
+            lifetime = parseInt(maxAge);
+        }
+        else if (!expires && lastModifiedAt != NO_DATE && receivedAt > lastModifiedAt)
+        {
+            // RFC 7234 4.2.2: a fraction of the time since last modification, capped
+            final long heuristic = (receivedAt - lastModifiedAt) / 1000L * heuristicPercentage / 100L;
+            lifetime = (int) Math.min(heuristic, heuristicMaximum);
+        }
+
+        lifetime = Math.max(lifetime, surrogateAge);
+
+        return Math.min(Math.max(lifetime, minimumTtl), maximumTtl);
+    }
+
+    public boolean isImmutable(
+        CacheControl cacheControl)
+    {
+        return cacheControl.contains(IMMUTABLE);
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static java.lang.Integer.parseInt;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.MAX_AGE;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.NO_STORE;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.PRIVATE;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.PUBLIC;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives.S_MAXAGE;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpStatus.GONE_410;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpStatus.NOT_FOUND_404;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.CACHE_CONTROL;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.RETRY_AFTER;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.STATUS;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.VARY;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
+
+import java.util.Arrays;
+
+import org.agrona.collections.Hashing;
+import org.agrona.collections.Int2IntHashMap;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+
+/**
+ * Bounded table of negative responses. Entries are preallocated and indexed by request hash.
+ * Live entries are kept in insertion order, so a full table evicts its oldest entry in O(1)
+ * instead of scanning for expired ones. Expired entries are removed lazily on lookup.
+ * Responses carrying origin freshness (s-maxage or max-age) are left to the regular cache,
+ * and only use that lifetime here when the regular cache does not store them.
+ * Entries are shared by every authorization scope coalesced onto the request hash, so responses
+ * to authorized requests are only stored when explicitly public.
+ */
+public final class NegativeCache
+{
+    private static final int NO_SLOT = -1;
+    private static final long NO_ORIGIN_TTL = -1L;
+
+    private final CacheControl responseCacheControl = new CacheControl();
+    private final NegativeCacheEntry[] entries;
+    private final int[] older;
+    private final int[] newer;
+    private final Int2IntHashMap slotsByHash;
+    private final long notFoundTtl;
+    private final long errorTtl;
+
+    private int oldest = NO_SLOT;
+    private int newest = NO_SLOT;
+    private int free;
+
+    public NegativeCache(
+        int notFoundTtl,
+        int errorTtl,
+        int capacity)
+    {
+        this.entries = new NegativeCacheEntry[capacity];
+        this.older = new int[capacity];
+        this.newer = new int[capacity];
+        this.slotsByHash = new Int2IntHashMap(capacity << 1, Hashing.DEFAULT_LOAD_FACTOR, NO_SLOT);
+        this.notFoundTtl = SECONDS.toMillis(notFoundTtl);
+        this.errorTtl = SECONDS.toMillis(errorTtl);
+
+        for (int slot = 0; slot < capacity; slot++)
+        {
+            entries[slot] = new NegativeCacheEntry();
+            newer[slot] = slot + 1 < capacity ? slot + 1 : NO_SLOT;
+        }
+        Arrays.fill(older, NO_SLOT);
+        this.free = capacity != 0 ? 0 : NO_SLOT;
+    }
+
+    public boolean isNegative(
+        Array32FW<HttpHeaderFW> responseHeaders)
+    {
+        return ttl(getHeader(responseHeaders, STATUS)) > 0L &&
+               originTtl(responseHeaders) == NO_ORIGIN_TTL;
+    }
+
+    public boolean store(
+        int requestHash,
+        boolean authorized,
+        Array32FW<HttpHeaderFW> responseHeaders,
+        long now)
+    {
+        final String status = getHeader(responseHeaders, STATUS);
+        final long statusTtl = ttl(status);
+
+        boolean stored = false;
+        if (statusTtl > 0L && isStorable(authorized, responseHeaders))
+        {
+            final long originTtl = originTtl(responseHeaders);
+            final long ttl = originTtl != NO_ORIGIN_TTL ? originTtl : statusTtl;
+
+            if (ttl > 0L)
+            {
+                int slot = slotsByHash.get(requestHash);
+                if (slot == NO_SLOT)
+                {
+                    slot = free != NO_SLOT ? free : oldest;
+                    if (slot != NO_SLOT)
+                    {
+                        remove(slot);
+                        free = newer[slot];
+                        link(slot);
+                        slotsByHash.put(requestHash, slot);
+                    }
+                }
+
+                if (slot != NO_SLOT)
+                {
+                    final String retryAfter = getHeader(responseHeaders, RETRY_AFTER);
+                    entries[slot].init(requestHash, status, retryAfter, now + ttl);
+                    stored = true;
+                }
+            }
+            else
+            {
+                invalidate(requestHash);
+            }
+        }
+
+        return stored;
+    }
+
+    public NegativeCacheEntry get(
+        int requestHash,
+        long now)
+    {
+        NegativeCacheEntry entry = null;
+        final int slot = slotsByHash.get(requestHash);
+        if (slot != NO_SLOT)
+        {
+            entry = entries[slot];
+            if (entry.isExpired(now))
+            {
+                remove(slot);
+                entry = null;
+            }
+        }
+        return entry;
+    }
+
+    public void invalidate(
+        int requestHash)
+    {
+        final int slot = slotsByHash.get(requestHash);
+        if (slot != NO_SLOT)
+        {
+            remove(slot);
+        }
+    }
+
+    public int size()
+    {
+        return slotsByHash.size();
+    }
+
+    private void link(
+        int slot)
+    {
+        older[slot] = newest;
+        newer[slot] = NO_SLOT;
+        if (newest != NO_SLOT)
+        {
+            newer[newest] = slot;
+        }
+        else
+        {
+            oldest = slot;
+        }
+        newest = slot;
+    }
+
+    private void remove(
+        int slot)
+    {
+        final NegativeCacheEntry entry = entries[slot];
+        if (entry.status() == null)
+        {
+            return;
+        }
+
+        slotsByHash.remove(entry.requestHash());
+        entry.release();
+
+        final int olderSlot = older[slot];
+        final int newerSlot = newer[slot];
+        if (olderSlot != NO_SLOT)
+        {
+            newer[olderSlot] = newerSlot;
+        }
+        else
+        {
+            oldest = newerSlot;
+        }
+
+        if (newerSlot != NO_SLOT)
+        {
+            older[newerSlot] = olderSlot;
+        }
+        else
+        {
+            newest = olderSlot;
+        }
+
+        older[slot] = NO_SLOT;
+        newer[slot] = free;
+        free = slot;
+    }
+
+    private long originTtl(
+        Array32FW<HttpHeaderFW> responseHeaders)
+    {
+        final CacheControl cacheControl = responseCacheControl.parse(getHeader(responseHeaders, CACHE_CONTROL));
+        final String sMaxAge = cacheControl.getValue(S_MAXAGE);
+        final String maxAge = cacheControl.getValue(MAX_AGE);
+        final String lifetime = sMaxAge != null ? sMaxAge : maxAge;
+
+        long ttl = NO_ORIGIN_TTL;
+        if (lifetime != null)
+        {
+            try
+            {
+                ttl = SECONDS.toMillis(Math.max(parseInt(lifetime), 0));
+            }
+            catch (NumberFormatException ex)
+            {
+                ttl = NO_ORIGIN_TTL;
+            }
+        }
+        return ttl;
+    }
+
+    private boolean isStorable(
+        boolean authorized,
+        Array32FW<HttpHeaderFW> responseHeaders)
+    {
+        final CacheControl cacheControl = responseCacheControl.parse(getHeader(responseHeaders, CACHE_CONTROL));
+        return !cacheControl.contains(NO_STORE) &&
+               !cacheControl.contains(PRIVATE) &&
+               (!authorized || cacheControl.contains(PUBLIC)) &&
+               getHeader(responseHeaders, VARY) == null;
+    }
+
+    private long ttl(
+        String status)
+    {
+        long ttl = 0L;
+
+        if (status != null && status.length() == 3)
+        {
+            switch (status.charAt(0))
+            {
+            case '4':
+                ttl = NOT_FOUND_404.equals(status) || GONE_410.equals(status) ? notFoundTtl : 0L;
+                break;
+            case '5':
+                ttl = errorTtl;
+                break;
+            default:
+                break;
+            }
+        }
+
+        return ttl;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+public final class NegativeCacheEntry
+{
+    private int requestHash;
+    private String status;
+    private String retryAfter;
+    private long expiresAt;
+
+    NegativeCacheEntry init(
+        int requestHash,
+        String status,
+        String retryAfter,
+        long expiresAt)
+    {
+        this.requestHash = requestHash;
+        this.status = status;
+        this.retryAfter = retryAfter;
+        this.expiresAt = expiresAt;
+        return this;
+    }
+
+    void release()
+    {
+        this.status = null;
+        this.retryAfter = null;
+    }
+
+    int requestHash()
+    {
+        return requestHash;
+    }
+
+    public String status()
+    {
+        return status;
+    }
+
+    public String retryAfter()
+    {
+        return retryAfter;
+    }
+
+    boolean isExpired(
+        long now)
+    {
+        return now >= expiresAt;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import java.util.ArrayDeque;
+import java.util.function.IntConsumer;
+
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.IntHashSet;
+
+final class PathTrie
+{
+    private final Node root = new Node();
+    private final ArrayDeque<Node> pending = new ArrayDeque<>();
+
+    void add(
+        CharSequence path,
+        int requestHash)
+    {
+        Node node = root;
+        for (int i = 0; i < path.length(); i++)
+        {
+            node = node.supplyChild(path.charAt(i));
+        }
+        node.supplyValues().add(requestHash);
+    }
+
+    boolean remove(
+        CharSequence path,
+        int requestHash)
+    {
+        Node node = root;
+        Node cutNode = root;
+        char cutKey = 0;
+
+        for (int i = 0; i < path.length() && node != null; i++)
+        {
+            final char key = path.charAt(i);
+            if (node == root || node.children.size() > 1 || node.hasValues())
+            {
+                cutNode = node;
+                cutKey = key;
+            }
+            node = node.child(key);
+        }
+
+        final boolean removed = node != null && node.values != null && node.values.remove(requestHash);
+        if (removed && node.isEmpty() && node != root)
+        {
+            cutNode.children.remove(cutKey);
+        }
+
+        return removed;
+    }
+
+    void forEach(
+        CharSequence path,
+        IntConsumer consumer)
+    {
+        final Node node = find(path);
+        if (node != null && node.values != null)
+        {
+            node.values.forEach(consumer::accept);
+        }
+    }
+
+    void forEachPrefix(
+        CharSequence prefix,
+        IntConsumer consumer)
+    {
+        final Node node = find(prefix);
+        if (node != null)
+        {
+            assert pending.isEmpty();
+            pending.push(node);
+            while (!pending.isEmpty())
+            {
+                final Node next = pending.pop();
+                if (next.values != null)
+                {
+                    next.values.forEach(consumer::accept);
+                }
+                if (next.children != null)
+                {
+                    next.children.values().forEach(pending::push);
+                }
+            }
+        }
+    }
+
+    boolean isEmpty()
+    {
+        return root.isEmpty();
+    }
+
+    private Node find(
+        CharSequence path)
+    {
+        Node node = root;
+        for (int i = 0; i < path.length() && node != null; i++)
+        {
+            node = node.child(path.charAt(i));
+        }
+        return node;
+    }
+
+    private static final class Node
+    {
+        private Int2ObjectHashMap<Node> children;
+        private IntHashSet values;
+
+        Node child(
+            char key)
+        {
+            return children != null ? children.get(key) : null;
+        }
+
+        Node supplyChild(
+            char key)
+        {
+            if (children == null)
+            {
+                children = new Int2ObjectHashMap<>();
+            }
+            return children.computeIfAbsent(key, k -> new Node());
+        }
+
+        IntHashSet supplyValues()
+        {
+            if (values == null)
+            {
+                values = new IntHashSet();
+            }
+            return values;
+        }
+
+        boolean hasValues()
+        {
+            return values != null && !values.isEmpty();
+        }
+
+        boolean isEmpty()
+        {
+            return !hasValues() && (children == null || children.isEmpty());
+        }
+    }
+}
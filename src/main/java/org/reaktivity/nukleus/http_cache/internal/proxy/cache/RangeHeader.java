@@ -0,0 +1,108 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.RANGE;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
+
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+
+public final class RangeHeader
+{
+    public static final long UNSATISFIABLE = -1L;
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    public static boolean isRangeRequest(
+        Array32FW<HttpHeaderFW> headers)
+    {
+        return getHeader(headers, RANGE) != null;
+    }
+
+    public static boolean isRangeApplicable(
+        String range,
+        String ifRange,
+        String etag)
+    {
+        final boolean isStrongMatch = etag != null && !etag.startsWith("W/") && etag.equals(ifRange);
+        return range != null && (ifRange == null || isStrongMatch) && isSingleByteRange(range);
+    }
+
+    public static boolean isSingleByteRange(
+        String range)
+    {
+        if (!range.startsWith(BYTES_UNIT) || range.indexOf(',') != -1)
+        {
+            return false;
+        }
+
+        final String spec = range.substring(BYTES_UNIT.length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash == -1 || (dash == 0 && spec.length() == 1))
+        {
+            return false;
+        }
+
+        final String first = spec.substring(0, dash);
+        final String last = spec.substring(dash + 1);
+        return isDigits(first) && isDigits(last) &&
+               (first.isEmpty() || last.isEmpty() || Long.parseLong(first) <= Long.parseLong(last));
+    }
+
+    public static long firstBytePos(
+        String range,
+        long size)
+    {
+        final String spec = range.substring(BYTES_UNIT.length()).trim();
+        final int dash = spec.indexOf('-');
+
+        long first;
+        if (dash == 0)
+        {
+            final long suffix = Long.parseLong(spec.substring(1));
+            first = suffix == 0L ? UNSATISFIABLE : Math.max(0L, size - suffix);
+        }
+        else
+        {
+            first = Long.parseLong(spec.substring(0, dash));
+        }
+
+        return first < size ? first : UNSATISFIABLE;
+    }
+
+    public static long lastBytePos(
+        String range,
+        long size)
+    {
+        final String spec = range.substring(BYTES_UNIT.length()).trim();
+        final int dash = spec.indexOf('-');
+        final String last = spec.substring(dash + 1);
+
+        return dash == 0 || last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+    }
+
+    private static boolean isDigits(
+        String value)
+    {
+        return value.length() <= 18 && value.chars().allMatch(Character::isDigit);
+    }
+
+    private RangeHeader()
+    {
+        // utility
+    }
+}
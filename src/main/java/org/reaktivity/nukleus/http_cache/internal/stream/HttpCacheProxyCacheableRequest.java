@@ -15,50 +15,49 @@
  */
 package org.reaktivity.nukleus.http_cache.internal.stream;
 
-import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils.hasMaxAgeZero;
-import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpStatus.SERVICE_UNAVAILABLE_503;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils.isMethodHead;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpMethods.GET;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.PreferHeader.getPreferWait;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.PreferHeader.isPreferIfNoneMatch;
-import static org.reaktivity.nukleus.http_cache.internal.stream.Signals.PREFER_WAIT_EXPIRED_SIGNAL;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.CONTENT_LENGTH;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.IF_NONE_MATCH;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.IF_RANGE;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.METHOD;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.PREFER;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.RANGE;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.RETRY_AFTER;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.STATUS;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.HAS_EMULATED_PROTOCOL_STACK;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.RequestUtil.authorizationScope;
 
 import java.time.Instant;
-import java.util.concurrent.Future;
 
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.reaktivity.nukleus.function.MessageConsumer;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCacheEntry;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.NegativeCacheEntry;
 import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
 import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
 import org.reaktivity.nukleus.http_cache.internal.types.OctetsFW;
-import org.reaktivity.nukleus.http_cache.internal.types.String16FW;
-import org.reaktivity.nukleus.http_cache.internal.types.String8FW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.AbortFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.BeginFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.DataFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.EndFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.HttpBeginExFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.ResetFW;
-import org.reaktivity.nukleus.http_cache.internal.types.stream.SignalFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.WindowFW;
 
 final class HttpCacheProxyCacheableRequest
 {
-    private static final String8FW HEADER_NAME_STATUS = new String8FW(":status");
-    private static final String16FW HEADER_VALUE_STATUS_503 = new String16FW(SERVICE_UNAVAILABLE_503);
-
     private final HttpCacheProxyFactory factory;
-    final HttpProxyCacheableRequestGroup requestGroup;
+    HttpProxyCacheableRequestGroup requestGroup;
 
     private final MessageConsumer reply;
+    final MessageConsumer throttle;
     private final long routeId;
     private final long initialId;
     final long replyId;
@@ -68,11 +67,21 @@ final class HttpCacheProxyCacheableRequest
     String ifNoneMatch;
     String vary;
     String prefer;
+    String range;
+    String ifRange;
     boolean maxAgeZero;
+    boolean head;
 
-    private Future<?> preferWaitExpired;
     private boolean promiseNextPollRequest;
 
+    HttpCacheProxyCacheableRequest queuedPrevious;
+    HttpCacheProxyCacheableRequest queuedNext;
+    boolean queued;
+
+    HttpProxyPreferWaitBatch waitBatch;
+    HttpCacheProxyCacheableRequest waitPrevious;
+    HttpCacheProxyCacheableRequest waitNext;
+
     private int headersSlot = NO_SLOT;
     private int initialReplyCredit;
     private int initialReplyPadding;
@@ -93,6 +102,7 @@ final class HttpCacheProxyCacheableRequest
         this.initialId = initialId;
         this.resolveId = resolveId;
         this.replyId = factory.supplyReplyId.applyAsLong(initialId);
+        this.throttle = this::onResponseMessage;
     }
 
     void onQueuedRequestSent()
@@ -105,22 +115,35 @@ final class HttpCacheProxyCacheableRequest
         long traceId)
     {
         final int requestHash = requestGroup.requestHash();
-        final HttpCacheProxyCachedResponse response = new HttpCacheProxyCachedResponse(
-            factory,
-            reply,
-            routeId,
-            replyId,
-            authorization,
-            initialReplyBudgetId,
-            initialReplyCredit,
-            initialReplyPadding,
-            requestHash,
-            promiseNextPollRequest,
-            requestGroup::detach);
+        final DefaultCacheEntry cacheEntry = factory.defaultCache.get(requestHash);
 
-        requestGroup.attach(response);
-        response.doResponseBegin(now, traceId);
-        cleanupRequestHeadersIfNecessary();
+        if (cacheEntry != null && !cacheEntry.isShareableWith(authorizationScope(authorization)))
+        {
+            // shared entry is no longer shareable with this scope, let the client retry on its own key
+            do503RetryResponse(traceId, 0L);
+        }
+        else
+        {
+            final HttpCacheProxyCachedResponse response = factory.newCachedResponse(
+                reply,
+                routeId,
+                replyId,
+                authorization,
+                initialReplyBudgetId,
+                initialReplyCredit,
+                initialReplyPadding,
+                requestHash,
+                promiseNextPollRequest,
+                head,
+                range,
+                ifRange,
+                requestGroup);
+
+            requestGroup.attach(response);
+            response.doResponseBegin(now, traceId);
+            cleanupRequestHeadersIfNecessary();
+            cleanupRequestTimeoutIfNecessary();
+        }
     }
 
     void doNotModifiedResponse(
@@ -139,18 +162,52 @@ final class HttpCacheProxyCacheableRequest
         factory.counters.responsesNotModified.getAsLong();
         factory.counters.responsesCached.getAsLong();
         cleanupRequestHeadersIfNecessary();
+        cleanupRequestTimeoutIfNecessary();
     }
 
     void do503RetryResponse(
+        long traceId,
+        long retryAfter)
+    {
+        factory.writer.doHttpResponseRetryAfter(reply, routeId, replyId, retryAfter, traceId);
+
+        factory.writer.doHttpEnd(
+            reply,
+            routeId,
+            replyId,
+            traceId);
+
+        // count all responses
+        factory.counters.responses.getAsLong();
+
+        // count retry responses
+        factory.counters.responsesRetry.getAsLong();
+
+        cleanupRequestHeadersIfNecessary();
+        cleanupRequestTimeoutIfNecessary();
+    }
+
+    void doNegativeCachedResponse(
+        NegativeCacheEntry negativeEntry,
         long traceId)
     {
+        final String status = negativeEntry.status();
+        final String retryAfter = negativeEntry.retryAfter();
+
         factory.writer.doHttpResponse(
             reply,
             routeId,
             replyId,
             traceId,
-            e -> e.item(h -> h.name(HEADER_NAME_STATUS).value(HEADER_VALUE_STATUS_503))
-                  .item(h -> h.name("retry-after").value("0")));
+            e ->
+            {
+                e.item(h -> h.name(STATUS).value(status));
+                if (retryAfter != null)
+                {
+                    e.item(h -> h.name(RETRY_AFTER).value(retryAfter));
+                }
+                e.item(h -> h.name(CONTENT_LENGTH).value("0"));
+            });
 
         factory.writer.doHttpEnd(
             reply,
@@ -161,10 +218,11 @@ final class HttpCacheProxyCacheableRequest
         // count all responses
         factory.counters.responses.getAsLong();
 
-        // count retry responses
-        factory.counters.responsesRetry.getAsLong();
+        // count negative responses
+        factory.counters.responsesNegative.getAsLong();
 
         cleanupRequestHeadersIfNecessary();
+        cleanupRequestTimeoutIfNecessary();
     }
 
     HttpCacheProxyRelayedResponse newRelayedResponse(
@@ -175,6 +233,7 @@ final class HttpCacheProxyCacheableRequest
         factory.counters.responses.getAsLong();
         requestGroup.dequeue(this);
         cleanupRequestHeadersIfNecessary();
+        cleanupRequestTimeoutIfNecessary();
         return new HttpCacheProxyRelayedResponse(
             factory,
             reply,
@@ -186,7 +245,8 @@ final class HttpCacheProxyCacheableRequest
             prefer,
             initialReplyBudgetId,
             initialReplyCredit,
-            initialReplyPadding);
+            initialReplyPadding,
+            head);
     }
 
     void onRequestMessage(
@@ -227,6 +287,7 @@ final class HttpCacheProxyCacheableRequest
 
         authorization = begin.authorization();
         promiseNextPollRequest = headers.anyMatch(HAS_EMULATED_PROTOCOL_STACK);
+        head = isMethodHead(headers);
 
         factory.writer.doWindow(reply,
                                 routeId,
@@ -240,7 +301,7 @@ final class HttpCacheProxyCacheableRequest
         headersSlot = factory.headersPool.acquire(initialId);
         if (headersSlot == NO_SLOT)
         {
-            do503RetryResponse(traceId);
+            do503RetryResponse(traceId, 0L);
         }
         else
         {
@@ -251,7 +312,14 @@ final class HttpCacheProxyCacheableRequest
             {
                 final String name = h.name().asString();
                 final String value = h.value().asString();
-                if (!CONTENT_LENGTH.equals(name))
+                if (METHOD.equals(name))
+                {
+                    // fetch the full GET response so HEAD requests warm the cache too
+                    newHeaders.item(item -> item.name(name).value(GET));
+                }
+                else if (!CONTENT_LENGTH.equals(name) &&
+                         !RANGE.equals(name) &&
+                         !IF_RANGE.equals(name))
                 {
                     newHeaders.item(item -> item.name(name).value(value));
                 }
@@ -260,6 +328,8 @@ final class HttpCacheProxyCacheableRequest
 
             ifNoneMatch = getHeader(headers, IF_NONE_MATCH);
             prefer = getHeader(headers, PREFER);
+            range = getHeader(headers, RANGE);
+            ifRange = getHeader(headers, IF_RANGE);
             maxAgeZero = hasMaxAgeZero(headers);
 
 
@@ -308,8 +378,7 @@ final class HttpCacheProxyCacheableRequest
             final long traceId = end.traceId();
 
             final long replyId = factory.supplyReplyId.applyAsLong(initialId);
-            final HttpCacheProxyCachedResponse response = new HttpCacheProxyCachedResponse(
-                factory,
+            final HttpCacheProxyCachedResponse response = factory.newCachedResponse(
                 reply,
                 routeId,
                 replyId,
@@ -319,10 +388,14 @@ final class HttpCacheProxyCacheableRequest
                 initialReplyPadding,
                 requestGroup.requestHash(),
                 promiseNextPollRequest,
-                requestGroup::detach);
+                head,
+                range,
+                ifRange,
+                requestGroup);
             final Instant now = Instant.now();
             requestGroup.attach(response);
             response.doResponseBegin(now, traceId);
+            requestGroup.doRefreshAheadIfNecessary(this, entry, now);
             cleanupRequestHeadersIfNecessary();
             cleanupRequestTimeoutIfNecessary();
         }
@@ -360,11 +433,7 @@ final class HttpCacheProxyCacheableRequest
             final int preferWait = Math.min(getPreferWait(requestHeaders), factory.preferWaitMaximum);
             if (preferWait > 0)
             {
-                preferWaitExpired = factory.executor.schedule(preferWait,
-                                                              SECONDS,
-                                                              routeId,
-                                                              replyId,
-                                                              PREFER_WAIT_EXPIRED_SIGNAL);
+                requestGroup.awaitPreferWait(this, preferWait, routeId);
             }
         }
     }
@@ -391,10 +460,6 @@ final class HttpCacheProxyCacheableRequest
             final ResetFW reset = factory.resetRO.wrap(buffer, index, index + length);
             onResponseReset(reset);
             break;
-        case SignalFW.TYPE_ID:
-            final SignalFW signal = factory.signalRO.wrap(buffer, index, index + length);
-            onResponseSignal(signal);
-            break;
         default:
             break;
         }
@@ -417,35 +482,28 @@ final class HttpCacheProxyCacheableRequest
         requestGroup.onResponseAbandoned(traceId);
     }
 
-    private void onResponseSignal(
-        SignalFW signal)
+    void doPreferWaitExpired(
+        Array32FW<HttpHeaderFW> notModifiedHeaders,
+        DefaultCacheEntry cacheEntry,
+        long traceId)
     {
-        final long traceId = signal.traceId();
-        final int signalId = signal.signalId();
+        factory.writer.doHttpResponse(reply, routeId, replyId, traceId, notModifiedHeaders);
 
-        switch (signalId)
+        if (prefer != null && promiseNextPollRequest && cacheEntry != null)
         {
-        case PREFER_WAIT_EXPIRED_SIGNAL:
-            onResponseSignalPreferWaitExpired(traceId);
-            break;
+            factory.writer.doHttpPushPromise(
+                reply,
+                routeId,
+                replyId,
+                authorization,
+                cacheEntry.getRequestHeaders(),
+                cacheEntry.getCachedResponseHeaders(),
+                cacheEntry.etag());
         }
-    }
 
-    private void onResponseSignalPreferWaitExpired(
-        long traceId)
-    {
-        factory.defaultCache.send304(requestGroup.requestHash(),
-                                     ifNoneMatch,
-                                     prefer,
-                                     reply,
-                                     routeId,
-                                     replyId,
-                                     traceId,
-                                     authorization,
-                                     promiseNextPollRequest);
+        factory.writer.doHttpEnd(reply, routeId, replyId, traceId);
 
         requestGroup.dequeue(this);
-        requestGroup.onResponseAbandoned(traceId);
         cleanupRequest();
 
         factory.counters.responses.getAsLong();
@@ -453,10 +511,9 @@ final class HttpCacheProxyCacheableRequest
 
     private void cleanupRequestTimeoutIfNecessary()
     {
-        if (preferWaitExpired != null)
+        if (waitBatch != null)
         {
-            preferWaitExpired.cancel(true);
-            preferWaitExpired = null;
+            requestGroup.cancelPreferWait(this);
         }
     }
 
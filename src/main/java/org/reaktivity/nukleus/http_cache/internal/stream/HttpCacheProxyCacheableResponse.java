@@ -15,7 +15,9 @@
  */
 package org.reaktivity.nukleus.http_cache.internal.stream;
 
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.CONTENT_LENGTH;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.ETAG;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
 
 import java.time.Instant;
 import java.util.function.LongConsumer;
@@ -31,14 +33,13 @@ import org.reaktivity.nukleus.http_cache.internal.types.stream.AbortFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.BeginFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.DataFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.EndFW;
-import org.reaktivity.nukleus.http_cache.internal.types.stream.HttpBeginExFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.HttpEndExFW;
 
 final class HttpCacheProxyCacheableResponse
 {
     private static final long NO_RETRY_AFTER = Long.MIN_VALUE;
     private final HttpCacheProxyFactory factory;
-    private final HttpCacheProxyCacheableRequest request;
+    private final HttpCacheProxyGroupRequest groupRequest;
     private final HttpProxyCacheableRequestGroup requestGroup;
 
     private final MessageConsumer initial;
@@ -47,15 +48,19 @@ final class HttpCacheProxyCacheableResponse
     private final DefaultCacheEntry cacheEntry;
     private final LongConsumer retryRequestAfter;
     private final Runnable cleanupRequest;
+    private final int maximumObjectSize;
 
     private String ifNoneMatch;
     private int replyBudget;
+    private int replyCredit;
     private Instant responseAt;
     private long retryAfter = NO_RETRY_AFTER;
+    private boolean cacheEntryPinned;
+    private boolean spilling;
 
     HttpCacheProxyCacheableResponse(
         HttpCacheProxyFactory factory,
-        HttpCacheProxyCacheableRequest request,
+        HttpCacheProxyGroupRequest groupRequest,
         MessageConsumer initial,
         long routeId,
         long replyId,
@@ -64,8 +69,8 @@ final class HttpCacheProxyCacheableResponse
         Runnable cleanupRequest)
     {
         this.factory = factory;
-        this.request = request;
-        this.requestGroup = request.requestGroup;
+        this.groupRequest = groupRequest;
+        this.requestGroup = groupRequest.requestGroup();
         this.initial = initial;
         this.routeId = routeId;
         this.replyId = replyId;
@@ -73,6 +78,9 @@ final class HttpCacheProxyCacheableResponse
         this.cacheEntry = cacheEntry;
         this.retryRequestAfter = retryRequestAfter;
         this.cleanupRequest = cleanupRequest;
+        this.maximumObjectSize = factory.routeOptions(routeId).maximumObjectSize;
+        this.cacheEntry.pin();
+        this.cacheEntryPinned = true;
     }
 
     @Override
@@ -86,6 +94,26 @@ final class HttpCacheProxyCacheableResponse
         long traceId)
     {
         factory.writer.doReset(initial, routeId, replyId, traceId);
+        cleanupCacheEntryIfNecessary();
+
+        if (spilling)
+        {
+            spilling = false;
+            requestGroup.onGroupResponseSpillReset(traceId);
+        }
+    }
+
+    void doSpillWindow(
+        long traceId)
+    {
+        if (spilling && retryAfter == NO_RETRY_AFTER)
+        {
+            final int credit = requestGroup.spillLimit() - replyCredit;
+            if (credit > 0)
+            {
+                doResponseWindow(traceId, credit);
+            }
+        }
     }
 
     void onResponseMessage(
@@ -106,7 +134,14 @@ final class HttpCacheProxyCacheableResponse
             break;
         case EndFW.TYPE_ID:
             final EndFW end = factory.endRO.wrap(buffer, index, index + length);
-            onResponseEnd(end);
+            if (spilling)
+            {
+                onResponseSpillEnd(end);
+            }
+            else
+            {
+                onResponseEnd(end);
+            }
             break;
         case AbortFW.TYPE_ID:
             final AbortFW abort = factory.abortRO.wrap(buffer, index, index + length);
@@ -119,12 +154,6 @@ final class HttpCacheProxyCacheableResponse
         BeginFW begin)
     {
         final long traceId = begin.traceId();
-        final OctetsFW extension = begin.extension();
-        final HttpBeginExFW httpBeginFW = extension.get(factory.httpBeginExRO::wrap);
-        final Array32FW<HttpHeaderFW> headers = httpBeginFW.headers();
-
-        final boolean stored = cacheEntry.storeResponseHeaders(headers);
-        assert stored;
 
         final Instant receivedAt = cacheEntry.receivedAt();
         final Instant now = Instant.now();
@@ -144,7 +173,14 @@ final class HttpCacheProxyCacheableResponse
             requestGroup.onGroupResponseBegin(responseAt, traceId);
         }
 
-        doResponseWindow(traceId, factory.initialWindowSize);
+        if (exceedsMaximumObjectSize())
+        {
+            doResponseBypass(traceId);
+        }
+        else
+        {
+            doResponseWindow(traceId, factory.initialWindowSize);
+        }
     }
 
     private void onResponseData(
@@ -152,16 +188,114 @@ final class HttpCacheProxyCacheableResponse
     {
         final long traceId = data.traceId();
         final int reserved = data.reserved();
+        final OctetsFW payload = data.payload();
+        final int responseSize = cacheEntry.responseSize();
+
+        if (spilling)
+        {
+            onResponseSpillData(payload, 0, reserved, traceId);
+        }
+        else if (responseSize + payload.sizeof() > maximumObjectSize)
+        {
+            factory.counters.responsesBypassed.getAsLong();
+            if (doResponseSpill(traceId))
+            {
+                onResponseSpillData(payload, 0, reserved, traceId);
+            }
+        }
+        else if (cacheEntry.storeResponseData(data))
+        {
+            doResponseWindow(traceId, reserved);
+
+            final boolean hasEtagHeader = cacheEntry.etag() != null;
+            if (hasEtagHeader && retryAfter == NO_RETRY_AFTER)
+            {
+                requestGroup.onGroupResponseData(traceId);
+            }
+        }
+        else
+        {
+            factory.counters.responsesSpilled.getAsLong();
+            if (doResponseSpill(traceId))
+            {
+                onResponseSpillData(payload, cacheEntry.responseSize() - responseSize, reserved, traceId);
+            }
+        }
+    }
+
+    private boolean exceedsMaximumObjectSize()
+    {
+        final String contentLength = getHeader(cacheEntry.getCachedResponseHeaders(), CONTENT_LENGTH);
+        return contentLength != null &&
+               !contentLength.isEmpty() &&
+               contentLength.chars().allMatch(Character::isDigit) &&
+               (contentLength.length() > 10 || Long.parseLong(contentLength) > maximumObjectSize);
+    }
 
-        doResponseWindow(traceId, reserved);
+    private void doResponseBypass(
+        long traceId)
+    {
+        factory.counters.responsesBypassed.getAsLong();
 
-        boolean stored = cacheEntry.storeResponseData(data);
-        assert stored;
+        if (doResponseSpill(traceId))
+        {
+            if (retryAfter != NO_RETRY_AFTER)
+            {
+                doResponseWindow(traceId, factory.initialWindowSize);
+            }
+            else
+            {
+                doSpillWindow(traceId);
+            }
+        }
+    }
 
+    private boolean doResponseSpill(
+        long traceId)
+    {
         final boolean hasEtagHeader = cacheEntry.etag() != null;
-        if (hasEtagHeader && retryAfter == NO_RETRY_AFTER)
+        final boolean responseBegun = hasEtagHeader && retryAfter == NO_RETRY_AFTER;
+
+        spilling = retryAfter != NO_RETRY_AFTER ||
+                   requestGroup.doGroupResponseSpill(this, cacheEntry, responseAt, responseBegun, traceId);
+
+        final int requestHash = requestGroup.requestHash();
+        if (factory.defaultCache.get(requestHash) == cacheEntry)
         {
-            requestGroup.onGroupResponseData(traceId);
+            factory.defaultCache.purge(requestHash);
+        }
+
+        if (!spilling)
+        {
+            factory.writer.doReset(initial, routeId, replyId, traceId);
+            cleanupCacheEntryIfNecessary();
+            cleanupRequest.run();
+            requestGroup.onGroupResponseAbort(traceId);
+            requestGroup.onGroupRequestEnd(groupRequest);
+        }
+
+        return spilling;
+    }
+
+    private void onResponseSpillData(
+        OctetsFW payload,
+        int stored,
+        int reserved,
+        long traceId)
+    {
+        factory.counters.responseBytesBypassed.accept(payload.sizeof() - stored);
+
+        if (retryAfter != NO_RETRY_AFTER)
+        {
+            doResponseWindow(traceId, reserved);
+        }
+        else
+        {
+            requestGroup.onGroupResponseSpillData(payload.buffer(),
+                                                  payload.offset() + stored,
+                                                  payload.sizeof() - stored,
+                                                  traceId);
+            doSpillWindow(traceId);
         }
     }
 
@@ -184,6 +318,7 @@ final class HttpCacheProxyCacheableResponse
             }
         }
         cacheEntry.setResponseCompleted(true);
+        cleanupCacheEntryIfNecessary();
 
         if (!hasEtagHeader &&
             factory.defaultCache.checkTrailerToRetry(ifNoneMatch,
@@ -205,27 +340,61 @@ final class HttpCacheProxyCacheableResponse
 
             cleanupRequest.run();
             requestGroup.onGroupResponseData(traceId);
-            requestGroup.onGroupRequestEnd(request);
+            requestGroup.onGroupRequestEnd(groupRequest);
             factory.counters.groupResponsesCacheable.getAsLong();
         }
     }
 
+    private void onResponseSpillEnd(
+        EndFW end)
+    {
+        final long traceId = end.traceId();
+
+        spilling = false;
+        cleanupCacheEntryIfNecessary();
+
+        if (retryAfter != NO_RETRY_AFTER)
+        {
+            retryRequestAfter.accept(retryAfter);
+        }
+        else
+        {
+            cleanupRequest.run();
+            requestGroup.onGroupResponseSpillEnd(traceId);
+            requestGroup.onGroupRequestEnd(groupRequest);
+        }
+    }
+
     private void onResponseAbort(
         AbortFW abort)
     {
         final int requestHash = requestGroup.requestHash();
-        factory.defaultCache.purge(requestHash);
+        if (factory.defaultCache.get(requestHash) == cacheEntry)
+        {
+            factory.defaultCache.purge(requestHash);
+        }
+        cleanupCacheEntryIfNecessary();
 
         final long traceId = abort.traceId();
         cleanupRequest.run();
         requestGroup.onGroupResponseAbort(traceId);
-        requestGroup.onGroupRequestEnd(request);
+        requestGroup.onGroupRequestEnd(groupRequest);
+    }
+
+    private void cleanupCacheEntryIfNecessary()
+    {
+        if (cacheEntryPinned)
+        {
+            cacheEntry.unpin();
+            cacheEntryPinned = false;
+        }
     }
 
     private void doResponseWindow(
         long traceId,
         int credit)
     {
+        replyCredit += credit;
         replyBudget += credit;
         if (replyBudget > 0)
         {
@@ -17,33 +17,43 @@ package org.reaktivity.nukleus.http_cache.internal.stream;
 
 import static org.reaktivity.nukleus.budget.BudgetDebitor.NO_DEBITOR_INDEX;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCacheEntry.NUM_OF_HEADER_SLOTS;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.RangeHeader.UNSATISFIABLE;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.ProgressHeap.NO_INDEX;
 
 import java.time.Instant;
-import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 import org.agrona.DirectBuffer;
-import org.agrona.MutableDirectBuffer;
 import org.reaktivity.nukleus.budget.BudgetDebitor;
 import org.reaktivity.nukleus.buffer.BufferPool;
 import org.reaktivity.nukleus.function.MessageConsumer;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCacheEntry;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.RangeHeader;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.SurrogateControl;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.ProgressHeap;
 import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
 import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
-import org.reaktivity.nukleus.http_cache.internal.types.OctetsFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.ResetFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.SignalFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.WindowFW;
 
-final class HttpCacheProxyCachedResponse
+final class HttpCacheProxyCachedResponse extends HttpProxyAttachedResponses.Member<HttpCacheProxyCachedResponse>
+    implements ProgressHeap.Member
 {
     private final HttpCacheProxyFactory factory;
-    private final MessageConsumer reply;
-    private final DefaultCacheEntry cacheEntry;
-    private final long routeId;
-    private final long replyId;
-    private final long authorization;
-    private final boolean promiseNextPollRequest;
+    private final MessageConsumer throttle;
+    private final LongConsumer flusher;
+
+    private MessageConsumer reply;
+    private DefaultCacheEntry cacheEntry;
+    private long routeId;
+    private long replyId;
+    private long authorization;
+    private boolean promiseNextPollRequest;
+    private boolean head;
+    private HttpProxyCacheableRequestGroup requestGroup;
+    private String range;
+    private String ifRange;
 
     private int replyBudget;
     private int replyPadding;
@@ -52,10 +62,19 @@ final class HttpCacheProxyCachedResponse
     private long replyDebitorIndex = NO_DEBITOR_INDEX;
 
     private int responseProgress = -1;
-    private Consumer<HttpCacheProxyCachedResponse> resetHandler;
+    private int responseLimit = Integer.MAX_VALUE;
+
+    private int spillHeapIndex = NO_INDEX;
 
     HttpCacheProxyCachedResponse(
-        HttpCacheProxyFactory factory,
+        HttpCacheProxyFactory factory)
+    {
+        this.factory = factory;
+        this.throttle = this::onResponseMessage;
+        this.flusher = this::doResponseFlush;
+    }
+
+    HttpCacheProxyCachedResponse init(
         MessageConsumer reply,
         long routeId,
         long replyId,
@@ -65,17 +84,43 @@ final class HttpCacheProxyCachedResponse
         int initialReplyPadding,
         int requestHash,
         boolean promiseNextPollRequest,
-        Consumer<HttpCacheProxyCachedResponse> resetHandler)
+        boolean head,
+        String range,
+        String ifRange,
+        HttpProxyCacheableRequestGroup requestGroup)
     {
-        this.factory = factory;
         this.reply = reply;
         this.routeId = routeId;
         this.replyId = replyId;
         this.authorization = authorization;
         this.cacheEntry = factory.defaultCache.lookup(requestHash);
+        this.cacheEntry.pin();
         this.promiseNextPollRequest = promiseNextPollRequest;
-        this.resetHandler = resetHandler;
+        this.head = head;
+        this.requestGroup = requestGroup;
+        this.range = range;
+        this.ifRange = ifRange;
+        this.replyBudget = 0;
+        this.replyPadding = 0;
+        this.replyDebitorId = 0L;
+        this.responseProgress = -1;
+        this.responseLimit = Integer.MAX_VALUE;
         updateBudget(initialReplyBudgetId, initialReplyCredit, initialReplyPadding);
+        return this;
+    }
+
+    void release()
+    {
+        assert replyDebitorIndex == NO_DEBITOR_INDEX;
+        assert !attached;
+        assert spillHeapIndex == NO_INDEX;
+        factory.router.clearThrottle(replyId);
+        cacheEntry.unpin();
+        this.reply = null;
+        this.cacheEntry = null;
+        this.requestGroup = null;
+        this.range = null;
+        this.ifRange = null;
     }
 
     void onResponseMessage(
@@ -108,30 +153,68 @@ final class HttpCacheProxyCachedResponse
     {
         Array32FW<HttpHeaderFW> responseHeaders = cacheEntry.getCachedResponseHeaders();
 
-        factory.router.setThrottle(replyId, this::onResponseMessage);
+        factory.router.setThrottle(replyId, throttle);
         final Array32FW<HttpHeaderFW> requestHeaders = cacheEntry.getRequestHeaders();
-        factory.writer.doHttpResponseWithUpdatedHeaders(reply,
-                                                        routeId,
-                                                        replyId,
-                                                        responseHeaders,
-                                                        requestHeaders,
-                                                        cacheEntry.etag(),
-                                                        cacheEntry.isStale(now),
-                                                        traceId);
-        responseProgress = 0;
+
+        boolean ranged = false;
+        long firstBytePos = 0L;
+        long lastBytePos = 0L;
+        if (!head &&
+            cacheEntry.isResponseCompleted() &&
+            RangeHeader.isRangeApplicable(range, ifRange, cacheEntry.etag()))
+        {
+            final int size = cacheEntry.responseSize();
+            firstBytePos = RangeHeader.firstBytePos(range, size);
+            if (firstBytePos == UNSATISFIABLE)
+            {
+                doResponseNotSatisfiable(size, traceId);
+                return;
+            }
+
+            lastBytePos = RangeHeader.lastBytePos(range, size);
+            ranged = true;
+
+            factory.writer.doHttpRangeResponseWithUpdatedHeaders(reply,
+                                                                 routeId,
+                                                                 replyId,
+                                                                 responseHeaders,
+                                                                 requestHeaders,
+                                                                 cacheEntry.etag(),
+                                                                 cacheEntry.isStale(now),
+                                                                 firstBytePos,
+                                                                 lastBytePos,
+                                                                 size,
+                                                                 traceId);
+            factory.counters.responsesRanged.getAsLong();
+        }
+        else
+        {
+            factory.writer.doHttpResponseWithUpdatedHeaders(reply,
+                                                            routeId,
+                                                            replyId,
+                                                            responseHeaders,
+                                                            requestHeaders,
+                                                            cacheEntry.etag(),
+                                                            cacheEntry.isStale(now),
+                                                            traceId);
+        }
+
+        responseProgress = (int) firstBytePos;
+        responseLimit = head ? 0 : ranged ? (int) lastBytePos + 1 : Integer.MAX_VALUE;
         doResponseFlush(traceId);
 
         factory.counters.responses.getAsLong();
         factory.counters.responsesCached.getAsLong();
     }
 
+    @Override
     void doResponseFlush(
         long traceId)
     {
-        final int remaining = cacheEntry.responseSize() - responseProgress;
-        final int writable = Math.min(replyBudget - replyPadding, remaining);
+        final int responseSize = Math.min(requestGroup.responseSize(cacheEntry), responseLimit);
 
-        if (writable > 0)
+        int writable = writable(responseSize);
+        while (writable > 0)
         {
             final int maximum = writable + replyPadding;
             final int minimum = Math.min(maximum, 1024 + replyPadding);
@@ -144,7 +227,12 @@ final class HttpCacheProxyCachedResponse
 
             final int required = claimed;
             final int writableMax = required - replyPadding;
-            if (writableMax > 0)
+            if (writableMax <= 0)
+            {
+                break;
+            }
+
+            if (responseProgress < cacheEntry.responseSize())
             {
                 final BufferPool cacheResponsePool = factory.defaultCache.getResponsePool();
 
@@ -155,19 +243,95 @@ final class HttpCacheProxyCachedResponse
                     traceId,
                     replyDebitorId,
                     required,
-                    p -> buildResponsePayload(responseProgress, writableMax, p, cacheResponsePool));
+                    cacheResponsePool,
+                    cacheEntry.getResponseSlots(),
+                    NUM_OF_HEADER_SLOTS,
+                    responseProgress,
+                    writableMax);
+            }
+            else
+            {
+                factory.writer.doHttpData(
+                    reply,
+                    routeId,
+                    replyId,
+                    traceId,
+                    replyDebitorId,
+                    requestGroup.spillBuffer(),
+                    requestGroup.spillIndex(responseProgress),
+                    writableMax,
+                    required);
+            }
 
-                responseProgress += writableMax;
+            responseProgress += writableMax;
 
-                replyBudget -= required;
-                assert replyBudget >= 0;
-            }
+            replyBudget -= required;
+            assert replyBudget >= 0;
+
+            // continue only across the stored / spilled boundary or the spill wrap
+            writable = writableMax < writable ? 0 : writable(responseSize);
         }
 
-        if (cacheEntry.isResponseCompleted() && responseProgress == cacheEntry.responseSize())
+        if ((requestGroup.isResponseCompleted(cacheEntry) || responseProgress == responseLimit) &&
+            responseProgress == responseSize)
         {
             doResponseEnd(traceId);
         }
+        else if (attached)
+        {
+            requestGroup.onResponseFlushed(this, traceId);
+        }
+    }
+
+    private int writable(
+        int responseSize)
+    {
+        int remaining = Math.min(cacheEntry.responseSize(), responseSize) - responseProgress;
+        if (remaining <= 0)
+        {
+            remaining = responseSize - responseProgress;
+            if (remaining > 0)
+            {
+                remaining = Math.min(remaining, requestGroup.spillContiguous(responseProgress));
+            }
+        }
+
+        return Math.min(replyBudget - replyPadding, remaining);
+    }
+
+    long routeId()
+    {
+        return routeId;
+    }
+
+    DefaultCacheEntry cacheEntry()
+    {
+        return cacheEntry;
+    }
+
+    @Override
+    public int progress()
+    {
+        return responseProgress;
+    }
+
+    @Override
+    public int heapIndex()
+    {
+        return spillHeapIndex;
+    }
+
+    @Override
+    public void heapIndex(
+        int heapIndex)
+    {
+        this.spillHeapIndex = heapIndex;
+    }
+
+    @Override
+    boolean hasReplyWindow()
+    {
+        return replyBudget - replyPadding > 0;
     }
 
     void doResponseAbort(
@@ -184,7 +348,7 @@ final class HttpCacheProxyCachedResponse
     private void doResponseEnd(
         long traceId)
     {
-        assert responseProgress == cacheEntry.responseSize();
+        assert responseProgress == Math.min(requestGroup.responseSize(cacheEntry), responseLimit);
         final Array32FW<HttpHeaderFW> cachedResponseHeaders = cacheEntry.getCachedResponseHeaders();
         int freshnessExtension = SurrogateControl.getSurrogateFreshnessExtension(cachedResponseHeaders);
 
@@ -206,14 +370,32 @@ final class HttpCacheProxyCachedResponse
                                  traceId);
 
         cleanupResponseIfNecessary();
-        resetHandler.accept(this);
+        requestGroup.detach(this);
+    }
+
+    private void doResponseNotSatisfiable(
+        int size,
+        long traceId)
+    {
+        factory.writer.doHttpResponseNotSatisfiable(reply, routeId, replyId, size, traceId);
+
+        factory.writer.doHttpEnd(
+            reply,
+            routeId,
+            replyId,
+            traceId);
+
+        cleanupResponseIfNecessary();
+        requestGroup.detach(this);
+
+        factory.counters.responses.getAsLong();
     }
 
     private void onResponseReset(
         ResetFW reset)
     {
         cleanupResponseIfNecessary();
-        resetHandler.accept(this);
+        requestGroup.detach(this);
     }
 
     private void onResponseWindow(
@@ -238,46 +420,8 @@ final class HttpCacheProxyCachedResponse
         if (replyDebitorId != 0L && replyDebitor == null)
         {
             replyDebitor = factory.supplyDebitor.apply(replyDebitorId);
-            replyDebitorIndex = replyDebitor.acquire(replyDebitorId, replyId, this::doResponseFlush);
-        }
-    }
-
-    private void buildResponsePayload(
-        int index,
-        int length,
-        OctetsFW.Builder p,
-        BufferPool bp)
-    {
-        final int slotCapacity = bp.slotCapacity();
-        final int startSlot = Math.floorDiv(index, slotCapacity) + NUM_OF_HEADER_SLOTS;
-        buildResponsePayload(index, length, p, bp, startSlot);
-    }
-
-    private void buildResponsePayload(
-        int index,
-        int length,
-        OctetsFW.Builder builder,
-        BufferPool bp,
-        int slotCnt)
-    {
-        if (length == 0)
-        {
-            return;
-        }
-
-        final int slotCapacity = bp.slotCapacity();
-        int chunkedWrite = (slotCnt * slotCapacity) - index;
-        int slot = cacheEntry.getResponseSlots().get(slotCnt);
-        if (chunkedWrite > 0)
-        {
-            MutableDirectBuffer buffer = bp.buffer(slot);
-            int offset = slotCapacity - chunkedWrite;
-            int chunkLength = Math.min(chunkedWrite, length);
-            builder.put(buffer, offset, chunkLength);
-            index += chunkLength;
-            length -= chunkLength;
+            replyDebitorIndex = replyDebitor.acquire(replyDebitorId, replyId, flusher);
         }
-        buildResponsePayload(index, length, builder, bp, ++slotCnt);
     }
 
     private void cleanupResponseIfNecessary()
@@ -0,0 +1,304 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import static org.reaktivity.nukleus.budget.BudgetDebitor.NO_DEBITOR_INDEX;
+
+import java.util.function.LongConsumer;
+
+import org.agrona.DirectBuffer;
+import org.reaktivity.nukleus.budget.BudgetDebitor;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.AbortFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.BeginFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.ResetFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.WindowFW;
+
+final class HttpCacheProxyCoalescedRequest
+{
+    private final HttpCacheProxyFactory factory;
+    private final HttpProxyCoalescedRequestGroup requestGroup;
+    private final MessageConsumer reply;
+    private final long routeId;
+    private final long initialId;
+    private final long replyId;
+    private final LongConsumer flusher;
+
+    private int replyBudget;
+    private int replyPadding;
+    private long replyDebitorId;
+    private BudgetDebitor replyDebitor;
+    private long replyDebitorIndex = NO_DEBITOR_INDEX;
+
+    private long responseProgress = -1L;
+    private boolean responseClosed;
+
+    HttpCacheProxyCoalescedRequest coalescedPrevious;
+    HttpCacheProxyCoalescedRequest coalescedNext;
+
+    HttpCacheProxyCoalescedRequest(
+        HttpCacheProxyFactory factory,
+        HttpProxyCoalescedRequestGroup requestGroup,
+        MessageConsumer reply,
+        long routeId,
+        long initialId)
+    {
+        this.factory = factory;
+        this.requestGroup = requestGroup;
+        this.reply = reply;
+        this.routeId = routeId;
+        this.initialId = initialId;
+        this.replyId = factory.supplyReplyId.applyAsLong(initialId);
+        this.flusher = this::onResponseFlush;
+    }
+
+    long replyId()
+    {
+        return replyId;
+    }
+
+    long progress()
+    {
+        return responseProgress;
+    }
+
+    void onRequestMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case BeginFW.TYPE_ID:
+            final BeginFW begin = factory.beginRO.wrap(buffer, index, index + length);
+            onRequestBegin(begin);
+            break;
+        case AbortFW.TYPE_ID:
+            final AbortFW abort = factory.abortRO.wrap(buffer, index, index + length);
+            onRequestAbort(abort);
+            break;
+        default:
+            break;
+        }
+    }
+
+    void onResponseMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case WindowFW.TYPE_ID:
+            final WindowFW window = factory.windowRO.wrap(buffer, index, index + length);
+            onResponseWindow(window);
+            break;
+        case ResetFW.TYPE_ID:
+            final ResetFW reset = factory.resetRO.wrap(buffer, index, index + length);
+            onResponseReset(reset);
+            break;
+        default:
+            break;
+        }
+    }
+
+    void doResponseBegin(
+        Array32FW<HttpHeaderFW> headers,
+        long traceId)
+    {
+        factory.writer.doHttpResponse(reply, routeId, replyId, traceId, headers);
+        responseProgress = 0L;
+
+        factory.counters.responses.getAsLong();
+
+        doResponseFlush(traceId);
+    }
+
+    void doResponseFlush(
+        long traceId)
+    {
+        final int capacity = requestGroup.ringCapacity();
+
+        int writable = writable(capacity);
+        while (writable > 0)
+        {
+            final int maximum = writable + replyPadding;
+            final int minimum = Math.min(maximum, 1024 + replyPadding);
+
+            int claimed = maximum;
+            if (replyDebitorIndex != NO_DEBITOR_INDEX)
+            {
+                claimed = replyDebitor.claim(replyDebitorIndex, replyId, minimum, maximum);
+            }
+
+            final int required = claimed;
+            final int writableMax = required - replyPadding;
+            if (writableMax <= 0)
+            {
+                break;
+            }
+
+            factory.writer.doHttpData(
+                reply,
+                routeId,
+                replyId,
+                traceId,
+                replyDebitorId,
+                requestGroup.ring(),
+                (int) (responseProgress % capacity),
+                writableMax,
+                required);
+
+            responseProgress += writableMax;
+
+            replyBudget -= required;
+            assert replyBudget >= 0;
+
+            writable = writable(capacity);
+        }
+
+        if (requestGroup.isResponseEnded() && responseProgress == requestGroup.ringWritten())
+        {
+            doResponseEnd(traceId);
+        }
+    }
+
+    void doResponseAbort(
+        long traceId)
+    {
+        factory.writer.doAbort(reply, routeId, replyId, traceId);
+        cleanupResponseIfNecessary();
+    }
+
+    void do503RetryResponse(
+        long traceId)
+    {
+        factory.writer.doHttpResponseRetryAfter(reply, routeId, replyId, 0L, traceId);
+
+        factory.writer.doHttpEnd(reply, routeId, replyId, traceId);
+
+        // count all responses
+        factory.counters.responses.getAsLong();
+
+        // count retry responses
+        factory.counters.responsesRetry.getAsLong();
+
+        cleanupResponseIfNecessary();
+    }
+
+    private int writable(
+        int capacity)
+    {
+        if (responseProgress < 0L)
+        {
+            return 0;
+        }
+
+        final int remaining = (int) (requestGroup.ringWritten() - responseProgress);
+        final int contiguous = capacity - (int) (responseProgress % capacity);
+        return Math.min(replyBudget - replyPadding, Math.min(remaining, contiguous));
+    }
+
+    private void doResponseEnd(
+        long traceId)
+    {
+        factory.writer.doHttpEnd(reply, routeId, replyId, traceId);
+        cleanupResponseIfNecessary();
+        requestGroup.unsubscribe(this, traceId);
+    }
+
+    private void onRequestBegin(
+        BeginFW begin)
+    {
+        final long traceId = begin.traceId();
+
+        factory.writer.doWindow(reply,
+                                routeId,
+                                initialId,
+                                traceId,
+                                0L,
+                                factory.initialWindowSize,
+                                0);
+    }
+
+    private void onRequestAbort(
+        AbortFW abort)
+    {
+        if (responseProgress < 0L)
+        {
+            final long traceId = abort.traceId();
+            factory.writer.doAbort(reply, routeId, replyId, traceId);
+            cleanupResponseIfNecessary();
+            requestGroup.unsubscribe(this, traceId);
+        }
+    }
+
+    private void onResponseWindow(
+        WindowFW window)
+    {
+        final long traceId = window.traceId();
+
+        replyDebitorId = window.budgetId();
+        replyBudget += window.credit();
+        replyPadding = window.padding();
+
+        if (replyDebitorId != 0L && replyDebitor == null)
+        {
+            replyDebitor = factory.supplyDebitor.apply(replyDebitorId);
+            replyDebitorIndex = replyDebitor.acquire(replyDebitorId, replyId, flusher);
+        }
+
+        onResponseFlush(traceId);
+    }
+
+    private void onResponseFlush(
+        long traceId)
+    {
+        if (responseProgress >= 0L && !responseClosed)
+        {
+            doResponseFlush(traceId);
+
+            if (!responseClosed)
+            {
+                requestGroup.onResponseFlushed(traceId);
+            }
+        }
+    }
+
+    private void onResponseReset(
+        ResetFW reset)
+    {
+        cleanupResponseIfNecessary();
+        requestGroup.unsubscribe(this, reset.traceId());
+    }
+
+    private void cleanupResponseIfNecessary()
+    {
+        responseClosed = true;
+        factory.router.clearThrottle(replyId);
+
+        if (replyDebitorIndex != NO_DEBITOR_INDEX)
+        {
+            replyDebitor.release(replyDebitorIndex, replyId);
+            replyDebitorIndex = NO_DEBITOR_INDEX;
+            replyDebitor = null;
+        }
+    }
+}
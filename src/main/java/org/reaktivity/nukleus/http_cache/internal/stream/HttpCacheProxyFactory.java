@@ -16,13 +16,21 @@
 package org.reaktivity.nukleus.http_cache.internal.stream;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.reaktivity.nukleus.http_cache.internal.stream.Signals.TIMER_WHEEL_TICK_SIGNAL;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.AUTHORIZATION;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.STATUS;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getRequestURL;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.RequestUtil.SHARED_AUTHORIZATION_SCOPE;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.RequestUtil.authorizationScope;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.RequestUtil.requestHash;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
 import java.util.function.LongUnaryOperator;
@@ -41,14 +49,22 @@ import org.reaktivity.nukleus.function.MessagePredicate;
 import org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration;
 import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.CachePartition;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCache;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCacheEntry;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.NegativeCache;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.NegativeCacheEntry;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.RangeHeader;
 import org.reaktivity.nukleus.http_cache.internal.stream.util.CountingBufferPool;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.ObjectPool;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.TimerWheel;
 import org.reaktivity.nukleus.http_cache.internal.stream.util.Writer;
 import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
 import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
 import org.reaktivity.nukleus.http_cache.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheRouteExFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget;
 import org.reaktivity.nukleus.http_cache.internal.types.control.RouteFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.AbortFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.BeginFW;
@@ -64,7 +80,10 @@ import org.reaktivity.nukleus.stream.StreamFactory;
 
 public class HttpCacheProxyFactory implements StreamFactory
 {
+    private static final int TIMER_WHEEL_TICKS = 4096;
+
     private final RouteFW routeRO = new RouteFW();
+    private final HttpCacheRouteExFW routeExRO = new HttpCacheRouteExFW();
 
     final BeginFW beginRO = new BeginFW();
     final DataFW dataRO = new DataFW();
@@ -89,6 +108,23 @@ public class HttpCacheProxyFactory implements StreamFactory
     final RouteManager router;
     final Long2ObjectHashMap<Function<HttpBeginExFW, MessageConsumer>> correlations;
     final Int2ObjectHashMap<HttpProxyCacheableRequestGroup> requestGroups;
+    final Int2ObjectHashMap<HttpProxyCoalescedRequestGroup> coalescedGroups;
+    final ObjectPool<HttpCacheProxyCachedResponse> cachedResponses;
+    final ObjectPool<HttpProxyPreferWaitBatch> preferWaitBatches;
+    final Long2ObjectHashMap<HttpProxyUpstreamLimiter> upstreamLimiters;
+    final Long2ObjectHashMap<HttpProxyCircuitBreaker> circuitBreakers;
+
+    private final IntConsumer cleanupRequestGroup;
+    private final LongFunction<HttpProxyUpstreamLimiter> newUpstreamLimiter;
+    private final LongFunction<HttpProxyCircuitBreaker> newCircuitBreaker;
+    private final Long2ObjectHashMap<CachePartition> partitions;
+    private final Long2ObjectHashMap<HttpProxyRouteOptions> routeOptions;
+    private final HttpProxyRouteOptions defaultRouteOptions;
+    private final TimerWheel timers;
+
+    private long timersRouteId;
+    private long timersId;
+    private Future<?> timersTick;
 
     final LongUnaryOperator supplyInitialId;
     final LongUnaryOperator supplyReplyId;
@@ -100,10 +136,15 @@ public class HttpCacheProxyFactory implements StreamFactory
 
     final Writer writer;
     final DefaultCache defaultCache;
+    final NegativeCache negativeCache;
     final HttpCacheCounters counters;
     final SignalingExecutor executor;
     final int preferWaitMaximum;
     final int initialWindowSize;
+    final int maximumFlushBatch;
+    final int retryBackoffBase;
+    final int retryBackoffMaximum;
+    final int banWalkLimit;
 
     public HttpCacheProxyFactory(
         HttpCacheConfiguration config,
@@ -126,6 +167,10 @@ public class HttpCacheProxyFactory implements StreamFactory
         this.supplyReplyId = requireNonNull(supplyReplyId);
         this.preferWaitMaximum = config.preferWaitMaximum();
         this.initialWindowSize = config.initialWindowSize();
+        this.maximumFlushBatch = config.maximumFlushBatch();
+        this.retryBackoffBase = config.retryBackoffBase();
+        this.retryBackoffMaximum = config.retryBackoffMaximum();
+        this.banWalkLimit = config.banWalkLimit();
         this.supplyTypeId = supplyTypeId;
         this.supplyDebitor = supplyDebitor;
         this.headersPool = new CountingBufferPool(
@@ -136,9 +181,24 @@ public class HttpCacheProxyFactory implements StreamFactory
 
         this.correlations = requireNonNull(correlations);
         this.defaultCache = defaultCache;
+        this.negativeCache = new NegativeCache(config.negativeTtl(), config.negativeErrorTtl(), config.negativeCapacity());
 
         this.writer = new Writer(router, supplyTypeId, writeBuffer);
         this.requestGroups = new Int2ObjectHashMap<>();
+        this.coalescedGroups = new Int2ObjectHashMap<>();
+        this.cachedResponses = new ObjectPool<>(() -> new HttpCacheProxyCachedResponse(this), config.maximumRequests());
+        this.preferWaitBatches = new ObjectPool<>(() -> new HttpProxyPreferWaitBatch(this), config.maximumRequests());
+        this.cleanupRequestGroup = requestGroups::remove;
+        this.upstreamLimiters = new Long2ObjectHashMap<>();
+        this.newUpstreamLimiter = r -> new HttpProxyUpstreamLimiter(counters, routeOptions(r).maximumUpstreamRequests);
+        this.circuitBreakers = new Long2ObjectHashMap<>();
+        this.partitions = new Long2ObjectHashMap<>();
+        this.routeOptions = new Long2ObjectHashMap<>();
+        this.defaultRouteOptions = new HttpProxyRouteOptions(config);
+        final int circuitBreakerFailures = config.circuitBreakerFailures();
+        final int circuitBreakerOpen = config.circuitBreakerOpen();
+        this.newCircuitBreaker = r -> new HttpProxyCircuitBreaker(circuitBreakerFailures, circuitBreakerOpen);
+        this.timers = new TimerWheel(System::currentTimeMillis, config.timerWheelTick(), TIMER_WHEEL_TICKS, 1024);
         this.counters = counters;
         this.executor = executor;
 
@@ -147,7 +207,6 @@ public class HttpCacheProxyFactory implements StreamFactory
             .typeId(supplyTypeId.applyAsInt("http"))
             .headersItem(h -> h.name(STATUS).value("500"))
             .build();
-
     }
 
     public HttpProxyCacheableRequestGroup getRequestGroup(
@@ -156,6 +215,163 @@ public class HttpCacheProxyFactory implements StreamFactory
         return requestGroups.get(requestHash);
     }
 
+    HttpCacheProxyCachedResponse newCachedResponse(
+        MessageConsumer reply,
+        long routeId,
+        long replyId,
+        long authorization,
+        long initialReplyBudgetId,
+        int initialReplyCredit,
+        int initialReplyPadding,
+        int requestHash,
+        boolean promiseNextPollRequest,
+        boolean head,
+        String range,
+        String ifRange,
+        HttpProxyCacheableRequestGroup requestGroup)
+    {
+        return cachedResponses.acquire().init(reply,
+                                              routeId,
+                                              replyId,
+                                              authorization,
+                                              initialReplyBudgetId,
+                                              initialReplyCredit,
+                                              initialReplyPadding,
+                                              requestHash,
+                                              promiseNextPollRequest,
+                                              head,
+                                              range,
+                                              ifRange,
+                                              requestGroup);
+    }
+
+    HttpProxyUpstreamLimiter supplyUpstreamLimiter(
+        long resolveId)
+    {
+        return upstreamLimiters.computeIfAbsent(resolveId, newUpstreamLimiter);
+    }
+
+    HttpProxyCircuitBreaker supplyCircuitBreaker(
+        long resolveId)
+    {
+        return circuitBreakers.computeIfAbsent(resolveId, newCircuitBreaker);
+    }
+
+    HttpProxyRouteOptions routeOptions(
+        long resolveId)
+    {
+        final HttpProxyRouteOptions options = routeOptions.get(resolveId);
+        return options != null ? options : defaultRouteOptions;
+    }
+
+    long retryBackoff(
+        long retryAfter,
+        int attempt)
+    {
+        final long backoff = Math.min((long) retryBackoffBase << Math.min(attempt - 1, 20), retryBackoffMaximum);
+        final long jitter = backoff > 0L ? ThreadLocalRandom.current().nextLong(backoff + 1) : 0L;
+        return SECONDS.toMillis(retryAfter) + jitter;
+    }
+
+    void releaseCachedResponse(
+        HttpCacheProxyCachedResponse response)
+    {
+        response.release();
+        cachedResponses.release(response);
+    }
+
+    void releasePreferWaitBatch(
+        HttpProxyPreferWaitBatch batch)
+    {
+        batch.release();
+        preferWaitBatches.release(batch);
+    }
+
+    public void purge(
+        HttpCacheTarget target,
+        String value)
+    {
+        defaultCache.purge(this, target, value, supplyTraceId.getAsLong());
+    }
+
+    public void invalidate(
+        HttpCacheTarget target,
+        String value)
+    {
+        defaultCache.invalidate(this, target, value, supplyTraceId.getAsLong());
+        doBanWalkIfNecessary();
+    }
+
+    public void ban(
+        String pathPrefix,
+        String headerName,
+        String headerValue)
+    {
+        defaultCache.ban(pathPrefix, headerName, headerValue);
+        doBanWalkIfNecessary();
+    }
+
+    private void doBanWalkIfNecessary()
+    {
+        if (defaultCache.hasBans() && timersRouteId != 0L)
+        {
+            doTimersTickIfNecessary(timersRouteId);
+        }
+    }
+
+    public void resize(
+        int allowedCachePercentage,
+        int allowedCacheEvictionCount)
+    {
+        defaultCache.resize(allowedCachePercentage, allowedCacheEvictionCount);
+    }
+
+    public void unroute(
+        long routeId)
+    {
+        partitions.remove(routeId);
+        routeOptions.remove(routeId);
+        upstreamLimiters.remove(routeId);
+    }
+
+    long scheduleTimer(
+        long delay,
+        TimeUnit unit,
+        long routeId,
+        long streamId,
+        int signalId,
+        MessageConsumer handler)
+    {
+        final long timerId = timers.schedule(delay, unit, routeId, streamId, signalId, handler);
+        doTimersTickIfNecessary(routeId);
+        return timerId;
+    }
+
+    long scheduleTimerAt(
+        long deadlineTick,
+        long routeId,
+        long streamId,
+        int signalId,
+        MessageConsumer handler)
+    {
+        final long timerId = timers.scheduleAt(deadlineTick, routeId, streamId, signalId, handler);
+        doTimersTickIfNecessary(routeId);
+        return timerId;
+    }
+
+    long timerDeadline(
+        long delay,
+        TimeUnit unit)
+    {
+        return timers.deadlineTick(delay, unit);
+    }
+
+    void cancelTimer(
+        long timerId)
+    {
+        timers.cancel(timerId);
+    }
+
     @Override
     public MessageConsumer newStream(
         int msgTypeId,
@@ -201,6 +417,8 @@ public class HttpCacheProxyFactory implements StreamFactory
             final OctetsFW extension = begin.extension();
             final HttpBeginExFW httpBeginFW = extension.get(httpBeginExRO::wrap);
             final Array32FW<HttpHeaderFW> headers = httpBeginFW.headers();
+            final CachePartition partition = supplyPartition(resolveId, route);
+            supplyRouteOptions(resolveId, route);
 
             newStream = newNativeRequestStream(initial,
                                                routeId,
@@ -208,6 +426,7 @@ public class HttpCacheProxyFactory implements StreamFactory
                                                traceId,
                                                authorization,
                                                resolveId,
+                                               partition,
                                                headers);
 
         }
@@ -244,12 +463,13 @@ public class HttpCacheProxyFactory implements StreamFactory
         long traceId,
         long authorization,
         long resolveId,
+        CachePartition partition,
         Array32FW<HttpHeaderFW> headers)
     {
         final String requestURL = getRequestURL(headers);
         final boolean isMethodUnsafe = CacheUtils.isMethodUnsafe(headers);
         final short authorizationScope = authorizationScope(authorization);
-        final int requestHash = requestHash(authorizationScope, requestURL.hashCode());
+        final int requestHash = supplyRequestHash(partition, authorizationScope, requestURL.hashCode());
 
         MessageConsumer newStream = null;
 
@@ -257,9 +477,28 @@ public class HttpCacheProxyFactory implements StreamFactory
         final boolean matchCacheableRequest = defaultCache.matchCacheableRequest(headers, authorizationScope, requestHash);
         DefaultCacheEntry cacheEntry = defaultCache.get(requestHash);
 
+        if (isMethodUnsafe)
+        {
+            negativeCache.invalidate(requestHash);
+        }
+
+        if (timersRouteId == 0L)
+        {
+            timersRouteId = routeId;
+        }
+
+        if (defaultCache.hasBans())
+        {
+            doTimersTickIfNecessary(routeId);
+        }
+
+        final NegativeCacheEntry negativeEntry = isRequestCacheable && !matchCacheableRequest &&
+            defaultCache.satisfiedByCache(headers) ? negativeCache.get(requestHash, System.currentTimeMillis()) : null;
+
         if (isRequestCacheable &&
             matchCacheableRequest &&
-            CacheUtils.isMatchByEtag(headers, cacheEntry.etag()))
+            (CacheUtils.isMatchByEtag(headers, cacheEntry.etag()) ||
+             CacheUtils.isNotModifiedSince(headers, cacheEntry.lastModifiedAt())))
         {
             final HttpCacheProxyCachedNotModifiedRequest cachedNotModifiedRequest =
                 new HttpCacheProxyCachedNotModifiedRequest(
@@ -270,6 +509,17 @@ public class HttpCacheProxyFactory implements StreamFactory
                     cacheEntry);
             newStream = cachedNotModifiedRequest::onRequestMessage;
         }
+        else if (negativeEntry != null)
+        {
+            final HttpCacheProxyNegativeCachedRequest negativeCachedRequest =
+                new HttpCacheProxyNegativeCachedRequest(
+                    this,
+                    initial,
+                    routeId,
+                    initialId,
+                    negativeEntry);
+            newStream = negativeCachedRequest::onRequestMessage;
+        }
         else if (headers.anyMatch(CacheDirectives.IS_ONLY_IF_CACHED) && !matchCacheableRequest)
         {
             handleOnlyIfCachedRequest(initial,
@@ -277,53 +527,93 @@ public class HttpCacheProxyFactory implements StreamFactory
                 initialId,
                 traceId);
         }
+        else if (isRequestCacheable &&
+                 RangeHeader.isRangeRequest(headers) &&
+                 !(matchCacheableRequest && cacheEntry.isResponseCompleted()))
+        {
+            newStream = newNonCacheableRequestStream(
+                initial,
+                routeId,
+                initialId,
+                resolveId,
+                requestURL,
+                requestHash,
+                isMethodUnsafe);
+        }
         else if (isRequestCacheable)
         {
-            if (defaultCache.isCacheFull())
-            {
-                defaultCache.purgeEntriesForNonPendingRequests(requestGroups.keySet());
-            }
+            newStream = newCacheableOrCoalescedRequestStream(
+                initial,
+                routeId,
+                initialId,
+                resolveId,
+                requestURL,
+                requestHash,
+                authorizationScope,
+                partition,
+                headers);
+        }
+        else
+        {
+            newStream = newNonCacheableRequestStream(
+                initial,
+                routeId,
+                initialId,
+                resolveId,
+                requestURL,
+                requestHash,
+                isMethodUnsafe);
+        }
+        counters.requests.getAsLong();
 
-            if (!defaultCache.isCacheFull())
-            {
-                HttpProxyCacheableRequestGroup group = supplyCacheableRequestGroup(requestHash);
+        return newStream;
+    }
 
-                HttpHeaderFW authorizationHeader = headers.matchFirst(h -> AUTHORIZATION.equals(h.name().asString()));
-                if (authorizationHeader != null)
-                {
-                    group.authorizationHeader(authorizationHeader.value().asString());
-                }
-                newStream = newCacheableRequestStream(
-                    initial,
-                    routeId,
-                    initialId,
-                    resolveId,
-                    group);
-            }
-            else
+    private MessageConsumer newCacheableOrCoalescedRequestStream(
+        MessageConsumer initial,
+        long routeId,
+        long initialId,
+        long resolveId,
+        String requestURL,
+        int requestHash,
+        short authorizationScope,
+        CachePartition partition,
+        Array32FW<HttpHeaderFW> headers)
+    {
+        MessageConsumer newStream;
+
+        if (defaultCache.isCacheFull(partition))
+        {
+            defaultCache.purgeEntriesForNonPendingRequests(partition, requestGroups.keySet());
+        }
+
+        if (!defaultCache.isCacheFull(partition))
+        {
+            HttpProxyCacheableRequestGroup group = supplyCacheableRequestGroup(requestHash, authorizationScope, partition);
+
+            HttpHeaderFW authorizationHeader = headers.matchFirst(h -> AUTHORIZATION.equals(h.name().asString()));
+            if (authorizationHeader != null && group.authorizationScope() == authorizationScope)
             {
-                newStream = newNonCacheableRequestStream(
-                    initial,
-                    routeId,
-                    initialId,
-                    resolveId,
-                    requestURL,
-                    requestHash,
-                    isMethodUnsafe);
+                group.authorizationHeader(authorizationHeader.value().asString());
             }
+            newStream = newCacheableRequestStream(
+                initial,
+                routeId,
+                initialId,
+                resolveId,
+                group);
         }
         else
         {
-            newStream = newNonCacheableRequestStream(
+            newStream = newCoalescedRequestStream(
                 initial,
                 routeId,
                 initialId,
                 resolveId,
                 requestURL,
                 requestHash,
-                isMethodUnsafe);
+                headers);
         }
-        counters.requests.getAsLong();
 
         return newStream;
     }
@@ -351,6 +641,55 @@ public class HttpCacheProxyFactory implements StreamFactory
         return newStream;
     }
 
+    private MessageConsumer newCoalescedRequestStream(
+        MessageConsumer initial,
+        long routeId,
+        long initialId,
+        long resolveId,
+        String requestURL,
+        int requestHash,
+        Array32FW<HttpHeaderFW> headers)
+    {
+        final boolean head = CacheUtils.isMethodHead(headers);
+
+        HttpProxyCoalescedRequestGroup group = head ? null : coalescedGroups.get(requestHash);
+        if (group == null && !head)
+        {
+            final HttpProxyCoalescedRequestGroup newGroup = new HttpProxyCoalescedRequestGroup(this, requestHash, resolveId);
+            group = newGroup.doRequest(headers) ? newGroup : null;
+        }
+        else if (group != null && group.routeId() == resolveId)
+        {
+            counters.requestsCoalesced.getAsLong();
+        }
+        else
+        {
+            group = null;
+        }
+
+        MessageConsumer newStream;
+        if (group != null)
+        {
+            final HttpCacheProxyCoalescedRequest coalescedRequest =
+                new HttpCacheProxyCoalescedRequest(this, group, initial, routeId, initialId);
+            group.subscribe(coalescedRequest);
+            router.setThrottle(coalescedRequest.replyId(), coalescedRequest::onResponseMessage);
+            newStream = coalescedRequest::onRequestMessage;
+        }
+        else
+        {
+            newStream = newNonCacheableRequestStream(
+                initial,
+                routeId,
+                initialId,
+                resolveId,
+                requestURL,
+                requestHash,
+                false);
+        }
+        return newStream;
+    }
+
     private MessageConsumer newCacheableRequestStream(
         MessageConsumer initial,
         long routeId,
@@ -358,6 +697,8 @@ public class HttpCacheProxyFactory implements StreamFactory
         long resolveId,
         HttpProxyCacheableRequestGroup group)
     {
+        // TODO: pool requests, group requests, request groups and relayed responses,
+        //       their lifetimes outlive group cleanup so recycling needs reference counting
         final HttpCacheProxyCacheableRequest cacheableRequest =
             new HttpCacheProxyCacheableRequest(this,
                                                group,
@@ -366,7 +707,7 @@ public class HttpCacheProxyFactory implements StreamFactory
                                                initialId,
                                                resolveId);
         final MessageConsumer newStream = cacheableRequest::onRequestMessage;
-        router.setThrottle(cacheableRequest.replyId, cacheableRequest::onResponseMessage);
+        router.setThrottle(cacheableRequest.replyId, cacheableRequest.throttle);
         return newStream;
     }
 
@@ -389,6 +730,40 @@ public class HttpCacheProxyFactory implements StreamFactory
         send504(initial, routeId, replyId, traceId);
     }
 
+    private CachePartition supplyPartition(
+        long resolveId,
+        RouteFW route)
+    {
+        CachePartition partition = partitions.get(resolveId);
+        if (partition == null)
+        {
+            final HttpCacheRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
+            final String name = routeEx != null ? routeEx.partition().asString() : null;
+
+            partition = name != null && !name.isEmpty()
+                    ? defaultCache.supplyPartition(name, routeEx.quota())
+                    : defaultCache.defaultPartition();
+
+            partitions.put(resolveId, partition);
+        }
+        return partition;
+    }
+
+    private void supplyRouteOptions(
+        long resolveId,
+        RouteFW route)
+    {
+        if (!routeOptions.containsKey(resolveId))
+        {
+            final HttpCacheRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
+            final HttpProxyRouteOptions options = routeEx != null
+                    ? new HttpProxyRouteOptions(defaultRouteOptions, routeEx)
+                    : defaultRouteOptions;
+
+            routeOptions.put(resolveId, options);
+        }
+    }
+
     private RouteFW wrapRoute(
         int msgTypeId,
         DirectBuffer buffer,
@@ -411,16 +786,134 @@ public class HttpCacheProxyFactory implements StreamFactory
         counters.responses.getAsLong();
     }
 
-    private HttpProxyCacheableRequestGroup supplyCacheableRequestGroup(
-        int requestHash)
+    private void doTimersTickIfNecessary(
+        long routeId)
     {
-        return requestGroups.computeIfAbsent(requestHash, this::newCacheableRequestGroup);
+        if (timersTick == null)
+        {
+            if (timersId == 0L)
+            {
+                timersRouteId = routeId;
+                timersId = supplyInitialId.applyAsLong(timersRouteId);
+                router.setThrottle(timersId, this::onTimersMessage);
+            }
+
+            timersTick = executor.schedule(timers.tickMillis(),
+                                           MILLISECONDS,
+                                           timersRouteId,
+                                           timersId,
+                                           TIMER_WHEEL_TICK_SIGNAL);
+        }
     }
 
-    private HttpProxyCacheableRequestGroup newCacheableRequestGroup(
-        int requestHash)
+    private void onTimersMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case SignalFW.TYPE_ID:
+            final SignalFW signal = signalRO.wrap(buffer, index, index + length);
+            onTimersSignal(signal);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void onTimersSignal(
+        SignalFW signal)
+    {
+        final long traceId = signal.traceId();
+        final int signalId = signal.signalId();
+
+        if (signalId == TIMER_WHEEL_TICK_SIGNAL)
+        {
+            timersTick = null;
+            timers.expire(traceId);
+            defaultCache.walkBans(banWalkLimit);
+
+            if (!timers.isEmpty() || defaultCache.hasBans())
+            {
+                doTimersTickIfNecessary(timersRouteId);
+            }
+        }
+    }
+
+    private int supplyRequestHash(
+        CachePartition partition,
+        short authorizationScope,
+        int requestURLHash)
+    {
+        final int partitionId = partition.id();
+        final int scopedHash = requestHash(partitionId, authorizationScope, requestURLHash);
+
+        int requestHash = scopedHash;
+        if (!requestGroups.containsKey(scopedHash) && defaultCache.get(scopedHash) == null)
+        {
+            final int sharedHash = requestHash(partitionId, SHARED_AUTHORIZATION_SCOPE, requestURLHash);
+            final DefaultCacheEntry sharedEntry = defaultCache.get(sharedHash);
+            final HttpProxyCacheableRequestGroup sharedGroup = requestGroups.get(sharedHash);
+
+            if (sharedEntry != null)
+            {
+                if (sharedEntry.isShareableWith(authorizationScope))
+                {
+                    requestHash = sharedHash;
+                    if (sharedEntry.authScope() != authorizationScope)
+                    {
+                        counters.requestsShared.getAsLong();
+                    }
+                }
+            }
+            else
+            {
+                // coalesce provisionally onto the in-flight fetch, a private response re-queues other scopes on their own key
+                requestHash = sharedHash;
+                if (sharedGroup != null && sharedGroup.authorizationScope() != authorizationScope)
+                {
+                    counters.requestsShared.getAsLong();
+                }
+            }
+        }
+
+        return requestHash;
+    }
+
+    void requeueScopedRequest(
+        HttpCacheProxyCacheableRequest request)
     {
-        counters.requestGroups.accept(1);
-        return new HttpProxyCacheableRequestGroup(this, requestGroups::remove, requestHash);
+        final Array32FW<HttpHeaderFW> headers = request.getHeaders();
+        final CachePartition partition = request.requestGroup.partition();
+        final short authorizationScope = authorizationScope(request.authorization);
+        final int requestHash = requestHash(partition.id(), authorizationScope, getRequestURL(headers).hashCode());
+        final HttpProxyCacheableRequestGroup group = supplyCacheableRequestGroup(requestHash, authorizationScope, partition);
+
+        final HttpHeaderFW authorizationHeader = headers.matchFirst(h -> AUTHORIZATION.equals(h.name().asString()));
+        if (authorizationHeader != null)
+        {
+            group.authorizationHeader(authorizationHeader.value().asString());
+        }
+
+        request.requestGroup = group;
+        group.enqueue(request);
+    }
+
+    private HttpProxyCacheableRequestGroup supplyCacheableRequestGroup(
+        int requestHash,
+        short authorizationScope,
+        CachePartition partition)
+    {
+        HttpProxyCacheableRequestGroup group = requestGroups.get(requestHash);
+        if (group == null)
+        {
+            counters.requestGroups.accept(1);
+            group = new HttpProxyCacheableRequestGroup(this, cleanupRequestGroup, requestHash, authorizationScope,
+                                                       partition);
+            requestGroups.put(requestHash, group);
+        }
+        return group;
     }
 }
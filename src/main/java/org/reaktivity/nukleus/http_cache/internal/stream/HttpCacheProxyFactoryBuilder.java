@@ -15,6 +15,7 @@
  */
 package org.reaktivity.nukleus.http_cache.internal.stream;
 
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.LongConsumer;
 import java.util.function.LongFunction;
@@ -30,6 +31,7 @@ import org.reaktivity.nukleus.function.MessageConsumer;
 import org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration;
 import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCache;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.FreshnessPolicy;
 import org.reaktivity.nukleus.http_cache.internal.stream.util.HeapBufferPool;
 import org.reaktivity.nukleus.http_cache.internal.stream.util.Slab;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.HttpBeginExFW;
@@ -54,6 +56,7 @@ public class HttpCacheProxyFactoryBuilder implements StreamFactoryBuilder
     private Function<String, LongSupplier> supplyCounter;
     private Function<String, LongConsumer> supplyAccumulator;
     private SignalingExecutor executor;
+    private HttpCacheProxyFactory factory;
 
     public HttpCacheProxyFactoryBuilder(
             HttpCacheConfiguration config)
@@ -160,22 +163,37 @@ public class HttpCacheProxyFactoryBuilder implements StreamFactoryBuilder
                                             supplyTypeId,
                                             config.allowedCachePercentage(),
                                             config.cacheCapacity(),
-                                            config.maximumCacheEvictionCount());
+                                            config.maximumCacheEvictionCount(),
+                                            config.refreshAheadBeta(),
+                                            config.refreshAheadMinimumFrequency(),
+                                            new FreshnessPolicy(config.heuristicFreshnessPercentage(),
+                                                                config.heuristicFreshnessMaximum(),
+                                                                config.minimumTtl(),
+                                                                config.maximumTtl()),
+                                            config.tagHeader());
         }
 
-        return new HttpCacheProxyFactory(config,
-                                         router,
-                                         writeBuffer,
-                                         requestBufferPool,
-                                         supplyInitialId,
-                                         supplyReplyId,
-                                         supplyDebitor,
-                                         correlations,
-                                         defaultCache,
-                                         counters,
-                                         supplyTraceId,
-                                         supplyTypeId,
-                                         executor);
+        factory = new HttpCacheProxyFactory(config,
+                                            router,
+                                            writeBuffer,
+                                            requestBufferPool,
+                                            supplyInitialId,
+                                            supplyReplyId,
+                                            supplyDebitor,
+                                            correlations,
+                                            defaultCache,
+                                            counters,
+                                            supplyTraceId,
+                                            supplyTypeId,
+                                            executor);
+
+        return factory;
+    }
+
+    public void onCommand(
+        Consumer<HttpCacheProxyFactory> command)
+    {
+        command.accept(factory);
     }
 
 }
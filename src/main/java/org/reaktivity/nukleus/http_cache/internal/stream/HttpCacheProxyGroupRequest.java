@@ -15,23 +15,28 @@
  */
 package org.reaktivity.nukleus.http_cache.internal.stream;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils.isCacheableResponse;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpStatus.NOT_MODIFIED_304;
+import static org.reaktivity.nukleus.http_cache.internal.stream.Signals.GROUP_REQUEST_HEDGE_SIGNAL;
 import static org.reaktivity.nukleus.http_cache.internal.stream.Signals.GROUP_REQUEST_RETRY_SIGNAL;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.AUTHORIZATION;
-import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.IF_NONE_MATCH;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.STATUS;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getRequestURL;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.RequestUtil.authorizationScope;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.TimerWheel.NO_TIMER;
 
-import java.util.concurrent.Future;
-import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.LongConsumer;
 
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.CachePartition;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCacheEntry;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.NegativeCacheEntry;
 import org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil;
 import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
 import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
@@ -40,7 +45,7 @@ import org.reaktivity.nukleus.http_cache.internal.types.stream.ResetFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.SignalFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.WindowFW;
 
-final class HttpCacheProxyGroupRequest
+final class HttpCacheProxyGroupRequest extends HttpProxyUpstreamLimiter.Waiter
 {
     private static final LongConsumer NOOP_RESET_HANDLER = t -> {};
 
@@ -48,7 +53,19 @@ final class HttpCacheProxyGroupRequest
     private final HttpProxyCacheableRequestGroup requestGroup;
     private final HttpCacheProxyCacheableRequest request;
     private final long routeId;
+    private final long authorization;
+    private final String prefer;
+    private final String ifNoneMatch;
+    private final boolean maxAgeZero;
     private final long notifyId;
+    private final MessageConsumer notifier;
+    private final MessageConsumer requestThrottle;
+    private final Function<HttpBeginExFW, MessageConsumer> response;
+    private final LongConsumer retryRequestAfter;
+    private final LongConsumer backoffRequestAfter;
+    private final Runnable cleanupRequest;
+    private final HttpProxyUpstreamLimiter upstreamLimiter;
+    private final HttpProxyCircuitBreaker circuitBreaker;
 
     private MessageConsumer initial;
     private long initialId;
@@ -56,29 +73,62 @@ final class HttpCacheProxyGroupRequest
     private int state;
 
     private int attempts;
+    private long requestAt;
     private int headersSlot = NO_SLOT;
 
-    private Future<?> retryRequest;
+    private long retryRequestId = NO_TIMER;
     private LongConsumer resetHandler = NOOP_RESET_HANDLER;
+    private boolean upstreamAcquired;
+    private boolean circuitProbe;
+
+    private long hedgeRequestId = NO_TIMER;
+    private MessageConsumer hedgeThrottle;
+    private Function<HttpBeginExFW, MessageConsumer> hedgeResponse;
+    private MessageConsumer hedgeInitial;
+    private long hedgeInitialId;
+    private long hedgeReplyId;
+    private int hedgeState;
 
     HttpCacheProxyGroupRequest(
         HttpCacheProxyFactory factory,
         HttpProxyCacheableRequestGroup requestGroup,
-        HttpCacheProxyCacheableRequest request)
+        HttpCacheProxyCacheableRequest request,
+        DefaultCacheEntry refreshEntry)
     {
+        final boolean refresh = refreshEntry != null;
+
         this.factory = factory;
         this.requestGroup = requestGroup;
-        this.request = request;
+        this.request = refresh ? null : request;
         this.routeId = request.resolveId;
+        this.authorization = request.authorization;
+        this.prefer = refresh ? null : request.prefer;
+        this.ifNoneMatch = refresh ? refreshEntry.etag() : request.ifNoneMatch;
+        this.maxAgeZero = !refresh && request.maxAgeZero;
         this.notifyId = factory.supplyInitialId.applyAsLong(routeId);
+        this.notifier = this::onNotifyMessage;
+        this.requestThrottle = this::onRequestMessage;
+        this.response = this::newResponse;
+        this.retryRequestAfter = this::doRetryRequestAfter;
+        this.backoffRequestAfter = this::doBackoffRequestAfter;
+        this.cleanupRequest = this::cleanupRequestIfNecessary;
+        this.upstreamLimiter = factory.supplyUpstreamLimiter(routeId);
+        this.circuitBreaker = factory.supplyCircuitBreaker(routeId);
+        this.circuitProbe = circuitBreaker.isHalfOpen();
+    }
+
+    HttpProxyCacheableRequestGroup requestGroup()
+    {
+        return requestGroup;
     }
 
-    HttpCacheProxyCacheableRequest request()
+    String ifNoneMatch()
     {
-        return request;
+        return ifNoneMatch;
     }
 
     void doRequest(
+        Array32FW<HttpHeaderFW> headers,
         long traceId)
     {
         assert headersSlot == NO_SLOT;
@@ -90,30 +140,42 @@ final class HttpCacheProxyGroupRequest
         }
         else
         {
-            final Array32FW<HttpHeaderFW> headers = request.getHeaders();
-
-            // TODO: override if-none-match from requestGroup.ifNoneMatch
-
             final MutableDirectBuffer headersBuffer = factory.headersPool.buffer(headersSlot);
             headersBuffer.putBytes(0, headers.buffer(), headers.offset(), headers.sizeof());
 
-            doRequestAttempt(traceId);
+            if (upstreamLimiter.tryAcquire())
+            {
+                upstreamAcquired = true;
+                doRequestAttempt(traceId);
+            }
+            else
+            {
+                upstreamLimiter.enqueue(this);
+            }
         }
     }
 
+    @Override
+    void onUpstreamAcquired(
+        long traceId)
+    {
+        upstreamAcquired = true;
+        doRequestAttempt(traceId);
+    }
+
     boolean canDeferRequest(
         HttpCacheProxyCacheableRequest newRequest)
     {
-        return request.prefer == null || request.ifNoneMatch == null || !request.maxAgeZero ||
-                (request.ifNoneMatch != null && request.ifNoneMatch.equals(newRequest.ifNoneMatch));
+        return prefer == null || ifNoneMatch == null || !maxAgeZero ||
+                ifNoneMatch.equals(newRequest.ifNoneMatch);
     }
 
     void doRetryRequestImmediatelyIfPending(
         long traceId)
     {
-        if (retryRequest != null)
+        if (retryRequestId != NO_TIMER)
         {
-            retryRequest.cancel(true);
+            factory.cancelTimer(retryRequestId);
             doRetryRequest(traceId);
         }
     }
@@ -121,52 +183,177 @@ final class HttpCacheProxyGroupRequest
     private void doRequestAttempt(
         long traceId)
     {
-        final Array32FW<HttpHeaderFW> headers = getRequestHeaders();
         final int initialState = 0;
 
         attempts++;
+        requestAt = System.currentTimeMillis();
 
         state = HttpCacheRequestState.openingInitial(initialState);
         initialId = factory.supplyInitialId.applyAsLong(routeId);
         initial = factory.router.supplyReceiver(initialId);
         replyId = factory.supplyReplyId.applyAsLong(initialId);
 
-        factory.router.setThrottle(initialId, this::onRequestMessage);
-        final long authorization = 0; // TODO: request.authorization
-        factory.writer.doHttpRequest(initial, routeId, initialId, traceId, authorization,
-                                     mutateRequestHeaders(headers));
-        factory.correlations.put(replyId, this::newResponse);
+        factory.router.setThrottle(initialId, requestThrottle);
+        doHttpRequest(initial, initialId, traceId);
+        factory.correlations.put(replyId, response);
         factory.counters.groupRequestsCacheable.getAsLong();
+
+        doHedgeRequestLaterIfNecessary();
     }
 
-    private Consumer<Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> mutateRequestHeaders(
-        Array32FW<HttpHeaderFW> requestHeaders)
+    private void doHedgeRequestLaterIfNecessary()
     {
-        return (Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder) ->
+        final int hedgeDelay = factory.routeOptions(routeId).hedgeDelay;
+        if (hedgeDelay > 0 &&
+            prefer == null &&
+            hedgeInitial == null &&
+            hedgeRequestId == NO_TIMER)
         {
-            requestHeaders.forEach(h ->
-            {
-                final String name = h.name().asString();
-                final String value = h.value().asString();
-                if (!AUTHORIZATION.equals(name) &&
-                    !IF_NONE_MATCH.equals(name))
-                {
-                    builder.item(item -> item.name(name).value(value));
-                }
-            });
-
-            final String authorizationHeader = requestGroup.authorizationHeader();
-            if (authorizationHeader != null)
-            {
-                builder.item(item -> item.name(AUTHORIZATION).value(authorizationHeader));
-            }
+            hedgeRequestId = factory.scheduleTimer(hedgeDelay,
+                                                   MILLISECONDS,
+                                                   routeId,
+                                                   notifyId,
+                                                   GROUP_REQUEST_HEDGE_SIGNAL,
+                                                   notifier);
+        }
+    }
 
-            final String ifNoneMatchHeader = requestGroup.ifNoneMatchHeader();
-            if (ifNoneMatchHeader != null)
-            {
-                builder.item(item -> item.name(IF_NONE_MATCH).value(ifNoneMatchHeader));
-            }
-        };
+    private void doHedgeRequest(
+        long traceId)
+    {
+        if (hedgeThrottle == null)
+        {
+            hedgeThrottle = this::onHedgeRequestMessage;
+            hedgeResponse = this::newHedgeResponse;
+        }
+
+        hedgeState = HttpCacheRequestState.openingInitial(0);
+        hedgeInitialId = factory.supplyInitialId.applyAsLong(routeId);
+        hedgeInitial = factory.router.supplyReceiver(hedgeInitialId);
+        hedgeReplyId = factory.supplyReplyId.applyAsLong(hedgeInitialId);
+
+        factory.router.setThrottle(hedgeInitialId, hedgeThrottle);
+        doHttpRequest(hedgeInitial, hedgeInitialId, traceId);
+        factory.correlations.put(hedgeReplyId, hedgeResponse);
+        factory.counters.requestsHedged.getAsLong();
+    }
+
+    private void onHedgeRequestMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case ResetFW.TYPE_ID:
+            final ResetFW reset = factory.resetRO.wrap(buffer, index, index + length);
+            onHedgeRequestReset(reset);
+            break;
+        case WindowFW.TYPE_ID:
+            final WindowFW window = factory.windowRO.wrap(buffer, index, index + length);
+            onHedgeRequestWindow(window);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void onHedgeRequestWindow(
+        WindowFW window)
+    {
+        final long traceId = window.traceId();
+
+        if (!HttpCacheRequestState.initialClosed(hedgeState))
+        {
+            hedgeState = HttpCacheRequestState.openInitial(hedgeState);
+            factory.writer.doHttpEnd(hedgeInitial, routeId, hedgeInitialId, traceId);
+            hedgeState = HttpCacheRequestState.closedInitial(hedgeState);
+        }
+    }
+
+    private void onHedgeRequestReset(
+        ResetFW reset)
+    {
+        final long traceId = reset.traceId();
+
+        factory.correlations.remove(hedgeReplyId);
+        factory.router.clearThrottle(hedgeInitialId);
+        hedgeInitial = null;
+        upstreamLimiter.release(traceId);
+    }
+
+    private MessageConsumer newHedgeResponse(
+        HttpBeginExFW beginEx)
+    {
+        final long traceId = factory.supplyTraceId.getAsLong();
+
+        doCancelAttempt(initial, initialId, replyId, state, traceId);
+
+        initial = hedgeInitial;
+        initialId = hedgeInitialId;
+        replyId = hedgeReplyId;
+        state = hedgeState;
+        hedgeInitial = null;
+
+        factory.router.setThrottle(initialId, requestThrottle);
+        upstreamLimiter.release(traceId);
+        factory.counters.requestsHedgeWins.getAsLong();
+
+        return newResponse(beginEx);
+    }
+
+    private void cleanupHedgeIfNecessary(
+        long traceId)
+    {
+        if (hedgeRequestId != NO_TIMER)
+        {
+            factory.cancelTimer(hedgeRequestId);
+            hedgeRequestId = NO_TIMER;
+        }
+
+        if (hedgeInitial != null)
+        {
+            doCancelAttempt(hedgeInitial, hedgeInitialId, hedgeReplyId, hedgeState, traceId);
+            hedgeInitial = null;
+            upstreamLimiter.release(traceId);
+        }
+    }
+
+    private void doCancelAttempt(
+        MessageConsumer initial,
+        long initialId,
+        long replyId,
+        int state,
+        long traceId)
+    {
+        factory.correlations.remove(replyId);
+        factory.router.clearThrottle(initialId);
+
+        if (!HttpCacheRequestState.initialClosed(state))
+        {
+            factory.writer.doAbort(initial, routeId, initialId, traceId);
+        }
+        factory.writer.doReset(initial, routeId, replyId, traceId);
+    }
+
+    private void doHttpRequest(
+        MessageConsumer initial,
+        long initialId,
+        long traceId)
+    {
+        // a leader provisionally coalesced from another scope fetches with its own credentials
+        final boolean groupScoped = authorizationScope(authorization) == requestGroup.authorizationScope();
+
+        // a refresh-ahead is detached from the client request that triggered it, so it does not long-poll
+        final boolean detached = request == null;
+
+        final long authorization = 0; // TODO: this.authorization
+        factory.writer.doHttpRequestWithUpdatedHeaders(initial, routeId, initialId, traceId, authorization,
+                                                       getRequestHeaders(),
+                                                       groupScoped ? requestGroup.authorizationHeader() : null,
+                                                       requestGroup.ifNoneMatchHeader(),
+                                                       detached);
     }
 
     private void onNotifyMessage(
@@ -192,9 +379,29 @@ final class HttpCacheProxyGroupRequest
         final long traceId = signal.traceId();
         final int signalId = signal.signalId();
 
-        if (signalId == GROUP_REQUEST_RETRY_SIGNAL)
+        switch (signalId)
         {
+        case GROUP_REQUEST_RETRY_SIGNAL:
             doRetryRequest(traceId);
+            break;
+        case GROUP_REQUEST_HEDGE_SIGNAL:
+            onHedgeRequestSignal(traceId);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void onHedgeRequestSignal(
+        long traceId)
+    {
+        hedgeRequestId = NO_TIMER;
+
+        if (hedgeInitial == null &&
+            factory.correlations.containsKey(replyId) &&
+            upstreamLimiter.tryAcquire())
+        {
+            doHedgeRequest(traceId);
         }
     }
 
@@ -234,36 +441,74 @@ final class HttpCacheProxyGroupRequest
         ResetFW reset)
     {
         final long traceId = reset.traceId();
+        circuitBreaker.onFailure(System.currentTimeMillis());
+        circuitProbe = false;
         factory.correlations.remove(replyId);
-        cleanupRequestIfNecessary();
 
-        requestGroup.onGroupRequestReset(traceId);
+        if (hedgeInitial != null)
+        {
+            factory.router.clearThrottle(initialId);
+            initial = hedgeInitial;
+            initialId = hedgeInitialId;
+            replyId = hedgeReplyId;
+            state = hedgeState;
+            hedgeInitial = null;
+
+            factory.router.setThrottle(initialId, requestThrottle);
+            factory.correlations.put(replyId, response);
+            upstreamLimiter.release(traceId);
+        }
+        else
+        {
+            cleanupRequestIfNecessary();
+            requestGroup.onGroupRequestReset(traceId);
+        }
     }
 
     private void doRetryRequestAfter(
         long retryAfter)
     {
-        if (retryAfter <= 0L)
+        doRetryRequestAfterMillis(SECONDS.toMillis(retryAfter));
+    }
+
+    private void doBackoffRequestAfter(
+        long retryAfter)
+    {
+        doRetryRequestAfterMillis(factory.retryBackoff(retryAfter, attempts));
+    }
+
+    private void doRetryRequestAfterMillis(
+        long retryAfterMillis)
+    {
+        if (retryAfterMillis <= 0L)
         {
             final long newTraceId = factory.supplyTraceId.getAsLong();
             doRetryRequest(newTraceId);
         }
         else
         {
-            retryRequest = factory.executor.schedule(retryAfter,
-                                                     SECONDS,
-                                                     routeId,
-                                                     notifyId,
-                                                     GROUP_REQUEST_RETRY_SIGNAL);
-            factory.router.setThrottle(notifyId, this::onNotifyMessage);
+            retryRequestId = factory.scheduleTimer(retryAfterMillis,
+                                                   MILLISECONDS,
+                                                   routeId,
+                                                   notifyId,
+                                                   GROUP_REQUEST_RETRY_SIGNAL,
+                                                   notifier);
         }
     }
 
     private void doRetryRequest(
         long traceId)
     {
-        factory.counters.requestsRetry.getAsLong();
-        doRequestAttempt(traceId);
+        if (circuitBreaker.isOpen(System.currentTimeMillis()))
+        {
+            cleanupRequestIfNecessary();
+            requestGroup.onGroupRequestReset(traceId);
+        }
+        else
+        {
+            factory.counters.requestsRetry.getAsLong();
+            doRequestAttempt(traceId);
+        }
     }
 
     private Array32FW<HttpHeaderFW> getRequestHeaders()
@@ -278,11 +523,32 @@ final class HttpCacheProxyGroupRequest
         factory.correlations.remove(replyId);
         factory.router.clearThrottle(replyId);
         releaseRequestSlotIfNecessary();
+        cleanupHedgeIfNecessary(factory.supplyTraceId.getAsLong());
+        releaseUpstreamIfNecessary();
+
+        if (retryRequestId != NO_TIMER)
+        {
+            factory.cancelTimer(retryRequestId);
+            retryRequestId = NO_TIMER;
+        }
+
+        if (circuitProbe)
+        {
+            circuitBreaker.onProbeAbandoned();
+            circuitProbe = false;
+        }
+    }
 
-        if (retryRequest != null)
+    private void releaseUpstreamIfNecessary()
+    {
+        if (isUpstreamWaiting())
+        {
+            upstreamLimiter.dequeue(this);
+        }
+        else if (upstreamAcquired)
         {
-            retryRequest.cancel(true);
-            retryRequest = null;
+            upstreamAcquired = false;
+            upstreamLimiter.release(factory.supplyTraceId.getAsLong());
         }
     }
 
@@ -305,6 +571,18 @@ final class HttpCacheProxyGroupRequest
 
         MessageConsumer newStream = null;
 
+        cleanupHedgeIfNecessary(factory.supplyTraceId.getAsLong());
+
+        if (retry)
+        {
+            circuitBreaker.onFailure(System.currentTimeMillis());
+        }
+        else
+        {
+            circuitBreaker.onSuccess();
+        }
+        circuitProbe = false;
+
         if ((retry && attempts <= 3) ||
             (factory.defaultCache.checkToRetry(getRequestHeaders(),
                                                responseHeaders,
@@ -319,68 +597,115 @@ final class HttpCacheProxyGroupRequest
                                                     initial,
                                                     routeId,
                                                     initialId,
-                                                    this::doRetryRequestAfter);
+                                                    retry ? backoffRequestAfter : retryRequestAfter);
                 newStream = cacheProxyRetryResponse::onResponseMessage;
                 resetHandler = cacheProxyRetryResponse::doResponseReset;
             }
             else
             {
                 cleanupRequestIfNecessary();
-                requestGroup.onGroupRequestEnd(request);
+                requestGroup.onGroupRequestEnd(this);
                 state = HttpCacheRequestState.closedReply(state);
             }
         }
-        else if (isCacheableResponse(responseHeaders))
+        else if (request == null &&
+                 NOT_MODIFIED_304.equals(HttpHeadersUtil.getHeader(responseHeaders, STATUS)))
         {
-            final Array32FW<HttpHeaderFW> requestHeaders = getRequestHeaders();
-            final short authScope = authorizationScope(request.authorization);
-            final String requestURL = getRequestURL(requestHeaders);
-            final DefaultCacheEntry cacheEntry = factory.defaultCache.supply(requestHash, authScope, requestURL);
-
-            final boolean stored = cacheEntry.storeRequestHeaders(requestHeaders);
-            assert stored;
+            factory.defaultCache.updateResponseHeaderIfNecessary(requestHash, responseHeaders);
+            cleanupRequestIfNecessary();
+            requestGroup.onGroupRequestEnd(this);
+            state = HttpCacheRequestState.closedReply(state);
+        }
+        else if (isCacheableResponse(responseHeaders) &&
+                 !factory.negativeCache.isNegative(responseHeaders) &&
+                 storeCacheEntry(responseHeaders))
+        {
+            final DefaultCacheEntry cacheEntry = factory.defaultCache.get(requestHash);
+            cacheEntry.fetchMillis(System.currentTimeMillis() - requestAt);
 
             final HttpCacheProxyCacheableResponse cacheableResponse =
                 new HttpCacheProxyCacheableResponse(factory,
-                                                    request,
+                                                    this,
                                                     initial,
                                                     routeId,
                                                     replyId,
                                                     cacheEntry,
-                                                    this::doRetryRequestAfter,
-                                                    this::cleanupRequestIfNecessary);
+                                                    retryRequestAfter,
+                                                    cleanupRequest);
 
             newStream = cacheableResponse::onResponseMessage;
             resetHandler = cacheableResponse::doResponseReset;
         }
         else
         {
-            if (requestGroup.isQueuedRequest(request))
+            if (request != null && requestGroup.isQueuedRequest(request))
             {
                 final HttpCacheProxyRelayedResponse relayedResponse = request.newRelayedResponse(initial, routeId, replyId);
                 newStream = relayedResponse::onResponseMessage;
                 resetHandler = relayedResponse::doResponseReset;
             }
-            requestGroup.onGroupRequestEnd(request);
+            final NegativeCacheEntry negativeEntry = storeNegativeEntry(requestHash, responseHeaders);
+            if (negativeEntry != null)
+            {
+                requestGroup.onGroupResponseNegative(request, negativeEntry, factory.supplyTraceId.getAsLong());
+            }
+            requestGroup.onGroupRequestEnd(this);
 
             factory.correlations.remove(replyId);
             releaseRequestSlotIfNecessary();
+            releaseUpstreamIfNecessary();
 
-            if (retryRequest != null)
+            if (retryRequestId != NO_TIMER)
             {
-                retryRequest.cancel(true);
-                retryRequest = null;
+                factory.cancelTimer(retryRequestId);
+                retryRequestId = NO_TIMER;
             }
         }
 
         return newStream;
     }
 
+    private NegativeCacheEntry storeNegativeEntry(
+        int requestHash,
+        Array32FW<HttpHeaderFW> responseHeaders)
+    {
+        final long now = System.currentTimeMillis();
+        final boolean authorized = authorizationScope(authorization) != 0 ||
+                                   HttpHeadersUtil.getHeader(getRequestHeaders(), AUTHORIZATION) != null;
+
+        // keep serving a valid cached entry through refresh-ahead and background errors
+        return factory.defaultCache.get(requestHash) == null &&
+               factory.negativeCache.store(requestHash, authorized, responseHeaders, now) ?
+                   factory.negativeCache.get(requestHash, now) : null;
+    }
+
+    private boolean storeCacheEntry(
+        Array32FW<HttpHeaderFW> responseHeaders)
+    {
+        final int requestHash = requestGroup.requestHash();
+        final Array32FW<HttpHeaderFW> requestHeaders = getRequestHeaders();
+        final short authScope = authorizationScope(authorization);
+        final String requestURL = getRequestURL(requestHeaders);
+        final CachePartition partition = requestGroup.partition();
+        final DefaultCacheEntry cacheEntry = factory.defaultCache.supply(partition, requestHash, authScope, requestURL);
+        final HttpProxyRouteOptions options = factory.routeOptions(routeId);
+        cacheEntry.ttlBounds(options.minimumTtl, options.maximumTtl);
+
+        final boolean stored = cacheEntry.storeRequestHeaders(requestHeaders) &&
+                               cacheEntry.storeResponseHeaders(responseHeaders);
+        if (!stored)
+        {
+            factory.defaultCache.purge(requestHash);
+            factory.counters.responsesSpilled.getAsLong();
+        }
+
+        return stored;
+    }
+
     void doResponseReset(
         long traceId)
     {
         resetHandler.accept(traceId);
-        factory.router.clearThrottle(notifyId);
         cleanupRequestIfNecessary();
         state = HttpCacheRequestState.closingReply(state);
         flushResetIfNecessary(traceId);
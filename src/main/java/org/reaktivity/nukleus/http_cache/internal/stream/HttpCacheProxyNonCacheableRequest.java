@@ -18,7 +18,7 @@ package org.reaktivity.nukleus.http_cache.internal.stream;
 
 import org.agrona.DirectBuffer;
 import org.reaktivity.nukleus.function.MessageConsumer;
-import org.reaktivity.nukleus.http_cache.internal.types.ArrayFW;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
 import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
 import org.reaktivity.nukleus.http_cache.internal.types.OctetsFW;
 import org.reaktivity.nukleus.http_cache.internal.types.stream.AbortFW;
@@ -181,7 +181,7 @@ final class HttpCacheProxyNonCacheableRequest
         final OctetsFW extension = begin.extension();
         final HttpBeginExFW httpBeginEx = extension.get(factory.httpBeginExRO::tryWrap);
         assert httpBeginEx != null;
-        final ArrayFW<HttpHeaderFW> headers = httpBeginEx.headers();
+        final Array32FW<HttpHeaderFW> headers = httpBeginEx.headers();
 
         factory.router.setThrottle(connectInitialId, this::onRequestMessage);
         factory.writer.doHttpRequest(
@@ -190,7 +190,7 @@ final class HttpCacheProxyNonCacheableRequest
             connectInitialId,
             factory.supplyTraceId.getAsLong(),
             0L,
-            hs -> headers.forEach(h -> hs.item(item -> item.name(h.name()).value(h.value()))));
+            headers);
         factory.correlations.put(connectReplyId, this::newResponse);
     }
 
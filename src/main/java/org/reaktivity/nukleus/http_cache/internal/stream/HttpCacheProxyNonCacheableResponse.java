@@ -137,7 +137,7 @@ final class HttpCacheProxyNonCacheableResponse
             acceptRouteId,
             acceptReplyId,
             traceId,
-            builder -> headers.forEach(h -> builder.item(item -> item.name(h.name()).value(h.value()))));
+            headers);
 
         // count all responses
         factory.counters.responses.getAsLong();
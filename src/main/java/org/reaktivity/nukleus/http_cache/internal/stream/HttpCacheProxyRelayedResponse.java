@@ -53,6 +53,7 @@ public final class HttpCacheProxyRelayedResponse
     private final long initialReplyBudgetId;
     private final int initialWindow;
     private final int initialPadding;
+    private final boolean head;
 
     HttpCacheProxyRelayedResponse(
         HttpCacheProxyFactory factory,
@@ -65,7 +66,8 @@ public final class HttpCacheProxyRelayedResponse
         String prefer,
         long initialReplyBudgetId,
         int initialWindow,
-        int initialPadding)
+        int initialPadding,
+        boolean head)
     {
         this.factory = factory;
         this.receiver = receiver;
@@ -78,6 +80,7 @@ public final class HttpCacheProxyRelayedResponse
         this.initialReplyBudgetId = initialReplyBudgetId;
         this.initialWindow = initialWindow;
         this.initialPadding = initialPadding;
+        this.head = head;
     }
 
     void doResponseReset(
@@ -101,10 +104,18 @@ public final class HttpCacheProxyRelayedResponse
             onResponseBegin(begin);
             break;
         case DataFW.TYPE_ID:
-            writeBuffer.putBytes(0, buffer, index, length);
-            writeBuffer.putLong(FrameFW.FIELD_OFFSET_ROUTE_ID, receiverRouteId);
-            writeBuffer.putLong(FrameFW.FIELD_OFFSET_STREAM_ID, receiverReplyId);
-            receiver.accept(msgTypeId, writeBuffer, 0, length);
+            if (head)
+            {
+                final DataFW data = factory.dataRO.wrap(buffer, index, index + length);
+                onResponseDataDiscarded(data);
+            }
+            else
+            {
+                writeBuffer.putBytes(0, buffer, index, length);
+                writeBuffer.putLong(FrameFW.FIELD_OFFSET_ROUTE_ID, receiverRouteId);
+                writeBuffer.putLong(FrameFW.FIELD_OFFSET_STREAM_ID, receiverReplyId);
+                receiver.accept(msgTypeId, writeBuffer, 0, length);
+            }
             break;
         case EndFW.TYPE_ID:
         case AbortFW.TYPE_ID:
@@ -127,6 +138,18 @@ public final class HttpCacheProxyRelayedResponse
         }
     }
 
+    private void onResponseDataDiscarded(
+        DataFW data)
+    {
+        factory.writer.doWindow(sender,
+                                senderRouteId,
+                                senderReplyId,
+                                data.traceId(),
+                                data.budgetId(),
+                                data.reserved(),
+                                0);
+    }
+
     private void onResponseBegin(
         BeginFW begin)
     {
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+final class HttpProxyAttachedResponses<T extends HttpProxyAttachedResponses.Member<T>>
+{
+    private T readyHead;
+    private T readyTail;
+    private T blockedHead;
+    private T blockedTail;
+
+    T readyHead()
+    {
+        return readyHead;
+    }
+
+    T blockedHead()
+    {
+        return blockedHead;
+    }
+
+    boolean isEmpty()
+    {
+        return readyHead == null && blockedHead == null;
+    }
+
+    void link(
+        T response,
+        boolean ready)
+    {
+        final T tail = ready ? readyTail : blockedTail;
+        response.attached = true;
+        response.ready = ready;
+        response.attachedPrevious = tail;
+        response.attachedNext = null;
+        if (tail != null)
+        {
+            tail.attachedNext = response;
+        }
+        else if (ready)
+        {
+            readyHead = response;
+        }
+        else
+        {
+            blockedHead = response;
+        }
+
+        if (ready)
+        {
+            readyTail = response;
+        }
+        else
+        {
+            blockedTail = response;
+        }
+    }
+
+    void unlink(
+        T response)
+    {
+        final boolean ready = response.ready;
+        final T previous = response.attachedPrevious;
+        final T next = response.attachedNext;
+        if (previous != null)
+        {
+            previous.attachedNext = next;
+        }
+        else if (ready)
+        {
+            readyHead = next;
+        }
+        else
+        {
+            blockedHead = next;
+        }
+
+        if (next != null)
+        {
+            next.attachedPrevious = previous;
+        }
+        else if (ready)
+        {
+            readyTail = previous;
+        }
+        else
+        {
+            blockedTail = previous;
+        }
+        response.attachedPrevious = null;
+        response.attachedNext = null;
+        response.attached = false;
+        response.ready = false;
+    }
+
+    void flushed(
+        T response)
+    {
+        assert response.attached;
+        final boolean ready = response.hasReplyWindow();
+        if (response.ready != ready)
+        {
+            unlink(response);
+            link(response, ready);
+        }
+    }
+
+    T flush(
+        int limit,
+        long traceId)
+    {
+        int flushable = limit;
+        T response = readyHead;
+        while (response != null && flushable > 0)
+        {
+            final T nextResponse = response.attachedNext;
+            response.doResponseFlush(traceId);
+            response = nextResponse;
+            flushable--;
+        }
+
+        if (response != null)
+        {
+            rotate(response);
+        }
+
+        return response;
+    }
+
+    private void rotate(
+        T response)
+    {
+        assert response.attached && response.ready;
+        if (response != readyHead)
+        {
+            final T previous = response.attachedPrevious;
+            previous.attachedNext = null;
+            response.attachedPrevious = null;
+            readyTail.attachedNext = readyHead;
+            readyHead.attachedPrevious = readyTail;
+            readyTail = previous;
+            readyHead = response;
+        }
+    }
+
+    abstract static class Member<T extends Member<T>>
+    {
+        T attachedPrevious;
+        T attachedNext;
+        boolean attached;
+        boolean ready;
+
+        abstract boolean hasReplyWindow();
+
+        abstract void doResponseFlush(
+            long traceId);
+    }
+}
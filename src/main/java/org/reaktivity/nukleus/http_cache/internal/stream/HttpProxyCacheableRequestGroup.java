@@ -15,28 +15,59 @@
  */
 package org.reaktivity.nukleus.http_cache.internal.stream;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
+import static org.reaktivity.nukleus.http_cache.internal.stream.Signals.GROUP_RESPONSE_FLUSH_SIGNAL;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.ProgressHeap.NO_INDEX;
+
 import java.time.Instant;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.function.IntConsumer;
 
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.CachePartition;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCacheEntry;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.NegativeCacheEntry;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.ProgressHeap;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.RequestUtil;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.SignalFW;
 
 public final class HttpProxyCacheableRequestGroup
 {
+    private static final int SPILL_RESPONSES_INITIAL_CAPACITY = 4;
+
     private final HttpCacheProxyFactory factory;
     private final IntConsumer cleaner;
     private final int requestHash;
-    private final Deque<HttpCacheProxyCacheableRequest> queuedRequests;
-    private final Set<HttpCacheProxyCachedResponse> attachedResponses;
-    private final Set<HttpCacheProxyCachedResponse> detachedResponses;
+    private final HttpProxyAttachedResponses<HttpCacheProxyCachedResponse> attachedResponses;
+
+    private HttpCacheProxyCacheableRequest queuedHead;
+    private HttpCacheProxyCacheableRequest queuedTail;
 
+    private long notifyRouteId;
+    private long notifyId;
+    private Future<?> flushReadyResponses;
+    private Long2ObjectHashMap<HttpProxyPreferWaitBatch> preferWaitBatches;
+
+    private final short authorizationScope;
+    private final CachePartition partition;
     private String authorizationHeader;
     private HttpCacheProxyGroupRequest groupRequest;
     private DefaultCacheEntry cacheEntry;
     private boolean groupRequestDeleted;
+    private boolean refreshing;
+
+    private HttpCacheProxyCacheableResponse spillResponse;
+    private DefaultCacheEntry spillEntry;
+    private int spillSlot = NO_SLOT;
+    private int spillOffset;
+    private int spillWritten;
+    private boolean spillEnded;
+    private boolean spillFlushing;
+    private ProgressHeap<HttpCacheProxyCachedResponse> spillResponses;
 
     public void onCacheEntryInvalidated(
         long traceId)
@@ -50,14 +81,16 @@ public final class HttpProxyCacheableRequestGroup
     HttpProxyCacheableRequestGroup(
         HttpCacheProxyFactory factory,
         IntConsumer cleaner,
-        int requestHash)
+        int requestHash,
+        short authorizationScope,
+        CachePartition partition)
     {
         this.factory = factory;
         this.cleaner = cleaner;
         this.requestHash = requestHash;
-        this.queuedRequests = new LinkedList<>();
-        this.attachedResponses = new HashSet<>();
-        this.detachedResponses = new HashSet<>();
+        this.authorizationScope = authorizationScope;
+        this.partition = partition;
+        this.attachedResponses = new HttpProxyAttachedResponses<>();
     }
 
     int requestHash()
@@ -65,6 +98,16 @@ public final class HttpProxyCacheableRequestGroup
         return requestHash;
     }
 
+    short authorizationScope()
+    {
+        return authorizationScope;
+    }
+
+    CachePartition partition()
+    {
+        return partition;
+    }
+
     void authorizationHeader(
         String authorizationHeader)
     {
@@ -78,7 +121,7 @@ public final class HttpProxyCacheableRequestGroup
 
     String ifNoneMatchHeader()
     {
-        return groupRequest != null ? groupRequest.request().ifNoneMatch : null;
+        return groupRequest != null ? groupRequest.ifNoneMatch() : null;
     }
 
     void cacheEntry(
@@ -90,67 +133,208 @@ public final class HttpProxyCacheableRequestGroup
     void enqueue(
         HttpCacheProxyCacheableRequest request)
     {
-        final boolean added = queuedRequests.add(request);
-        assert added;
+        assert !request.queued;
+        linkQueued(request);
 
         if (groupRequest == null || !groupRequest.canDeferRequest(request))
         {
             doRequest(request);
         }
-        else if (cacheEntry != null && !attachedResponses.isEmpty())
+        else if (cacheEntry != null && spillEntry == null && hasAttachedResponses())
         {
-            final String etag = cacheEntry.etag();
-            final boolean notModified = etag != null && etag.equals(request.ifNoneMatch);
-            final long traceId = factory.supplyTraceId.getAsLong();
-            if (notModified)
-            {
-                request.doNotModifiedResponse(traceId);
-            }
-            else
-            {
-                request.doCachedResponse(Instant.now(), traceId);
-            }
-            queuedRequests.remove(request);
+            doQueuedResponse(request, cacheEntry.etag(), Instant.now(), factory.supplyTraceId.getAsLong());
         }
     }
 
     void dequeue(
         HttpCacheProxyCacheableRequest request)
     {
-        boolean removed = queuedRequests.remove(request);
-        assert removed;
+        assert request.queued;
+        unlinkQueued(request);
 
         cleanupRequestGroupIfNecessary();
     }
 
     private void cleanupRequestGroupIfNecessary()
     {
-        if (!hasQueuedRequests() && !hasAttachedResponses() && !groupRequestDeleted)
+        if (!hasQueuedRequests() && !hasAttachedResponses() && !refreshing && !groupRequestDeleted)
         {
             cleaner.accept(requestHash);
             factory.counters.requestGroups.accept(-1);
             groupRequestDeleted = true;
+            cleanupNotifyIfNecessary();
         }
     }
 
     void attach(
         HttpCacheProxyCachedResponse response)
     {
-        attachedResponses.add(response);
+        assert !response.attached;
+        attachedResponses.link(response, true);
+
+        if (spillEntry != null && response.cacheEntry() == spillEntry)
+        {
+            spillResponses.add(response);
+        }
     }
 
     void detach(
         HttpCacheProxyCachedResponse response)
     {
-        assert attachedResponses.contains(response);
-        detachedResponses.add(response);
+        assert response.attached;
+        final boolean spilled = response.heapIndex() != NO_INDEX;
+        releaseAttached(response);
+
+        if (spilled)
+        {
+            onSpillResponseDetached(factory.supplyTraceId.getAsLong());
+        }
         cleanupRequestGroupIfNecessary();
     }
 
+    void onResponseFlushed(
+        HttpCacheProxyCachedResponse response,
+        long traceId)
+    {
+        attachedResponses.flushed(response);
+
+        if (response.heapIndex() != NO_INDEX)
+        {
+            spillResponses.progressed(response);
+        }
+
+        if (spillResponse != null && !spillFlushing && response.cacheEntry() == spillEntry)
+        {
+            spillResponse.doSpillWindow(traceId);
+        }
+    }
+
+    int responseSize(
+        DefaultCacheEntry entry)
+    {
+        return entry == spillEntry ? spillWritten : entry.responseSize();
+    }
+
+    boolean isResponseCompleted(
+        DefaultCacheEntry entry)
+    {
+        return entry == spillEntry ? spillEnded : entry.isResponseCompleted();
+    }
+
+    DirectBuffer spillBuffer()
+    {
+        return factory.headersPool.buffer(spillSlot);
+    }
+
+    int spillIndex(
+        int progress)
+    {
+        return (progress - spillOffset) % factory.headersPool.slotCapacity();
+    }
+
+    int spillContiguous(
+        int progress)
+    {
+        return factory.headersPool.slotCapacity() - spillIndex(progress);
+    }
+
+    int spillLimit()
+    {
+        return spillLowMark() + factory.headersPool.slotCapacity();
+    }
+
+    boolean doGroupResponseSpill(
+        HttpCacheProxyCacheableResponse response,
+        DefaultCacheEntry entry,
+        Instant responseAt,
+        boolean responseBegun,
+        long traceId)
+    {
+        assert spillSlot == NO_SLOT;
+        spillSlot = factory.headersPool.acquire(requestHash);
+        if (spillSlot != NO_SLOT)
+        {
+            spillResponse = response;
+            spillEntry = entry;
+            spillOffset = entry.responseSize();
+            spillWritten = spillOffset;
+            spillEnded = false;
+
+            if (spillResponses == null)
+            {
+                spillResponses = new ProgressHeap<>(SPILL_RESPONSES_INITIAL_CAPACITY);
+            }
+            addSpillResponses(attachedResponses.readyHead(), entry);
+            addSpillResponses(attachedResponses.blockedHead(), entry);
+
+            if (!responseBegun)
+            {
+                onGroupResponseBegin(responseAt, traceId);
+            }
+        }
+        return spillSlot != NO_SLOT;
+    }
+
+    void onGroupResponseSpillData(
+        DirectBuffer buffer,
+        int index,
+        int length,
+        long traceId)
+    {
+        final int capacity = factory.headersPool.slotCapacity();
+        assert length <= capacity;
+
+        while (spillWritten + length - spillLowMark() > capacity)
+        {
+            doSpillAbortSlowestResponse(traceId);
+        }
+
+        final MutableDirectBuffer spillBuffer = factory.headersPool.buffer(spillSlot);
+        final int spillIndex = spillIndex(spillWritten);
+        final int contiguous = Math.min(length, capacity - spillIndex);
+        spillBuffer.putBytes(spillIndex, buffer, index, contiguous);
+        if (contiguous < length)
+        {
+            spillBuffer.putBytes(0, buffer, index + contiguous, length - contiguous);
+        }
+        spillWritten += length;
+
+        spillFlushing = true;
+        doFlushReadyResponses(traceId);
+        spillFlushing = false;
+
+        if (!hasSpillResponses())
+        {
+            onResponseAbandoned(traceId);
+        }
+    }
+
+    void onGroupResponseSpillEnd(
+        long traceId)
+    {
+        spillEnded = true;
+        spillResponse = null;
+
+        doFlushReadyResponses(traceId);
+        cleanupSpillIfNecessary();
+    }
+
+    void onGroupResponseSpillReset(
+        long traceId)
+    {
+        doSpillAbortResponses(attachedResponses.readyHead(), traceId);
+        doSpillAbortResponses(attachedResponses.blockedHead(), traceId);
+
+        spillEnded = true;
+        spillResponse = null;
+        cleanupSpillIfNecessary();
+    }
+
     void onResponseAbandoned(
         long traceId)
     {
         if (groupRequest != null &&
+            !refreshing &&
             !hasQueuedRequests() &&
             !hasAttachedResponses())
         {
@@ -159,11 +343,88 @@ public final class HttpProxyCacheableRequestGroup
         }
     }
 
+    void awaitPreferWait(
+        HttpCacheProxyCacheableRequest request,
+        int preferWait,
+        long routeId)
+    {
+        final long deadline = factory.timerDeadline(preferWait, SECONDS);
+
+        if (preferWaitBatches == null)
+        {
+            preferWaitBatches = new Long2ObjectHashMap<>();
+        }
+
+        final HttpProxyPreferWaitBatch head = preferWaitBatches.get(deadline);
+        HttpProxyPreferWaitBatch batch = head;
+        while (batch != null && !batch.matches(request.ifNoneMatch, request.prefer))
+        {
+            batch = batch.next;
+        }
+
+        if (batch == null)
+        {
+            batch = factory.preferWaitBatches.acquire().init(this, request.ifNoneMatch, request.prefer, deadline);
+            batch.schedule(routeId, request.replyId);
+            batch.next = head;
+            if (head != null)
+            {
+                head.previous = batch;
+            }
+            preferWaitBatches.put(deadline, batch);
+        }
+
+        batch.link(request);
+    }
+
+    void cancelPreferWait(
+        HttpCacheProxyCacheableRequest request)
+    {
+        final HttpProxyPreferWaitBatch batch = request.waitBatch;
+        batch.unlink(request);
+
+        if (batch.isEmpty())
+        {
+            batch.cancel();
+            removePreferWaitBatch(batch);
+            factory.releasePreferWaitBatch(batch);
+        }
+    }
+
+    void onPreferWaitBatchExpired(
+        HttpProxyPreferWaitBatch batch)
+    {
+        removePreferWaitBatch(batch);
+    }
+
+    void doRefreshAheadIfNecessary(
+        HttpCacheProxyCacheableRequest request,
+        DefaultCacheEntry cacheEntry,
+        Instant now)
+    {
+        if (groupRequest == null &&
+            factory.defaultCache.isRefreshAheadDue(cacheEntry, now))
+        {
+            refreshing = true;
+            doRequest(request, cacheEntry);
+
+            if (refreshing)
+            {
+                factory.counters.requestsRefreshAhead.getAsLong();
+            }
+        }
+    }
+
     void onGroupRequestReset(
         long traceId)
     {
-        queuedRequests.forEach(r -> r.do503RetryResponse(traceId));
-        queuedRequests.clear();
+        if (refreshing)
+        {
+            groupRequest = null;
+            refreshing = false;
+        }
+
+        doQueuedRetryResponses(traceId);
         cleanupRequestGroupIfNecessary();
     }
 
@@ -172,54 +433,389 @@ public final class HttpProxyCacheableRequestGroup
         long traceId)
     {
         final String etag = cacheEntry.etag();
-        for (HttpCacheProxyCacheableRequest queuedRequest : queuedRequests)
+        for (HttpCacheProxyCacheableRequest queuedRequest = queuedHead; queuedRequest != null; )
         {
-            final boolean notModified = etag != null && etag.equals(queuedRequest.ifNoneMatch);
-            if (notModified)
-            {
-                queuedRequest.doNotModifiedResponse(traceId);
-            }
-            else
-            {
-                queuedRequest.doCachedResponse(now, traceId);
-            }
+            final HttpCacheProxyCacheableRequest nextRequest = queuedRequest.queuedNext;
+            doQueuedResponse(queuedRequest, etag, now, traceId);
+            queuedRequest = nextRequest;
+        }
+    }
+
+    private void doQueuedResponse(
+        HttpCacheProxyCacheableRequest request,
+        String etag,
+        Instant now,
+        long traceId)
+    {
+        unlinkQueued(request);
+
+        if (!cacheEntry.isShareableWith(RequestUtil.authorizationScope(request.authorization)))
+        {
+            // provisionally coalesced from another scope, fetch again under the request's own scope
+            factory.requeueScopedRequest(request);
+        }
+        else if (etag != null && etag.equals(request.ifNoneMatch))
+        {
+            request.doNotModifiedResponse(traceId);
+        }
+        else
+        {
+            request.doCachedResponse(now, traceId);
         }
-        queuedRequests.clear();
     }
 
     void onGroupResponseData(
         long traceId)
     {
-        attachedResponses.removeIf(detachedResponses::contains);
-        detachedResponses.clear();
-        attachedResponses.forEach(response -> response.doResponseFlush(traceId));
+        doFlushReadyResponses(traceId);
         cleanupRequestGroupIfNecessary();
     }
 
     void onGroupResponseAbort(
         long traceId)
     {
-        queuedRequests.forEach(r -> r.do503RetryResponse(traceId));
-        queuedRequests.clear();
+        doQueuedRetryResponses(traceId);
+
+        doAttachedAbortResponses(attachedResponses.readyHead(), traceId);
+        doAttachedAbortResponses(attachedResponses.blockedHead(), traceId);
 
-        attachedResponses.forEach(r -> r.doResponseAbort(traceId));
-        attachedResponses.clear();
-        detachedResponses.clear();
+        spillEnded = true;
+        spillResponse = null;
+        cleanupSpillIfNecessary();
 
         cleanupRequestGroupIfNecessary();
     }
 
+    void onGroupResponseNegative(
+        HttpCacheProxyCacheableRequest request,
+        NegativeCacheEntry negativeEntry,
+        long traceId)
+    {
+        for (HttpCacheProxyCacheableRequest queuedRequest = queuedHead; queuedRequest != null; )
+        {
+            final HttpCacheProxyCacheableRequest nextRequest = queuedRequest.queuedNext;
+            if (queuedRequest != request)
+            {
+                unlinkQueued(queuedRequest);
+                queuedRequest.doNegativeCachedResponse(negativeEntry, traceId);
+            }
+            queuedRequest = nextRequest;
+        }
+    }
+
     void onGroupRequestEnd(
-        HttpCacheProxyCacheableRequest request)
+        HttpCacheProxyGroupRequest request)
     {
-        assert groupRequest.request() == request;
+        assert groupRequest == request;
         groupRequest = null;
 
+        final boolean refreshed = refreshing;
+        refreshing = false;
+
         flushNextRequest();
+
+        if (refreshed)
+        {
+            cleanupRequestGroupIfNecessary();
+        }
+    }
+
+    private void doQueuedRetryResponses(
+        long traceId)
+    {
+        final long now = System.currentTimeMillis();
+        for (HttpCacheProxyCacheableRequest queuedRequest = queuedHead; queuedRequest != null; )
+        {
+            final HttpCacheProxyCacheableRequest nextRequest = queuedRequest.queuedNext;
+            doRetryResponse(queuedRequest, now, traceId);
+            unlinkQueued(queuedRequest);
+            queuedRequest = nextRequest;
+        }
+    }
+
+    private void doRetryResponse(
+        HttpCacheProxyCacheableRequest request,
+        long now,
+        long traceId)
+    {
+        final HttpProxyCircuitBreaker circuitBreaker = factory.supplyCircuitBreaker(request.resolveId);
+        if (circuitBreaker.isOpen(now))
+        {
+            final DefaultCacheEntry staleEntry = factory.defaultCache.get(requestHash);
+            if (staleEntry != null && staleEntry.isResponseCompleted())
+            {
+                request.doCachedResponse(Instant.ofEpochMilli(now), traceId);
+            }
+            else
+            {
+                request.do503RetryResponse(traceId, circuitBreaker.retryAfter(now));
+            }
+        }
+        else
+        {
+            request.do503RetryResponse(traceId, 0L);
+        }
+    }
+
+    private void linkQueued(
+        HttpCacheProxyCacheableRequest request)
+    {
+        request.queued = true;
+        request.queuedPrevious = queuedTail;
+        request.queuedNext = null;
+        if (queuedTail != null)
+        {
+            queuedTail.queuedNext = request;
+        }
+        else
+        {
+            queuedHead = request;
+        }
+        queuedTail = request;
+    }
+
+    private void unlinkQueued(
+        HttpCacheProxyCacheableRequest request)
+    {
+        final HttpCacheProxyCacheableRequest previous = request.queuedPrevious;
+        final HttpCacheProxyCacheableRequest next = request.queuedNext;
+        if (previous != null)
+        {
+            previous.queuedNext = next;
+        }
+        else
+        {
+            queuedHead = next;
+        }
+        if (next != null)
+        {
+            next.queuedPrevious = previous;
+        }
+        else
+        {
+            queuedTail = previous;
+        }
+        request.queuedPrevious = null;
+        request.queuedNext = null;
+        request.queued = false;
+    }
+
+    private void doFlushReadyResponses(
+        long traceId)
+    {
+        final HttpCacheProxyCachedResponse unflushed = attachedResponses.flush(factory.maximumFlushBatch, traceId);
+        if (unflushed != null)
+        {
+            doFlushReadyResponsesLater(unflushed);
+        }
+    }
+
+    private void doFlushReadyResponsesLater(
+        HttpCacheProxyCachedResponse response)
+    {
+        if (flushReadyResponses == null)
+        {
+            if (notifyId == 0L)
+            {
+                notifyRouteId = response.routeId();
+                notifyId = factory.supplyInitialId.applyAsLong(notifyRouteId);
+                factory.router.setThrottle(notifyId, this::onNotifyMessage);
+            }
+
+            flushReadyResponses = factory.executor.schedule(0L,
+                                                            MILLISECONDS,
+                                                            notifyRouteId,
+                                                            notifyId,
+                                                            GROUP_RESPONSE_FLUSH_SIGNAL);
+        }
+    }
+
+    private void onNotifyMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case SignalFW.TYPE_ID:
+            final SignalFW signal = factory.signalRO.wrap(buffer, index, index + length);
+            onNotifySignal(signal);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void onNotifySignal(
+        SignalFW signal)
+    {
+        final long traceId = signal.traceId();
+        final int signalId = signal.signalId();
+
+        if (signalId == GROUP_RESPONSE_FLUSH_SIGNAL)
+        {
+            flushReadyResponses = null;
+            doFlushReadyResponses(traceId);
+            cleanupRequestGroupIfNecessary();
+        }
+    }
+
+    private void cleanupNotifyIfNecessary()
+    {
+        if (flushReadyResponses != null)
+        {
+            flushReadyResponses.cancel(true);
+            flushReadyResponses = null;
+        }
+
+        if (notifyId != 0L)
+        {
+            factory.router.clearThrottle(notifyId);
+            notifyId = 0L;
+        }
+    }
+
+    private void removePreferWaitBatch(
+        HttpProxyPreferWaitBatch batch)
+    {
+        final HttpProxyPreferWaitBatch previous = batch.previous;
+        final HttpProxyPreferWaitBatch next = batch.next;
+        if (previous != null)
+        {
+            previous.next = next;
+        }
+        else if (next != null)
+        {
+            preferWaitBatches.put(batch.deadline(), next);
+        }
+        else
+        {
+            preferWaitBatches.remove(batch.deadline());
+        }
+
+        if (next != null)
+        {
+            next.previous = previous;
+        }
+        batch.previous = null;
+        batch.next = null;
+    }
+
+    private void doAttachedAbortResponses(
+        HttpCacheProxyCachedResponse responses,
+        long traceId)
+    {
+        for (HttpCacheProxyCachedResponse response = responses; response != null; )
+        {
+            final HttpCacheProxyCachedResponse nextResponse = response.attachedNext;
+            response.doResponseAbort(traceId);
+            releaseAttached(response);
+            response = nextResponse;
+        }
+    }
+
+    private void doSpillAbortResponses(
+        HttpCacheProxyCachedResponse responses,
+        long traceId)
+    {
+        for (HttpCacheProxyCachedResponse response = responses; response != null; )
+        {
+            final HttpCacheProxyCachedResponse nextResponse = response.attachedNext;
+            if (response.heapIndex() != NO_INDEX)
+            {
+                response.doResponseAbort(traceId);
+                releaseAttached(response);
+            }
+            response = nextResponse;
+        }
+    }
+
+    private void doSpillAbortSlowestResponse(
+        long traceId)
+    {
+        final HttpCacheProxyCachedResponse slowest = spillResponses.least();
+        assert slowest != null;
+
+        slowest.doResponseAbort(traceId);
+        releaseAttached(slowest);
+    }
+
+    private void addSpillResponses(
+        HttpCacheProxyCachedResponse responses,
+        DefaultCacheEntry entry)
+    {
+        for (HttpCacheProxyCachedResponse response = responses; response != null; response = response.attachedNext)
+        {
+            if (response.cacheEntry() == entry)
+            {
+                spillResponses.add(response);
+            }
+        }
+    }
+
+    private void releaseAttached(
+        HttpCacheProxyCachedResponse response)
+    {
+        attachedResponses.unlink(response);
+        if (response.heapIndex() != NO_INDEX)
+        {
+            spillResponses.remove(response);
+        }
+        factory.releaseCachedResponse(response);
+    }
+
+    private int spillLowMark()
+    {
+        final HttpCacheProxyCachedResponse slowest = spillResponses.least();
+        final int lowMark = slowest != null ? slowest.progress() : spillWritten;
+        return Math.max(lowMark, spillOffset);
+    }
+
+    private boolean hasSpillResponses()
+    {
+        return spillResponses != null && !spillResponses.isEmpty();
+    }
+
+    private void onSpillResponseDetached(
+        long traceId)
+    {
+        if (!hasSpillResponses())
+        {
+            if (spillEnded)
+            {
+                cleanupSpillIfNecessary();
+            }
+            else
+            {
+                onResponseAbandoned(traceId);
+            }
+        }
+        else if (spillResponse != null)
+        {
+            spillResponse.doSpillWindow(traceId);
+        }
+    }
+
+    private void cleanupSpillIfNecessary()
+    {
+        if (spillSlot != NO_SLOT && spillEnded && !hasSpillResponses())
+        {
+            factory.headersPool.release(spillSlot);
+            spillSlot = NO_SLOT;
+            spillEntry = null;
+        }
     }
 
     private void doRequest(
         HttpCacheProxyCacheableRequest request)
+    {
+        doRequest(request, null);
+    }
+
+    private void doRequest(
+        HttpCacheProxyCacheableRequest request,
+        DefaultCacheEntry refreshEntry)
     {
         final long traceId = factory.supplyTraceId.getAsLong();
 
@@ -227,36 +823,50 @@ public final class HttpProxyCacheableRequestGroup
         {
             groupRequest.doResponseReset(traceId);
             groupRequest = null;
+            refreshing = false;
         }
 
-        this.groupRequest = new HttpCacheProxyGroupRequest(factory, this, request);
+        final HttpProxyCircuitBreaker circuitBreaker = factory.supplyCircuitBreaker(request.resolveId);
+        if (circuitBreaker.tryAcquire(System.currentTimeMillis()))
+        {
+            this.groupRequest = new HttpCacheProxyGroupRequest(factory, this, request, refreshEntry);
 
-        groupRequest.doRequest(traceId);
-        request.onQueuedRequestSent();
+            groupRequest.doRequest(request.getHeaders(), traceId);
+            if (refreshEntry == null)
+            {
+                request.onQueuedRequestSent();
+            }
+        }
+        else
+        {
+            factory.counters.requestsCircuitOpen.getAsLong();
+            refreshing = false;
+            doQueuedRetryResponses(traceId);
+            cleanupRequestGroupIfNecessary();
+        }
     }
 
     private void flushNextRequest()
     {
-        if (!queuedRequests.isEmpty())
+        if (queuedHead != null)
         {
-            final HttpCacheProxyCacheableRequest nextRequest = queuedRequests.getFirst();
-            doRequest(nextRequest);
+            doRequest(queuedHead);
         }
     }
 
     boolean hasQueuedRequests()
     {
-        return !queuedRequests.isEmpty();
+        return queuedHead != null;
     }
 
     boolean hasAttachedResponses()
     {
-        return attachedResponses.size() != detachedResponses.size();
+        return !attachedResponses.isEmpty();
     }
 
     public boolean isQueuedRequest(
         HttpCacheProxyCacheableRequest request)
     {
-        return queuedRequests.contains(request);
+        return request.queued && request.requestGroup == this;
     }
 }
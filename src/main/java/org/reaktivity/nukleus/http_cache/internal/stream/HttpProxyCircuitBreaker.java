@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+final class HttpProxyCircuitBreaker
+{
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private final int maximumFailures;
+    private final long openMillis;
+
+    private int state = CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    HttpProxyCircuitBreaker(
+        int maximumFailures,
+        long openMillis)
+    {
+        this.maximumFailures = maximumFailures;
+        this.openMillis = openMillis;
+    }
+
+    boolean tryAcquire(
+        long now)
+    {
+        if (state == OPEN && now - openedAt >= openMillis)
+        {
+            state = HALF_OPEN;
+            probing = false;
+        }
+
+        boolean acquired = state == CLOSED;
+        if (state == HALF_OPEN && !probing)
+        {
+            probing = true;
+            acquired = true;
+        }
+        return acquired;
+    }
+
+    boolean isOpen(
+        long now)
+    {
+        return state == OPEN && now - openedAt < openMillis;
+    }
+
+    boolean isHalfOpen()
+    {
+        return state == HALF_OPEN;
+    }
+
+    void onSuccess()
+    {
+        state = CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    void onFailure(
+        long now)
+    {
+        failures++;
+
+        if (state == HALF_OPEN || failures >= maximumFailures)
+        {
+            state = OPEN;
+            openedAt = now;
+            probing = false;
+        }
+    }
+
+    void onProbeAbandoned()
+    {
+        if (state == HALF_OPEN)
+        {
+            probing = false;
+        }
+    }
+
+    long retryAfter(
+        long now)
+    {
+        final long remainingMillis = Math.max(openedAt + openMillis - now, 0L);
+        final long remaining = Math.max(SECONDS.convert(remainingMillis + 999L, MILLISECONDS), 1L);
+        return remaining + ThreadLocalRandom.current().nextLong(remaining + 1);
+    }
+}
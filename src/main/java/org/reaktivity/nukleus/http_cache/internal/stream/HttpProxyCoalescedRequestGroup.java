@@ -0,0 +1,403 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http_cache.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.AbortFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.BeginFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.DataFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.EndFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.HttpBeginExFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.ResetFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.WindowFW;
+
+final class HttpProxyCoalescedRequestGroup
+{
+    private final HttpCacheProxyFactory factory;
+    private final int requestHash;
+    private final long routeId;
+    private final long initialId;
+    private final long replyId;
+    private final MessageConsumer initial;
+
+    private int ringSlot = NO_SLOT;
+    private long ringWritten;
+    private long replyCredit;
+
+    private boolean initialClosed;
+    private boolean responseBegun;
+    private boolean responseEnded;
+
+    private HttpCacheProxyCoalescedRequest subscribersHead;
+    private HttpCacheProxyCoalescedRequest subscribersTail;
+
+    HttpProxyCoalescedRequestGroup(
+        HttpCacheProxyFactory factory,
+        int requestHash,
+        long resolveId)
+    {
+        this.factory = factory;
+        this.requestHash = requestHash;
+        this.routeId = resolveId;
+        this.initialId = factory.supplyInitialId.applyAsLong(resolveId);
+        this.initial = factory.router.supplyReceiver(initialId);
+        this.replyId = factory.supplyReplyId.applyAsLong(initialId);
+    }
+
+    long routeId()
+    {
+        return routeId;
+    }
+
+    boolean doRequest(
+        Array32FW<HttpHeaderFW> headers)
+    {
+        ringSlot = factory.headersPool.acquire(replyId);
+        if (ringSlot != NO_SLOT)
+        {
+            factory.router.setThrottle(initialId, this::onRequestMessage);
+            factory.writer.doHttpRequest(
+                initial,
+                routeId,
+                initialId,
+                factory.supplyTraceId.getAsLong(),
+                0L,
+                headers);
+            factory.correlations.put(replyId, this::newResponse);
+            factory.coalescedGroups.put(requestHash, this);
+        }
+        return ringSlot != NO_SLOT;
+    }
+
+    void subscribe(
+        HttpCacheProxyCoalescedRequest request)
+    {
+        assert !responseBegun;
+        request.coalescedPrevious = subscribersTail;
+        request.coalescedNext = null;
+        if (subscribersTail != null)
+        {
+            subscribersTail.coalescedNext = request;
+        }
+        else
+        {
+            subscribersHead = request;
+        }
+        subscribersTail = request;
+    }
+
+    void unsubscribe(
+        HttpCacheProxyCoalescedRequest request,
+        long traceId)
+    {
+        unlink(request);
+
+        if (subscribersHead == null)
+        {
+            if (!responseEnded)
+            {
+                doCancel(traceId);
+            }
+            cleanup();
+        }
+        else if (responseBegun && !responseEnded)
+        {
+            doReplyWindowIfNecessary(traceId);
+        }
+    }
+
+    MutableDirectBuffer ring()
+    {
+        return factory.headersPool.buffer(ringSlot);
+    }
+
+    int ringCapacity()
+    {
+        return factory.headersPool.slotCapacity();
+    }
+
+    long ringWritten()
+    {
+        return ringWritten;
+    }
+
+    boolean isResponseEnded()
+    {
+        return responseEnded;
+    }
+
+    void onResponseFlushed(
+        long traceId)
+    {
+        doReplyWindowIfNecessary(traceId);
+    }
+
+    private MessageConsumer newResponse(
+        HttpBeginExFW beginEx)
+    {
+        responseBegun = true;
+        factory.coalescedGroups.remove(requestHash, this);
+        return this::onResponseMessage;
+    }
+
+    private void onRequestMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case WindowFW.TYPE_ID:
+            final WindowFW window = factory.windowRO.wrap(buffer, index, index + length);
+            onRequestWindow(window);
+            break;
+        case ResetFW.TYPE_ID:
+            final ResetFW reset = factory.resetRO.wrap(buffer, index, index + length);
+            onRequestReset(reset);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void onRequestWindow(
+        WindowFW window)
+    {
+        if (!initialClosed)
+        {
+            initialClosed = true;
+            factory.writer.doHttpEnd(initial, routeId, initialId, window.traceId());
+        }
+    }
+
+    private void onRequestReset(
+        ResetFW reset)
+    {
+        initialClosed = true;
+
+        if (!responseBegun)
+        {
+            final long traceId = reset.traceId();
+            factory.correlations.remove(replyId);
+
+            for (HttpCacheProxyCoalescedRequest request = subscribersHead; request != null; )
+            {
+                final HttpCacheProxyCoalescedRequest next = request.coalescedNext;
+                unlink(request);
+                request.do503RetryResponse(traceId);
+                request = next;
+            }
+            cleanup();
+        }
+    }
+
+    private void onResponseMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case BeginFW.TYPE_ID:
+            final BeginFW begin = factory.beginRO.wrap(buffer, index, index + length);
+            onResponseBegin(begin);
+            break;
+        case DataFW.TYPE_ID:
+            final DataFW data = factory.dataRO.wrap(buffer, index, index + length);
+            onResponseData(data);
+            break;
+        case EndFW.TYPE_ID:
+            final EndFW end = factory.endRO.wrap(buffer, index, index + length);
+            onResponseEnd(end);
+            break;
+        case AbortFW.TYPE_ID:
+            final AbortFW abort = factory.abortRO.wrap(buffer, index, index + length);
+            onResponseAbort(abort);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void onResponseBegin(
+        BeginFW begin)
+    {
+        final long traceId = begin.traceId();
+        final OctetsFW extension = begin.extension();
+        HttpBeginExFW httpBeginEx = extension.get(factory.httpBeginExRO::tryWrap);
+        if (httpBeginEx == null)
+        {
+            httpBeginEx = factory.defaultHttpBeginExRO;
+        }
+        final Array32FW<HttpHeaderFW> headers = httpBeginEx.headers();
+
+        for (HttpCacheProxyCoalescedRequest request = subscribersHead; request != null; )
+        {
+            final HttpCacheProxyCoalescedRequest next = request.coalescedNext;
+            request.doResponseBegin(headers, traceId);
+            request = next;
+        }
+
+        if (subscribersHead != null)
+        {
+            doReplyWindowIfNecessary(traceId);
+        }
+    }
+
+    private void onResponseData(
+        DataFW data)
+    {
+        final long traceId = data.traceId();
+        final OctetsFW payload = data.payload();
+        final int length = payload.sizeof();
+        final int capacity = ringCapacity();
+        final MutableDirectBuffer ring = ring();
+
+        assert ringWritten + length <= replyCredit;
+
+        final int index = (int) (ringWritten % capacity);
+        final int contiguous = Math.min(length, capacity - index);
+        ring.putBytes(index, payload.buffer(), payload.offset(), contiguous);
+        if (contiguous < length)
+        {
+            ring.putBytes(0, payload.buffer(), payload.offset() + contiguous, length - contiguous);
+        }
+        ringWritten += length;
+
+        for (HttpCacheProxyCoalescedRequest request = subscribersHead; request != null; )
+        {
+            final HttpCacheProxyCoalescedRequest next = request.coalescedNext;
+            request.doResponseFlush(traceId);
+            request = next;
+        }
+
+        if (subscribersHead != null)
+        {
+            doReplyWindowIfNecessary(traceId);
+        }
+    }
+
+    private void onResponseEnd(
+        EndFW end)
+    {
+        final long traceId = end.traceId();
+        responseEnded = true;
+
+        for (HttpCacheProxyCoalescedRequest request = subscribersHead; request != null; )
+        {
+            final HttpCacheProxyCoalescedRequest next = request.coalescedNext;
+            request.doResponseFlush(traceId);
+            request = next;
+        }
+    }
+
+    private void onResponseAbort(
+        AbortFW abort)
+    {
+        final long traceId = abort.traceId();
+        responseEnded = true;
+
+        for (HttpCacheProxyCoalescedRequest request = subscribersHead; request != null; )
+        {
+            final HttpCacheProxyCoalescedRequest next = request.coalescedNext;
+            unlink(request);
+            request.doResponseAbort(traceId);
+            request = next;
+        }
+        cleanup();
+    }
+
+    private void doReplyWindowIfNecessary(
+        long traceId)
+    {
+        long minimum = ringWritten;
+        for (HttpCacheProxyCoalescedRequest request = subscribersHead; request != null; request = request.coalescedNext)
+        {
+            minimum = Math.min(minimum, request.progress());
+        }
+
+        final int credit = (int) (minimum + ringCapacity() - replyCredit);
+        if (credit > 0)
+        {
+            replyCredit += credit;
+            factory.writer.doWindow(initial, routeId, replyId, traceId, 0L, credit, 0);
+        }
+    }
+
+    private void doCancel(
+        long traceId)
+    {
+        if (!initialClosed)
+        {
+            initialClosed = true;
+            factory.writer.doAbort(initial, routeId, initialId, traceId);
+        }
+
+        if (!responseBegun)
+        {
+            factory.correlations.remove(replyId);
+        }
+
+        factory.writer.doReset(initial, routeId, replyId, traceId);
+    }
+
+    private void unlink(
+        HttpCacheProxyCoalescedRequest request)
+    {
+        final HttpCacheProxyCoalescedRequest previous = request.coalescedPrevious;
+        final HttpCacheProxyCoalescedRequest next = request.coalescedNext;
+        if (previous != null)
+        {
+            previous.coalescedNext = next;
+        }
+        else
+        {
+            subscribersHead = next;
+        }
+
+        if (next != null)
+        {
+            next.coalescedPrevious = previous;
+        }
+        else
+        {
+            subscribersTail = previous;
+        }
+        request.coalescedPrevious = null;
+        request.coalescedNext = null;
+    }
+
+    private void cleanup()
+    {
+        factory.coalescedGroups.remove(requestHash, this);
+        factory.router.clearThrottle(initialId);
+
+        if (ringSlot != NO_SLOT)
+        {
+            factory.headersPool.release(ringSlot);
+            ringSlot = NO_SLOT;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import static org.reaktivity.nukleus.http_cache.internal.stream.Signals.PREFER_WAIT_EXPIRED_SIGNAL;
+
+import java.util.Objects;
+
+import org.agrona.DirectBuffer;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCacheEntry;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.SignalFW;
+
+final class HttpProxyPreferWaitBatch
+{
+    private final HttpCacheProxyFactory factory;
+    private final MessageConsumer notifier;
+
+    private HttpProxyCacheableRequestGroup requestGroup;
+    private String ifNoneMatch;
+    private String prefer;
+    private long deadline;
+
+    private HttpCacheProxyCacheableRequest waitingHead;
+    private HttpCacheProxyCacheableRequest waitingTail;
+    private long expiredId;
+
+    HttpProxyPreferWaitBatch previous;
+    HttpProxyPreferWaitBatch next;
+
+    HttpProxyPreferWaitBatch(
+        HttpCacheProxyFactory factory)
+    {
+        this.factory = factory;
+        this.notifier = this::onNotifyMessage;
+    }
+
+    HttpProxyPreferWaitBatch init(
+        HttpProxyCacheableRequestGroup requestGroup,
+        String ifNoneMatch,
+        String prefer,
+        long deadline)
+    {
+        assert waitingHead == null;
+        this.requestGroup = requestGroup;
+        this.ifNoneMatch = ifNoneMatch;
+        this.prefer = prefer;
+        this.deadline = deadline;
+        return this;
+    }
+
+    void release()
+    {
+        assert waitingHead == null;
+        this.requestGroup = null;
+        this.ifNoneMatch = null;
+        this.prefer = null;
+        this.deadline = 0L;
+        this.expiredId = 0L;
+        this.previous = null;
+        this.next = null;
+    }
+
+    long deadline()
+    {
+        return deadline;
+    }
+
+    boolean matches(
+        String ifNoneMatch,
+        String prefer)
+    {
+        return Objects.equals(this.ifNoneMatch, ifNoneMatch) &&
+               Objects.equals(this.prefer, prefer);
+    }
+
+    boolean isEmpty()
+    {
+        return waitingHead == null;
+    }
+
+    void schedule(
+        long routeId,
+        long streamId)
+    {
+        expiredId = factory.scheduleTimerAt(deadline,
+                                            routeId,
+                                            streamId,
+                                            PREFER_WAIT_EXPIRED_SIGNAL,
+                                            notifier);
+    }
+
+    void cancel()
+    {
+        factory.cancelTimer(expiredId);
+    }
+
+    void link(
+        HttpCacheProxyCacheableRequest request)
+    {
+        assert request.waitBatch == null;
+        request.waitBatch = this;
+        request.waitPrevious = waitingTail;
+        request.waitNext = null;
+        if (waitingTail != null)
+        {
+            waitingTail.waitNext = request;
+        }
+        else
+        {
+            waitingHead = request;
+        }
+        waitingTail = request;
+    }
+
+    void unlink(
+        HttpCacheProxyCacheableRequest request)
+    {
+        assert request.waitBatch == this;
+        final HttpCacheProxyCacheableRequest previous = request.waitPrevious;
+        final HttpCacheProxyCacheableRequest next = request.waitNext;
+        if (previous != null)
+        {
+            previous.waitNext = next;
+        }
+        else
+        {
+            waitingHead = next;
+        }
+
+        if (next != null)
+        {
+            next.waitPrevious = previous;
+        }
+        else
+        {
+            waitingTail = previous;
+        }
+        request.waitPrevious = null;
+        request.waitNext = null;
+        request.waitBatch = null;
+    }
+
+    private void onNotifyMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case SignalFW.TYPE_ID:
+            final SignalFW signal = factory.signalRO.wrap(buffer, index, index + length);
+            onNotifySignal(signal);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void onNotifySignal(
+        SignalFW signal)
+    {
+        final long traceId = signal.traceId();
+        final int signalId = signal.signalId();
+
+        if (signalId == PREFER_WAIT_EXPIRED_SIGNAL)
+        {
+            onPreferWaitExpired(traceId);
+        }
+    }
+
+    private void onPreferWaitExpired(
+        long traceId)
+    {
+        requestGroup.onPreferWaitBatchExpired(this);
+
+        final DefaultCacheEntry cacheEntry = factory.defaultCache.lookup(requestGroup.requestHash());
+        final Array32FW<HttpHeaderFW> notModifiedHeaders = factory.defaultCache.notModifiedHeaders(ifNoneMatch, prefer);
+
+        while (waitingHead != null)
+        {
+            final HttpCacheProxyCacheableRequest request = waitingHead;
+            unlink(request);
+            request.doPreferWaitExpired(notModifiedHeaders, cacheEntry, traceId);
+        }
+
+        final HttpProxyCacheableRequestGroup requestGroup = this.requestGroup;
+        factory.releasePreferWaitBatch(this);
+        requestGroup.onResponseAbandoned(traceId);
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheRouteExFW;
+
+final class HttpProxyRouteOptions
+{
+    final int maximumUpstreamRequests;
+    final int hedgeDelay;
+    final int maximumObjectSize;
+    final int minimumTtl;
+    final int maximumTtl;
+
+    HttpProxyRouteOptions(
+        HttpCacheConfiguration config)
+    {
+        this.maximumUpstreamRequests = config.maximumUpstreamRequests();
+        this.hedgeDelay = config.hedgeDelay();
+        this.maximumObjectSize = config.maximumObjectSize();
+        this.minimumTtl = config.minimumTtl();
+        this.maximumTtl = config.maximumTtl();
+    }
+
+    HttpProxyRouteOptions(
+        HttpProxyRouteOptions defaults,
+        HttpCacheRouteExFW routeEx)
+    {
+        this.maximumUpstreamRequests = orDefault(routeEx.maximumUpstreamRequests(), defaults.maximumUpstreamRequests);
+        this.hedgeDelay = orDefault(routeEx.hedgeDelay(), defaults.hedgeDelay);
+        this.maximumObjectSize = orDefault(routeEx.maximumObjectSize(), defaults.maximumObjectSize);
+        this.minimumTtl = orDefault(routeEx.minimumTtl(), defaults.minimumTtl);
+        this.maximumTtl = orDefault(routeEx.maximumTtl(), defaults.maximumTtl);
+    }
+
+    private static int orDefault(
+        int value,
+        int defaultValue)
+    {
+        return value >= 0 ? value : defaultValue;
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
+
+final class HttpProxyUpstreamLimiter
+{
+    private final HttpCacheCounters counters;
+    private final int maximum;
+
+    private int active;
+    private Waiter waitingHead;
+    private Waiter waitingTail;
+
+    HttpProxyUpstreamLimiter(
+        HttpCacheCounters counters,
+        int maximum)
+    {
+        this.counters = counters;
+        this.maximum = maximum;
+    }
+
+    boolean tryAcquire()
+    {
+        final boolean acquired = active < maximum && waitingHead == null;
+        if (acquired)
+        {
+            active++;
+        }
+        return acquired;
+    }
+
+    void enqueue(
+        Waiter request)
+    {
+        assert !request.upstreamWaiting;
+        request.upstreamWaiting = true;
+        request.upstreamWaitingAt = System.currentTimeMillis();
+        request.upstreamPrevious = waitingTail;
+        request.upstreamNext = null;
+        if (waitingTail != null)
+        {
+            waitingTail.upstreamNext = request;
+        }
+        else
+        {
+            waitingHead = request;
+        }
+        waitingTail = request;
+
+        counters.upstreamRequestsQueued.getAsLong();
+        counters.upstreamQueueDepth.accept(1);
+    }
+
+    void dequeue(
+        Waiter request)
+    {
+        assert request.upstreamWaiting;
+        final Waiter previous = request.upstreamPrevious;
+        final Waiter next = request.upstreamNext;
+        if (previous != null)
+        {
+            previous.upstreamNext = next;
+        }
+        else
+        {
+            waitingHead = next;
+        }
+
+        if (next != null)
+        {
+            next.upstreamPrevious = previous;
+        }
+        else
+        {
+            waitingTail = previous;
+        }
+        request.upstreamPrevious = null;
+        request.upstreamNext = null;
+        request.upstreamWaiting = false;
+
+        counters.upstreamQueueDepth.accept(-1);
+        counters.upstreamQueueWait.accept(System.currentTimeMillis() - request.upstreamWaitingAt);
+    }
+
+    void release(
+        long traceId)
+    {
+        assert active > 0;
+        active--;
+
+        if (waitingHead != null && active < maximum)
+        {
+            final Waiter request = waitingHead;
+            dequeue(request);
+            active++;
+            request.onUpstreamAcquired(traceId);
+        }
+    }
+
+    abstract static class Waiter
+    {
+        private Waiter upstreamPrevious;
+        private Waiter upstreamNext;
+        private boolean upstreamWaiting;
+        private long upstreamWaitingAt;
+
+        final boolean isUpstreamWaiting()
+        {
+            return upstreamWaiting;
+        }
+
+        abstract void onUpstreamAcquired(
+            long traceId);
+    }
+}
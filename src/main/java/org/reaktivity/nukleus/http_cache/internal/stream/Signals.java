@@ -19,6 +19,9 @@ final class Signals
 {
     static final int PREFER_WAIT_EXPIRED_SIGNAL = 4;
     static final int GROUP_REQUEST_RETRY_SIGNAL = 7;
+    static final int GROUP_RESPONSE_FLUSH_SIGNAL = 8;
+    static final int TIMER_WHEEL_TICK_SIGNAL = 9;
+    static final int GROUP_REQUEST_HEDGE_SIGNAL = 10;
 
     private Signals()
     {
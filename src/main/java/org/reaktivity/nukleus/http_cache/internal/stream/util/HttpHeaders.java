@@ -37,11 +37,15 @@ public final class HttpHeaders
     public static final String ETAG = "etag";
     public static final String DATE = "date";
     public static final String LAST_MODIFIED = "last-modified";
+    public static final String EXPIRES = "expires";
     public static final String RETRY_AFTER = "retry-after";
     public static final String EMULATED_PROTOCOL_STACK = "x-protocol-stack";
     public static final String PREFERENCE_APPLIED = "preference-applied";
     public static final String ACCESS_CONTROL_EXPOSE_HEADERS = "access-control-expose-headers";
     public static final String LINK = "link";
+    public static final String RANGE = "range";
+    public static final String IF_RANGE = "if-range";
+    public static final String CONTENT_RANGE = "content-range";
 
     private HttpHeaders()
     {
@@ -16,7 +16,9 @@
 package org.reaktivity.nukleus.http_cache.internal.stream.util;
 
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.AUTHORITY;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.CONTENT_LENGTH;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.EMULATED_PROTOCOL_STACK;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.ETAG;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.IF_NONE_MATCH;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.RETRY_AFTER;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.STATUS;
@@ -64,6 +66,18 @@ public final class HttpHeadersUtil
         return RETRY_AFTER.equalsIgnoreCase(name);
     };
 
+    public static final Predicate<? super HttpHeaderFW> HAS_CONTENT_LENGTH = h ->
+    {
+        String name = h.name().asString();
+        return CONTENT_LENGTH.equalsIgnoreCase(name);
+    };
+
+    public static final Predicate<? super HttpHeaderFW> HAS_ETAG = h ->
+    {
+        String name = h.name().asString();
+        return ETAG.equalsIgnoreCase(name);
+    };
+
     public static String getRequestURL(
         Array32FW<HttpHeaderFW> headers)
     {
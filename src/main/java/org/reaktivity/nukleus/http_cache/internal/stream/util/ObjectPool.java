@@ -0,0 +1,56 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+public final class ObjectPool<T>
+{
+    private final Supplier<T> supplier;
+    private final Deque<T> available;
+    private final int capacity;
+
+    public ObjectPool(
+        Supplier<T> supplier,
+        int capacity)
+    {
+        this.supplier = supplier;
+        this.available = new ArrayDeque<>();
+        this.capacity = capacity;
+    }
+
+    public T acquire()
+    {
+        final T object = available.pollFirst();
+        return object != null ? object : supplier.get();
+    }
+
+    public void release(
+        T object)
+    {
+        if (available.size() < capacity)
+        {
+            available.addFirst(object);
+        }
+    }
+
+    public int available()
+    {
+        return available.size();
+    }
+}
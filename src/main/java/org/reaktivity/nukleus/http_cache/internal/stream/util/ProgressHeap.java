@@ -0,0 +1,151 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream.util;
+
+import java.util.Arrays;
+
+/**
+ * Min-ordered heap of members keyed by a monotonically increasing progress.
+ * Members record their own heap position so removal and re-ordering after
+ * progress are O(log n), and the least progressed member is O(1).
+ */
+public final class ProgressHeap<T extends ProgressHeap.Member>
+{
+    public static final int NO_INDEX = -1;
+
+    public interface Member
+    {
+        int progress();
+
+        int heapIndex();
+
+        void heapIndex(int heapIndex);
+    }
+
+    private Member[] members;
+    private int size;
+
+    public ProgressHeap(
+        int initialCapacity)
+    {
+        this.members = new Member[Math.max(initialCapacity, 1)];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T least()
+    {
+        return size != 0 ? (T) members[0] : null;
+    }
+
+    public void add(
+        T member)
+    {
+        assert member.heapIndex() == NO_INDEX;
+        if (size == members.length)
+        {
+            members = Arrays.copyOf(members, size << 1);
+        }
+        members[size] = member;
+        member.heapIndex(size);
+        siftUp(size++);
+    }
+
+    public void remove(
+        T member)
+    {
+        final int index = member.heapIndex();
+        assert index != NO_INDEX && members[index] == member;
+
+        final Member last = members[--size];
+        members[size] = null;
+        member.heapIndex(NO_INDEX);
+
+        if (index != size)
+        {
+            members[index] = last;
+            last.heapIndex(index);
+            siftDown(index);
+            siftUp(last.heapIndex());
+        }
+    }
+
+    public void progressed(
+        T member)
+    {
+        final int index = member.heapIndex();
+        assert index != NO_INDEX && members[index] == member;
+        siftDown(index);
+    }
+
+    private void siftUp(
+        int index)
+    {
+        final Member member = members[index];
+        final int progress = member.progress();
+        while (index > 0)
+        {
+            final int parentIndex = (index - 1) >> 1;
+            final Member parent = members[parentIndex];
+            if (parent.progress() <= progress)
+            {
+                break;
+            }
+            members[index] = parent;
+            parent.heapIndex(index);
+            index = parentIndex;
+        }
+        members[index] = member;
+        member.heapIndex(index);
+    }
+
+    private void siftDown(
+        int index)
+    {
+        final Member member = members[index];
+        final int progress = member.progress();
+        final int half = size >> 1;
+        while (index < half)
+        {
+            int childIndex = (index << 1) + 1;
+            Member child = members[childIndex];
+            final int rightIndex = childIndex + 1;
+            if (rightIndex < size && members[rightIndex].progress() < child.progress())
+            {
+                childIndex = rightIndex;
+                child = members[childIndex];
+            }
+            if (progress <= child.progress())
+            {
+                break;
+            }
+            members[index] = child;
+            child.heapIndex(index);
+            index = childIndex;
+        }
+        members[index] = member;
+        member.heapIndex(index);
+    }
+}
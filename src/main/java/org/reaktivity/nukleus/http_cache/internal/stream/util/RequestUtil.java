@@ -17,6 +17,8 @@ package org.reaktivity.nukleus.http_cache.internal.stream.util;
 
 public final class RequestUtil
 {
+    public static final short SHARED_AUTHORIZATION_SCOPE = -1;
+
     public static short authorizationScope(
         long authorization)
     {
@@ -24,10 +26,11 @@ public final class RequestUtil
     }
 
     public static int requestHash(
+        int partitionId,
         short authorizationScope,
         int requestURLHash)
     {
-        return 31 * authorizationScope + requestURLHash;
+        return 31 * (31 * partitionId + authorizationScope) + requestURLHash;
     }
 
     private RequestUtil()
@@ -0,0 +1,286 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream.util;
+
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.agrona.BitUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.SignalFW;
+
+public final class TimerWheel
+{
+    public static final long NO_TIMER = -1L;
+
+    private static final int NO_INDEX = -1;
+
+    private final SignalFW.Builder signalRW = new SignalFW.Builder();
+    private final MutableDirectBuffer signalBuffer = new UnsafeBuffer(new byte[128]);
+
+    private final LongSupplier clock;
+    private final long tickMillis;
+    private final int mask;
+    private final int expiring;
+    private final int[] heads;
+
+    private long[] deadlines;
+    private long[] routeIds;
+    private long[] streamIds;
+    private int[] signalIds;
+    private MessageConsumer[] handlers;
+    private int[] lists;
+    private int[] nexts;
+    private int[] previouses;
+    private int[] generations;
+
+    private int free;
+    private int size;
+    private long currentTick;
+
+    public TimerWheel(
+        LongSupplier clock,
+        long tickMillis,
+        int ticksPerWheel,
+        int initialCapacity)
+    {
+        final int wheelSize = BitUtil.findNextPositivePowerOfTwo(ticksPerWheel);
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.expiring = wheelSize;
+        this.heads = new int[wheelSize + 1];
+        fill(heads, NO_INDEX);
+
+        this.deadlines = new long[0];
+        this.routeIds = new long[0];
+        this.streamIds = new long[0];
+        this.signalIds = new int[0];
+        this.handlers = new MessageConsumer[0];
+        this.lists = new int[0];
+        this.nexts = new int[0];
+        this.previouses = new int[0];
+        this.generations = new int[0];
+        this.free = NO_INDEX;
+        grow(Math.max(initialCapacity, 1));
+
+        this.currentTick = clock.getAsLong() / tickMillis;
+    }
+
+    public long tickMillis()
+    {
+        return tickMillis;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public long schedule(
+        long delay,
+        TimeUnit unit,
+        long routeId,
+        long streamId,
+        int signalId,
+        MessageConsumer handler)
+    {
+        return scheduleAt(deadlineTick(delay, unit), routeId, streamId, signalId, handler);
+    }
+
+    public long scheduleAt(
+        long deadlineTick,
+        long routeId,
+        long streamId,
+        int signalId,
+        MessageConsumer handler)
+    {
+        assert deadlineTick > currentTick;
+
+        if (free == NO_INDEX)
+        {
+            grow(deadlines.length << 1);
+        }
+
+        final int index = free;
+        free = nexts[index];
+
+        deadlines[index] = deadlineTick;
+        routeIds[index] = routeId;
+        streamIds[index] = streamId;
+        signalIds[index] = signalId;
+        handlers[index] = handler;
+        link(index, (int) (deadlineTick & mask));
+        size++;
+
+        return ((long) generations[index] << 32) | index;
+    }
+
+    public long deadlineTick(
+        long delay,
+        TimeUnit unit)
+    {
+        final long deadline = clock.getAsLong() + unit.toMillis(delay);
+        return Math.max(currentTick + 1, (deadline + tickMillis - 1) / tickMillis);
+    }
+
+    public boolean cancel(
+        long timerId)
+    {
+        final int index = (int) timerId;
+        final boolean cancelled = timerId != NO_TIMER &&
+                                  index >= 0 &&
+                                  index < generations.length &&
+                                  generations[index] == (int) (timerId >>> 32) &&
+                                  lists[index] != NO_INDEX;
+
+        if (cancelled)
+        {
+            unlink(index);
+            release(index);
+        }
+
+        return cancelled;
+    }
+
+    public int expire(
+        long traceId)
+    {
+        final long nowTick = clock.getAsLong() / tickMillis;
+        final long ticks = Math.min(nowTick - currentTick, mask + 1);
+
+        for (long tick = 1; tick <= ticks; tick++)
+        {
+            final int bucket = (int) ((currentTick + tick) & mask);
+            for (int index = heads[bucket]; index != NO_INDEX; )
+            {
+                final int next = nexts[index];
+                if (deadlines[index] <= nowTick)
+                {
+                    unlink(index);
+                    link(index, expiring);
+                }
+                index = next;
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+
+        int expired = 0;
+        while (heads[expiring] != NO_INDEX)
+        {
+            final int index = heads[expiring];
+            final long routeId = routeIds[index];
+            final long streamId = streamIds[index];
+            final int signalId = signalIds[index];
+            final MessageConsumer handler = handlers[index];
+
+            unlink(index);
+            release(index);
+
+            final SignalFW signal = signalRW.wrap(signalBuffer, 0, signalBuffer.capacity())
+                                            .routeId(routeId)
+                                            .streamId(streamId)
+                                            .traceId(traceId)
+                                            .cancelId(0L)
+                                            .signalId(signalId)
+                                            .build();
+
+            handler.accept(signal.typeId(), signal.buffer(), signal.offset(), signal.sizeof());
+            expired++;
+        }
+
+        return expired;
+    }
+
+    private void link(
+        int index,
+        int list)
+    {
+        final int head = heads[list];
+        lists[index] = list;
+        previouses[index] = NO_INDEX;
+        nexts[index] = head;
+        if (head != NO_INDEX)
+        {
+            previouses[head] = index;
+        }
+        heads[list] = index;
+    }
+
+    private void unlink(
+        int index)
+    {
+        final int previous = previouses[index];
+        final int next = nexts[index];
+        if (previous != NO_INDEX)
+        {
+            nexts[previous] = next;
+        }
+        else
+        {
+            heads[lists[index]] = next;
+        }
+
+        if (next != NO_INDEX)
+        {
+            previouses[next] = previous;
+        }
+        lists[index] = NO_INDEX;
+    }
+
+    private void release(
+        int index)
+    {
+        handlers[index] = null;
+        generations[index]++;
+        nexts[index] = free;
+        free = index;
+        size--;
+    }
+
+    private void grow(
+        int capacity)
+    {
+        final int oldCapacity = deadlines.length;
+
+        deadlines = copyOf(deadlines, capacity);
+        routeIds = copyOf(routeIds, capacity);
+        streamIds = copyOf(streamIds, capacity);
+        signalIds = copyOf(signalIds, capacity);
+        handlers = copyOf(handlers, capacity);
+        lists = copyOf(lists, capacity);
+        nexts = copyOf(nexts, capacity);
+        previouses = copyOf(previouses, capacity);
+        generations = copyOf(generations, capacity);
+
+        for (int index = capacity - 1; index >= oldCapacity; index--)
+        {
+            lists[index] = NO_INDEX;
+            nexts[index] = free;
+            free = index;
+        }
+    }
+}
@@ -16,25 +16,42 @@
 package org.reaktivity.nukleus.http_cache.internal.stream.util;
 
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils.RESPONSE_IS_STALE;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpStatus.PARTIAL_CONTENT_206;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpStatus.RANGE_NOT_SATISFIABLE_416;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.HttpStatus.SERVICE_UNAVAILABLE_503;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.PreferHeader.getPreferWait;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.PreferHeader.isPreferWait;
 import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.PreferHeader.isPreferenceApplied;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.AUTHORIZATION;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.CACHE_CONTROL;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.CONTENT_LENGTH;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.CONTENT_RANGE;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.ETAG;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.IF_NONE_MATCH;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.LAST_MODIFIED;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.PREFER;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.PREFERENCE_APPLIED;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.RETRY_AFTER;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.STATUS;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeaders.WARNING;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.HAS_CACHE_CONTROL;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.HAS_CONTENT_LENGTH;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.HAS_EMULATED_PROTOCOL_STACK;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.HAS_ETAG;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.HAS_IF_NONE_MATCH;
 import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
 
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.ToIntFunction;
 
 import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.nukleus.buffer.BufferPool;
 import org.reaktivity.nukleus.function.MessageConsumer;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheControl;
 import org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheDirectives;
@@ -61,6 +78,34 @@ import org.reaktivity.nukleus.route.RouteManager;
 
 public class Writer
 {
+    private static final String BYTES_UNIT = "bytes ";
+    private static final int RANGE_VALUE_CAPACITY = 64;
+    private static final String PREFER_WAIT_PREFIX = "wait=";
+    private static final String PRIVATE_DIRECTIVE = "private, ";
+    private static final String STALE_WHILE_REVALIDATE_PREFIX = "stale-while-revalidate=";
+    private static final String MAX_AGE_0_SUFFIX = ", " + CacheDirectives.MAX_AGE_0;
+    private static final String8FW HEADER_NAME_AUTHORIZATION = new String8FW(AUTHORIZATION);
+    private static final String8FW HEADER_NAME_CACHE_CONTROL = new String8FW(CACHE_CONTROL);
+    private static final String8FW HEADER_NAME_PREFER = new String8FW(PREFER);
+    private static final String8FW HEADER_NAME_PREFERENCE_APPLIED = new String8FW(PREFERENCE_APPLIED);
+    private static final String8FW HEADER_NAME_ACCESS_CONTROL_EXPOSE_HEADERS = new String8FW(ACCESS_CONTROL_EXPOSE_HEADERS);
+    private static final String8FW HEADER_NAME_WARNING = new String8FW(WARNING);
+    private static final String8FW HEADER_NAME_STATUS = new String8FW(STATUS);
+    private static final String8FW HEADER_NAME_RETRY_AFTER = new String8FW(RETRY_AFTER);
+    private static final String16FW HEADER_VALUE_MAX_AGE_0 = new String16FW(CacheDirectives.MAX_AGE_0);
+    private static final String16FW HEADER_VALUE_EXPOSE_PREFERENCE_APPLIED =
+        new String16FW(String.format("%s, %s", PREFERENCE_APPLIED, ETAG));
+    private static final String16FW HEADER_VALUE_RESPONSE_IS_STALE = new String16FW(RESPONSE_IS_STALE);
+    private static final String16FW HEADER_VALUE_STATUS_503 = new String16FW(SERVICE_UNAVAILABLE_503);
+    private static final Consumer<HttpHeaderFW.Builder> MAX_AGE_0_CACHE_CONTROL_HEADER =
+        h -> h.name(HEADER_NAME_CACHE_CONTROL).value(HEADER_VALUE_MAX_AGE_0);
+    private static final Consumer<HttpHeaderFW.Builder> EXPOSE_PREFERENCE_APPLIED_HEADER =
+        h -> h.name(HEADER_NAME_ACCESS_CONTROL_EXPOSE_HEADERS).value(HEADER_VALUE_EXPOSE_PREFERENCE_APPLIED);
+    private static final Consumer<HttpHeaderFW.Builder> STALE_WARNING_HEADER =
+        h -> h.name(HEADER_NAME_WARNING).value(HEADER_VALUE_RESPONSE_IS_STALE);
+    private static final Consumer<HttpHeaderFW.Builder> SERVICE_UNAVAILABLE_STATUS_HEADER =
+        h -> h.name(HEADER_NAME_STATUS).value(HEADER_VALUE_STATUS_503);
+
     private final BeginFW.Builder beginRW = new BeginFW.Builder();
     private final DataFW.Builder dataRW = new DataFW.Builder();
     private final EndFW.Builder endRW = new EndFW.Builder();
@@ -72,10 +117,65 @@ public class Writer
     private final SignalFW.Builder signalRW = new SignalFW.Builder();
     private final CacheControl cacheControlParser = new CacheControl();
 
+    private final Flyweight.Builder.Visitor visitHttpBeginEx = this::visitHttpBeginEx;
+    private final Flyweight.Builder.Visitor visitHttpEndEx = this::visitHttpEndEx;
+    private final Consumer<OctetsFW.Builder> setHttpBeginEx = e -> e.set(visitHttpBeginEx);
+    private final Consumer<OctetsFW.Builder> setHttpEndEx = e -> e.set(visitHttpEndEx);
+    private final Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> copyHeaders = this::copyHeaders;
+    private final Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> updateResponseHeaders = this::updateResponseHeaders;
+    private final Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> updatePushPromiseHeaders =
+        this::updatePushPromiseHeaders;
+    private final Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> updateTrailer = this::updateTrailer;
+    private final Consumer<HttpHeaderFW.Builder> etagHeader = this::etagHeader;
+    private final Consumer<HttpHeaderFW.Builder> ifNoneMatchHeader = this::ifNoneMatchHeader;
+    private final Consumer<HttpHeaderFW.Builder> copyHeader = this::copyHeader;
+    private final Consumer<HttpHeaderFW.Builder> currentNameHeader = this::currentNameHeader;
+    private final Consumer<HttpHeaderFW.Builder> namedHeader = this::namedHeader;
+    private final Consumer<HttpHeaderFW> updateResponseHeader = this::updateResponseHeader;
+    private final Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> updateRequestHeaders = this::updateRequestHeaders;
+    private final Consumer<HttpHeaderFW> updateRequestHeader = this::updateRequestHeader;
+    private final Consumer<HttpHeaderFW.Builder> authorizationHeaderItem = this::authorizationHeaderItem;
+    private final Consumer<HttpHeaderFW> updatePushPromiseHeader = this::updatePushPromiseHeader;
+    private final BiConsumer<String, String> appendCacheControlDirective = this::appendCacheControlDirective;
+    private final Consumer<OctetsFW.Builder> gatherPayload = this::gatherPayload;
+    private final Consumer<HttpHeaderFW.Builder> partialContentStatusHeader = this::partialContentStatusHeader;
+    private final Consumer<HttpHeaderFW.Builder> rangeContentLengthHeader = this::rangeContentLengthHeader;
+    private final Consumer<HttpHeaderFW.Builder> contentRangeHeader = this::contentRangeHeader;
+    private final Consumer<HttpHeaderFW.Builder> notSatisfiableStatusHeader = this::notSatisfiableStatusHeader;
+    private final Consumer<HttpHeaderFW.Builder> emptyContentLengthHeader = this::emptyContentLengthHeader;
+    private final Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> notSatisfiableHeaders = this::notSatisfiableHeaders;
+    private final Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> retryAfterHeaders = this::retryAfterHeaders;
+    private final MutableDirectBuffer contentRangeBuffer = new UnsafeBuffer(new byte[RANGE_VALUE_CAPACITY]);
+    private final MutableDirectBuffer rangeLengthBuffer = new UnsafeBuffer(new byte[RANGE_VALUE_CAPACITY]);
+    private final MutableDirectBuffer headerValueBuffer = new ExpandableArrayBuffer(RANGE_VALUE_CAPACITY);
+
     private final RouteManager router;
     private final MutableDirectBuffer writeBuffer;
     private final int httpTypeId;
 
+    private Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> headersMutator;
+    private Array32FW<HttpHeaderFW> headers;
+    private Array32FW<HttpHeaderFW> requestHeaders;
+    private Builder<HttpHeaderFW.Builder, HttpHeaderFW> headersBuilder;
+    private HttpHeaderFW header;
+    private String8FW headerName;
+    private String authorizationHeader;
+    private boolean omitPrefer;
+    private int headerValueLength;
+    private boolean hasPreferWait;
+    private boolean isEmulatedProtocolStack;
+    private int staleWhileRevalidate;
+    private String etag;
+    private boolean isStale;
+    private int contentRangeLength;
+    private int rangeLengthLength;
+    private int freshnessExtension;
+    private BufferPool payloadPool;
+    private IntArrayList payloadSlots;
+    private int payloadFirstSlot;
+    private int payloadIndex;
+    private int payloadLength;
+
     public Writer(
         RouteManager router,
         ToIntFunction<String> supplyTypeId,
@@ -94,18 +194,51 @@ public class Writer
         long authorization,
         Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> mutator)
     {
+        headersMutator = mutator;
+
         final BeginFW begin = beginRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .routeId(routeId)
                 .streamId(streamId)
                 .traceId(traceId)
                 .authorization(authorization)
                 .affinity(0L)
-                .extension(e -> e.set(visitHttpBeginEx(mutator)))
+                .extension(setHttpBeginEx)
                 .build();
 
         receiver.accept(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
     }
 
+    public void doHttpRequest(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long traceId,
+        long authorization,
+        Array32FW<HttpHeaderFW> headers)
+    {
+        this.headers = headers;
+        doHttpRequest(receiver, routeId, streamId, traceId, authorization, copyHeaders);
+    }
+
+    public void doHttpRequestWithUpdatedHeaders(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long traceId,
+        long authorization,
+        Array32FW<HttpHeaderFW> headers,
+        String authorizationHeader,
+        String ifNoneMatch,
+        boolean omitPrefer)
+    {
+        this.headers = headers;
+        this.authorizationHeader = authorizationHeader;
+        this.etag = ifNoneMatch;
+        this.omitPrefer = omitPrefer;
+        doHttpRequest(receiver, routeId, streamId, traceId, authorization, updateRequestHeaders);
+        this.authorizationHeader = null;
+    }
+
     public void doHttpResponse(
         MessageConsumer receiver,
         long routeId,
@@ -113,17 +246,30 @@ public class Writer
         long traceId,
         Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> mutator)
     {
+        headersMutator = mutator;
+
         final BeginFW begin = beginRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .routeId(routeId)
                 .streamId(streamId)
                 .traceId(traceId)
                 .affinity(0L)
-                .extension(e -> e.set(visitHttpBeginEx(mutator)))
+                .extension(setHttpBeginEx)
                 .build();
 
         receiver.accept(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
     }
 
+    public void doHttpResponse(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long traceId,
+        Array32FW<HttpHeaderFW> headers)
+    {
+        this.headers = headers;
+        doHttpResponse(receiver, routeId, streamId, traceId, copyHeaders);
+    }
+
     public void doHttpResponseWithUpdatedHeaders(
         MessageConsumer receiver,
         long routeId,
@@ -134,116 +280,321 @@ public class Writer
         boolean isStale,
         long traceId)
     {
-        Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> mutator =
-            builder -> updateResponseHeaders(builder,
-                                             responseHeaders,
-                                             requestHeaders,
-                                             etag,
-                                             isStale);
+        this.contentRangeLength = 0;
+        this.rangeLengthLength = 0;
+        doHttpResponseWithUpdatedHeaders(receiver, routeId, streamId, responseHeaders, requestHeaders, etag, isStale, traceId,
+                                         updateResponseHeaders);
+    }
 
-        final BeginFW begin = beginRW.wrap(writeBuffer, 0, writeBuffer.capacity())
-                                     .routeId(routeId)
-                                     .streamId(streamId)
-                                     .traceId(traceId)
-                                     .affinity(0L)
-                                     .extension(e -> e.set(visitHttpBeginEx(mutator)))
-                                     .build();
-        receiver.accept(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+    public void doHttpRangeResponseWithUpdatedHeaders(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        Array32FW<HttpHeaderFW> responseHeaders,
+        Array32FW<HttpHeaderFW> requestHeaders,
+        String etag,
+        boolean isStale,
+        long firstBytePos,
+        long lastBytePos,
+        long size,
+        long traceId)
+    {
+        int length = contentRangeBuffer.putStringWithoutLengthAscii(0, BYTES_UNIT);
+        length += contentRangeBuffer.putLongAscii(length, firstBytePos);
+        contentRangeBuffer.putByte(length++, (byte) '-');
+        length += contentRangeBuffer.putLongAscii(length, lastBytePos);
+        contentRangeBuffer.putByte(length++, (byte) '/');
+        length += contentRangeBuffer.putLongAscii(length, size);
+        this.contentRangeLength = length;
+        this.rangeLengthLength = rangeLengthBuffer.putLongAscii(0, lastBytePos - firstBytePos + 1);
+
+        doHttpResponseWithUpdatedHeaders(receiver, routeId, streamId, responseHeaders, requestHeaders, etag, isStale, traceId,
+                                         updateResponseHeaders);
     }
 
-    private void updateResponseHeaders(
-        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder,
+    public void doHttpResponseNotSatisfiable(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long size,
+        long traceId)
+    {
+        int length = contentRangeBuffer.putStringWithoutLengthAscii(0, BYTES_UNIT);
+        contentRangeBuffer.putByte(length++, (byte) '*');
+        contentRangeBuffer.putByte(length++, (byte) '/');
+        length += contentRangeBuffer.putLongAscii(length, size);
+        this.contentRangeLength = length;
+
+        doHttpResponse(receiver, routeId, streamId, traceId, notSatisfiableHeaders);
+    }
+
+    public void doHttpResponseRetryAfter(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long retryAfter,
+        long traceId)
+    {
+        this.headerName = HEADER_NAME_RETRY_AFTER;
+        this.headerValueLength = headerValueBuffer.putLongAscii(0, retryAfter);
+
+        doHttpResponse(receiver, routeId, streamId, traceId, retryAfterHeaders);
+    }
+
+    private void doHttpResponseWithUpdatedHeaders(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
         Array32FW<HttpHeaderFW> responseHeaders,
         Array32FW<HttpHeaderFW> requestHeaders,
         String etag,
-        boolean isStale)
+        boolean isStale,
+        long traceId,
+        Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> mutator)
+    {
+        this.headers = responseHeaders;
+        this.requestHeaders = requestHeaders;
+        this.etag = etag;
+        this.isStale = isStale;
+
+        doHttpResponse(receiver, routeId, streamId, traceId, mutator);
+    }
+
+    private void notSatisfiableHeaders(
+        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder)
+    {
+        builder.item(notSatisfiableStatusHeader)
+               .item(contentRangeHeader)
+               .item(emptyContentLengthHeader);
+    }
+
+    private void retryAfterHeaders(
+        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder)
+    {
+        builder.item(SERVICE_UNAVAILABLE_STATUS_HEADER)
+               .item(namedHeader);
+    }
+
+    private void notSatisfiableStatusHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(STATUS).value(RANGE_NOT_SATISFIABLE_416);
+    }
+
+    private void emptyContentLengthHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(CONTENT_LENGTH).value("0");
+    }
+
+    private void partialContentStatusHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(STATUS).value(PARTIAL_CONTENT_206);
+    }
+
+    private void rangeContentLengthHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(CONTENT_LENGTH).value(rangeLengthBuffer, 0, rangeLengthLength);
+    }
+
+    private void contentRangeHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(CONTENT_RANGE).value(contentRangeBuffer, 0, contentRangeLength);
+    }
+
+    private void copyHeaders(
+        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder)
+    {
+        final DirectBuffer items = headers.items();
+        builder.items(items, 0, items.capacity(), headers.fieldCount(), headers.maxLength());
+    }
+
+    private void updateRequestHeaders(
+        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder)
+    {
+        this.headersBuilder = builder;
+        headers.forEach(updateRequestHeader);
+
+        if (authorizationHeader != null)
+        {
+            builder.item(authorizationHeaderItem);
+        }
+
+        if (etag != null)
+        {
+            builder.item(ifNoneMatchHeader);
+        }
+
+        this.headersBuilder = null;
+        this.header = null;
+    }
+
+    private void updateRequestHeader(
+        HttpHeaderFW header)
+    {
+        final String name = header.name().asString();
+
+        if (!(authorizationHeader != null && AUTHORIZATION.equals(name)) &&
+            !(omitPrefer && PREFER.equals(name)) &&
+            !IF_NONE_MATCH.equals(name))
+        {
+            this.header = header;
+            headersBuilder.item(copyHeader);
+        }
+    }
+
+    private void authorizationHeaderItem(
+        HttpHeaderFW.Builder builder)
+    {
+        builder.name(HEADER_NAME_AUTHORIZATION).value(authorizationHeader);
+    }
+
+    private void updateResponseHeaders(
+        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder)
     {
-        final int staleWhileRevalidate = SurrogateControl.getSurrogateFreshnessExtension(responseHeaders);
+        final Array32FW<HttpHeaderFW> responseHeaders = headers;
+        final Array32FW<HttpHeaderFW> requestHeaders = this.requestHeaders;
         final boolean hasPreferWait = isPreferWait(requestHeaders);
         final boolean isEmulatedProtocolStack = requestHeaders.anyMatch(HAS_EMULATED_PROTOCOL_STACK);
-        responseHeaders.forEach(h ->
-        {
-            final String8FW name = h.name();
-            final String16FW value = h.value();
-            if (!RETRY_AFTER.equals(name.asString()) &&
-                !CACHE_CONTROL.equals(name.asString()))
-            {
-                builder.item(header -> header.name(name).value(value));
-            }
 
-            updateEmulatedResponseHeaders(builder, h, staleWhileRevalidate, hasPreferWait, isEmulatedProtocolStack);
-        });
+        this.headersBuilder = builder;
+        this.hasPreferWait = hasPreferWait;
+        this.isEmulatedProtocolStack = isEmulatedProtocolStack;
+        this.staleWhileRevalidate = isEmulatedProtocolStack ?
+            SurrogateControl.getSurrogateFreshnessExtension(responseHeaders) : 0;
+        responseHeaders.forEach(updateResponseHeader);
 
-        if (!responseHeaders.anyMatch(h -> ETAG.equals(h.name().asString())) && etag != null)
+        if (etag != null && !responseHeaders.anyMatch(HAS_ETAG))
         {
-            builder.item(header -> header.name(ETAG).value(etag));
+            builder.item(etagHeader);
         }
 
-        if (isPreferWait(requestHeaders) && !isPreferenceApplied(responseHeaders))
+        if (hasPreferWait && !isPreferenceApplied(responseHeaders))
         {
-            builder.item(header -> header.name(PREFERENCE_APPLIED)
-                                         .value("wait=" + getPreferWait(requestHeaders)));
+            headerName = HEADER_NAME_PREFERENCE_APPLIED;
+            headerValueLength = headerValueBuffer.putStringWithoutLengthAscii(0, PREFER_WAIT_PREFIX);
+            headerValueLength += headerValueBuffer.putIntAscii(headerValueLength, getPreferWait(requestHeaders));
+            builder.item(namedHeader);
         }
 
-        if (isPreferWait(requestHeaders))
+        if (hasPreferWait)
         {
-            builder.item(header -> header.name(ACCESS_CONTROL_EXPOSE_HEADERS)
-                                         .value(String.format("%s, %s", PREFERENCE_APPLIED, ETAG)));
+            builder.item(EXPOSE_PREFERENCE_APPLIED_HEADER);
         }
 
-        if (!responseHeaders.anyMatch(HAS_CACHE_CONTROL) && isEmulatedProtocolStack)
+        if (isEmulatedProtocolStack && !responseHeaders.anyMatch(HAS_CACHE_CONTROL))
         {
-            final String value = hasPreferWait
-                ? "private, stale-while-revalidate=" + staleWhileRevalidate
-                : "stale-while-revalidate=" + staleWhileRevalidate;
-            builder.item(header -> header.name("cache-control").value(value));
+            headerName = HEADER_NAME_CACHE_CONTROL;
+            headerValueLength = hasPreferWait ? headerValueBuffer.putStringWithoutLengthAscii(0, PRIVATE_DIRECTIVE) : 0;
+            headerValueLength += headerValueBuffer.putStringWithoutLengthAscii(headerValueLength, STALE_WHILE_REVALIDATE_PREFIX);
+            headerValueLength += headerValueBuffer.putIntAscii(headerValueLength, staleWhileRevalidate);
+            builder.item(namedHeader);
         }
 
         if (isStale)
         {
-            builder.item(header -> header.name(WARNING).value(RESPONSE_IS_STALE));
+            builder.item(STALE_WARNING_HEADER);
+        }
+
+        if (contentRangeLength != 0)
+        {
+            if (!responseHeaders.anyMatch(HAS_CONTENT_LENGTH))
+            {
+                builder.item(rangeContentLengthHeader);
+            }
+            builder.item(contentRangeHeader);
         }
+
+        this.headersBuilder = null;
+        this.header = null;
     }
 
-    private void updateEmulatedResponseHeaders(
-        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder,
-        HttpHeaderFW responseHeader,
-        int staleWhileRevalidate,
-        boolean hasPreferWait,
-        boolean isEmulatedProtocolStack)
+    private void updateResponseHeader(
+        HttpHeaderFW header)
     {
-        final String8FW nameFW = responseHeader.name();
-        final String name = nameFW.asString();
-        final String16FW valueFW = responseHeader.value();
-        final String value = valueFW.asString();
+        final Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder = headersBuilder;
+        final boolean ranged = contentRangeLength != 0;
+        final String name = header.name().asString();
 
-        if (HttpHeaders.CACHE_CONTROL.equals(name))
+        this.header = header;
+        if (ranged && STATUS.equals(name))
+        {
+            builder.item(partialContentStatusHeader);
+        }
+        else if (ranged && CONTENT_LENGTH.equals(name))
+        {
+            builder.item(rangeContentLengthHeader);
+        }
+        else if (CACHE_CONTROL.equals(name))
         {
             if (isEmulatedProtocolStack)
             {
-                cacheControlParser.parse(value);
-                cacheControlParser.getValues().put("stale-while-revalidate", "" + staleWhileRevalidate);
-                if (hasPreferWait && !(cacheControlParser.contains("private") || cacheControlParser.contains("public")))
-                {
-                    cacheControlParser.getValues().put("private", null);
-                }
-                StringBuilder cacheControlDirectives = new StringBuilder();
-                cacheControlParser.getValues().forEach((k, v) ->
-                {
-                    cacheControlDirectives.append(cacheControlDirectives.length() > 0 ? ", " : "");
-                    cacheControlDirectives.append(k);
-                    if (v != null)
-                    {
-                        cacheControlDirectives.append('=').append(v);
-                    }
-                });
-                builder.item(header -> header.name(nameFW).value(cacheControlDirectives.toString()));
+                updateEmulatedCacheControl(builder, header.value().asString());
             }
             else
             {
-                builder.item(header -> header.name(nameFW).value(valueFW));
+                builder.item(copyHeader);
             }
         }
+        else if (!RETRY_AFTER.equals(name))
+        {
+            builder.item(copyHeader);
+        }
+    }
+
+    private void updateEmulatedCacheControl(
+        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder,
+        String value)
+    {
+        cacheControlParser.parse(value);
+        cacheControlParser.getValues().put("stale-while-revalidate", Integer.toString(staleWhileRevalidate));
+        if (hasPreferWait && !(cacheControlParser.contains("private") || cacheControlParser.contains("public")))
+        {
+            cacheControlParser.getValues().put("private", null);
+        }
+
+        headerValueLength = 0;
+        cacheControlParser.getValues().forEach(appendCacheControlDirective);
+        builder.item(currentNameHeader);
+    }
+
+    private void appendCacheControlDirective(
+        String directive,
+        String value)
+    {
+        int length = headerValueLength;
+        if (length > 0)
+        {
+            length += headerValueBuffer.putStringWithoutLengthAscii(length, ", ");
+        }
+        length += headerValueBuffer.putStringWithoutLengthAscii(length, directive);
+        if (value != null)
+        {
+            headerValueBuffer.putByte(length++, (byte) '=');
+            length += headerValueBuffer.putStringWithoutLengthAscii(length, value);
+        }
+        headerValueLength = length;
+    }
+
+    private void copyHeader(
+        HttpHeaderFW.Builder builder)
+    {
+        builder.name(header.name()).value(header.value());
+    }
+
+    private void currentNameHeader(
+        HttpHeaderFW.Builder builder)
+    {
+        builder.name(header.name()).value(headerValueBuffer, 0, headerValueLength);
+    }
+
+    private void namedHeader(
+        HttpHeaderFW.Builder builder)
+    {
+        builder.name(headerName).value(headerValueBuffer, 0, headerValueLength);
     }
 
     public void doHttpData(
@@ -264,7 +615,7 @@ public class Writer
                 .traceId(traceId)
                 .budgetId(budgetId)
                 .reserved(reserved)
-                .payload(p -> p.set(payload, offset, length))
+                .payload(payload, offset, length)
                 .build();
 
         receiver.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
@@ -291,6 +642,51 @@ public class Writer
         receiver.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
     }
 
+    public void doHttpData(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long traceId,
+        long budgetId,
+        int reserved,
+        BufferPool slotsPool,
+        IntArrayList slots,
+        int firstSlot,
+        int index,
+        int length)
+    {
+        this.payloadPool = slotsPool;
+        this.payloadSlots = slots;
+        this.payloadFirstSlot = firstSlot;
+        this.payloadIndex = index;
+        this.payloadLength = length;
+
+        doHttpData(receiver, routeId, streamId, traceId, budgetId, reserved, gatherPayload);
+    }
+
+    private void gatherPayload(
+        OctetsFW.Builder builder)
+    {
+        final BufferPool slotsPool = payloadPool;
+        final int slotCapacity = slotsPool.slotCapacity();
+
+        int index = payloadIndex;
+        int remaining = payloadLength;
+        int slotIndex = payloadFirstSlot + index / slotCapacity;
+        int slotOffset = index % slotCapacity;
+
+        while (remaining > 0)
+        {
+            final int slot = payloadSlots.getInt(slotIndex);
+            final MutableDirectBuffer buffer = slotsPool.buffer(slot);
+            final int chunkLength = Math.min(slotCapacity - slotOffset, remaining);
+            builder.put(buffer, slotOffset, chunkLength);
+            remaining -= chunkLength;
+            slotIndex++;
+            slotOffset = 0;
+        }
+    }
+
     public void doHttpEnd(
         final MessageConsumer receiver,
         final long routeId,
@@ -298,14 +694,14 @@ public class Writer
         final long traceId,
         String etag)
     {
-        Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> mutator =
-            builder -> updateTrailer(builder, etag);
+        this.etag = etag;
+        this.headersMutator = updateTrailer;
 
         final EndFW end = endRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                                .routeId(routeId)
                                .streamId(streamId)
                                .traceId(traceId)
-                               .extension(e -> e.set(visitHttpEndEx(mutator)))
+                               .extension(setHttpEndEx)
                                .build();
 
         receiver.accept(end.typeId(), end.buffer(), end.offset(), end.sizeof());
@@ -329,10 +725,15 @@ public class Writer
     }
 
     private void updateTrailer(
-        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder,
-        String etag)
+        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder)
+    {
+        builder.item(etagHeader);
+    }
+
+    private void etagHeader(
+        HttpHeaderFW.Builder header)
     {
-        builder.item(header -> header.name(ETAG).value(etag));
+        header.name(ETAG).value(etag);
     }
 
     public void doHttpEnd(
@@ -401,26 +802,28 @@ public class Writer
         sender.accept(reset.typeId(), reset.buffer(), reset.offset(), reset.sizeof());
     }
 
-    private Flyweight.Builder.Visitor visitHttpBeginEx(
-        Consumer<Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> headers)
+    private int visitHttpBeginEx(
+        MutableDirectBuffer buffer,
+        int offset,
+        int limit)
     {
-        return (buffer, offset, limit) ->
-                httpBeginExRW.wrap(buffer, offset, limit)
-                             .typeId(httpTypeId)
-                             .headers(headers)
-                             .build()
-                             .sizeof();
+        return httpBeginExRW.wrap(buffer, offset, limit)
+                            .typeId(httpTypeId)
+                            .headers(headersMutator)
+                            .build()
+                            .sizeof();
     }
 
-    private Flyweight.Builder.Visitor visitHttpEndEx(
-        Consumer<Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> trailers)
+    private int visitHttpEndEx(
+        MutableDirectBuffer buffer,
+        int offset,
+        int limit)
     {
-        return (buffer, offset, limit) ->
-            httpEndExRW.wrap(buffer, offset, limit)
-                         .typeId(httpTypeId)
-                         .trailers(trailers)
-                         .build()
-                         .sizeof();
+        return httpEndExRW.wrap(buffer, offset, limit)
+                          .typeId(httpTypeId)
+                          .trailers(headersMutator)
+                          .build()
+                          .sizeof();
     }
 
     public void doHttpPushPromise(
@@ -432,113 +835,122 @@ public class Writer
         Array32FW<HttpHeaderFW> responseHeaders,
         String etag)
     {
-        final int staleWhileRevalidate = SurrogateControl.getSurrogateFreshnessExtension(responseHeaders);
+        this.requestHeaders = requestHeaders;
+        this.headers = responseHeaders;
+        this.freshnessExtension = SurrogateControl.getSurrogateFreshnessExtension(responseHeaders);
+        this.etag = etag;
+
         doH2PushPromise(acceptReply,
                         routeId,
                         streamId,
                         authorization,
                         0L,
                         0,
-                        setPushPromiseHeaders(requestHeaders, responseHeaders, staleWhileRevalidate, etag));
+                        updatePushPromiseHeaders);
     }
 
-    private Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> setPushPromiseHeaders(
-        Array32FW<HttpHeaderFW> requestHeaders,
-        Array32FW<HttpHeaderFW> responseHeaders,
-        int freshnessExtension,
-        String etag)
+    private void updatePushPromiseHeaders(
+        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder)
     {
-        Consumer<Builder<HttpHeaderFW.Builder, HttpHeaderFW>> result =
-            builder -> updateRequestHeaders(requestHeaders, responseHeaders, builder, freshnessExtension, etag);
+        final Array32FW<HttpHeaderFW> requestHeaders = this.requestHeaders;
+
+        this.headersBuilder = builder;
+        requestHeaders.forEach(updatePushPromiseHeader);
 
-        return result;
+        if (!requestHeaders.anyMatch(HAS_CACHE_CONTROL))
+        {
+            builder.item(MAX_AGE_0_CACHE_CONTROL_HEADER);
+        }
+        if (!requestHeaders.anyMatch(PreferHeader.PREFER_HEADER_NAME))
+        {
+            headerName = HEADER_NAME_PREFER;
+            headerValueLength = headerValueBuffer.putStringWithoutLengthAscii(0, PREFER_WAIT_PREFIX);
+            headerValueLength += headerValueBuffer.putIntAscii(headerValueLength, freshnessExtension);
+            builder.item(namedHeader);
+        }
+        if (!requestHeaders.anyMatch(HAS_IF_NONE_MATCH))
+        {
+            builder.item(ifNoneMatchHeader);
+        }
+
+        this.headersBuilder = null;
+        this.header = null;
     }
 
-    private void updateRequestHeaders(
-        Array32FW<HttpHeaderFW> requestHeaders,
-        Array32FW<HttpHeaderFW> responseHeaders,
-        Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder,
-        int freshnessExtension,
-        String etag)
+    private void updatePushPromiseHeader(
+        HttpHeaderFW header)
     {
-        requestHeaders.forEach(h ->
-        {
-            final String8FW nameFW = h.name();
-            final String name = nameFW.asString();
-            final String16FW valueFW = h.value();
-            final String value = valueFW.asString();
+        final Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder = headersBuilder;
+        final Array32FW<HttpHeaderFW> responseHeaders = headers;
+        final String name = header.name().asString();
 
-            switch (name)
+        this.header = header;
+        switch (name)
+        {
+        case HttpHeaders.METHOD:
+        case HttpHeaders.AUTHORITY:
+        case HttpHeaders.SCHEME:
+        case HttpHeaders.PATH:
+        case HttpHeaders.PREFER:
+            builder.item(copyHeader);
+            break;
+        case HttpHeaders.CACHE_CONTROL:
+            final String16FW value = header.value();
+            if (value.asString().contains(CacheDirectives.MAX_AGE_0))
+            {
+                builder.item(copyHeader);
+            }
+            else
+            {
+                final DirectBuffer valueBuffer = value.value();
+                headerValueBuffer.putBytes(0, valueBuffer, 0, valueBuffer.capacity());
+                headerValueLength = valueBuffer.capacity();
+                headerValueLength += headerValueBuffer.putStringWithoutLengthAscii(headerValueLength, MAX_AGE_0_SUFFIX);
+                builder.item(currentNameHeader);
+            }
+            break;
+        case HttpHeaders.IF_MODIFIED_SINCE:
+            final String lastModified = getHeader(responseHeaders, LAST_MODIFIED);
+            if (lastModified != null)
             {
-            case HttpHeaders.METHOD:
-            case HttpHeaders.AUTHORITY:
-            case HttpHeaders.SCHEME:
-            case HttpHeaders.PATH:
-            case HttpHeaders.PREFER:
-                builder.item(header -> header.name(nameFW).value(valueFW));
-                break;
-            case HttpHeaders.CACHE_CONTROL:
-                if (value.contains(CacheDirectives.MAX_AGE_0))
+                headerValueLength = headerValueBuffer.putStringWithoutLengthUtf8(0, lastModified);
+                builder.item(currentNameHeader);
+            }
+            break;
+        case HttpHeaders.IF_NONE_MATCH:
+            String result = etag;
+            final String existingIfNoneMatch = getHeader(responseHeaders, ETAG);
+            if (existingIfNoneMatch != null)
+            {
+                if (!existingIfNoneMatch.contains(etag))
                 {
-                    builder.item(header -> header.name(nameFW)
-                                                 .value(valueFW));
+                    result += ", " + existingIfNoneMatch;
                 }
                 else
                 {
-                    builder.item(header -> header.name(nameFW)
-                                                 .value(value + ", max-age=0"));
-                }
-                break;
-            case HttpHeaders.IF_MODIFIED_SINCE:
-                if (responseHeaders.anyMatch(h2 -> "last-modified".equals(h2.name().asString())))
-                {
-                    final String newValue = getHeader(responseHeaders, "last-modified");
-                    builder.item(header -> header.name(nameFW)
-                                                 .value(newValue));
-                }
-                break;
-            case HttpHeaders.IF_NONE_MATCH:
-                String result = etag;
-                if (responseHeaders.anyMatch(h2 -> "etag".equals(h2.name().asString())))
-                {
-                    final String existingIfNoneMatch = getHeader(responseHeaders, "etag");
-                    if (!existingIfNoneMatch.contains(etag))
-                    {
-                        result += ", " + existingIfNoneMatch;
-                    }
-                    else
-                    {
-                        result = existingIfNoneMatch;
-                    }
-                }
-                final String finalEtag = result;
-                builder.item(header -> header.name(nameFW)
-                                             .value(finalEtag));
-                break;
-            case HttpHeaders.IF_MATCH:
-            case HttpHeaders.IF_UNMODIFIED_SINCE:
-                break;
-            default:
-                if (CacheUtils.isVaryHeader(name, responseHeaders))
-                {
-                    builder.item(header -> header.name(nameFW).value(valueFW));
+                    result = existingIfNoneMatch;
                 }
             }
-        });
-        if (!requestHeaders.anyMatch(HAS_CACHE_CONTROL))
-        {
-            builder.item(header -> header.name("cache-control").value("max-age=0"));
-        }
-        if (!requestHeaders.anyMatch(PreferHeader.PREFER_HEADER_NAME))
-        {
-            builder.item(header -> header.name("prefer").value("wait=" + freshnessExtension));
-        }
-        if (!requestHeaders.anyMatch(h -> HttpHeaders.IF_NONE_MATCH.equals(h.name().asString())))
-        {
-            builder.item(header -> header.name(IF_NONE_MATCH).value(etag));
+            headerValueLength = headerValueBuffer.putStringWithoutLengthUtf8(0, result);
+            builder.item(currentNameHeader);
+            break;
+        case HttpHeaders.IF_MATCH:
+        case HttpHeaders.IF_UNMODIFIED_SINCE:
+            break;
+        default:
+            if (CacheUtils.isVaryHeader(name, responseHeaders))
+            {
+                builder.item(copyHeader);
+            }
         }
     }
 
+    private void ifNoneMatchHeader(
+        HttpHeaderFW.Builder builder)
+    {
+        builder.name(IF_NONE_MATCH).value(etag);
+    }
+
     private void doH2PushPromise(
         MessageConsumer receiver,
         long routeId,
@@ -548,6 +960,8 @@ public class Writer
         int reserved,
         Consumer<Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> mutator)
     {
+        headersMutator = mutator;
+
         final DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .routeId(routeId)
                 .streamId(streamId)
@@ -555,7 +969,7 @@ public class Writer
                 .budgetId(budgetId)
                 .reserved(reserved)
                 .payload((OctetsFW) null)
-                .extension(e -> e.set(visitHttpBeginEx(mutator)))
+                .extension(setHttpBeginEx)
                 .build();
 
         receiver.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.http_cache.internal.stream.HttpCacheProxyFactory;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCachePurgeFW;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget;
+
+public class HttpCacheCommandsTest
+{
+    private static final Path DIRECTORY = Paths.get("target/nukleus-commands-test");
+
+    private final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[1024]);
+    private final HttpCachePurgeFW purge = new HttpCachePurgeFW.Builder()
+        .wrap(buffer, 0, buffer.capacity())
+        .correlationId(1L)
+        .nukleus("http-cache")
+        .target(b -> b.set(HttpCacheTarget.PREFIX))
+        .value("http://localhost:8080/")
+        .build();
+
+    @Test
+    public void shouldCompleteWhenNoWorkers()
+    {
+        final HttpCacheCommands commands = new HttpCacheCommands(DIRECTORY);
+
+        CompletableFuture<Void> future = commands.onCommand(purge.typeId(), buffer, purge.offset(), purge.sizeof());
+
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldCompleteWhenAppliedByEveryWorker()
+    {
+        final HttpCacheCommands commands = new HttpCacheCommands(DIRECTORY);
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue0 = commands.newQueue();
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue1 = commands.newQueue();
+
+        CompletableFuture<Void> future = commands.onCommand(purge.typeId(), buffer, purge.offset(), purge.sizeof());
+
+        assertEquals(1, queue0.size());
+        assertEquals(1, queue1.size());
+
+        queue0.drain(c -> c.accept(null));
+        assertFalse(future.isDone());
+
+        queue1.drain(c -> c.accept(null));
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldCompleteUnroutedWhenAppliedByEveryWorker()
+    {
+        final HttpCacheCommands commands = new HttpCacheCommands(DIRECTORY);
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue = commands.newQueue();
+
+        CompletableFuture<Void> future = commands.onUnrouted(1L);
+
+        assertEquals(1, queue.size());
+        assertFalse(future.isDone());
+
+        queue.drain(c -> c.accept(null));
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldRejectUnexpectedCommand()
+    {
+        final HttpCacheCommands commands = new HttpCacheCommands(DIRECTORY);
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue = commands.newQueue();
+
+        CompletableFuture<Void> future = commands.onCommand(0x00000001, buffer, purge.offset(), purge.sizeof());
+
+        assertTrue(future.isCompletedExceptionally());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldCompletePendingCommandWhenQueueRemoved()
+    {
+        final HttpCacheCommands commands = new HttpCacheCommands(DIRECTORY);
+        commands.attach();
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue0 = commands.newQueue();
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue1 = commands.newQueue();
+
+        CompletableFuture<Void> future = commands.onCommand(purge.typeId(), buffer, purge.offset(), purge.sizeof());
+
+        queue0.drain(c -> c.accept(null));
+        commands.removeQueue(queue1);
+
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+        assertSame(commands, HttpCacheCommands.attached(DIRECTORY));
+
+        commands.removeQueue(queue0);
+        assertNull(HttpCacheCommands.attached(DIRECTORY));
+    }
+
+    @Test
+    public void shouldNotDetachReplacementCommands()
+    {
+        final HttpCacheCommands stale = new HttpCacheCommands(DIRECTORY);
+        stale.attach();
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue = stale.newQueue();
+
+        final HttpCacheCommands commands = new HttpCacheCommands(DIRECTORY);
+        commands.attach();
+        stale.removeQueue(queue);
+
+        assertSame(commands, HttpCacheCommands.attached(DIRECTORY));
+    }
+
+    @Test
+    public void shouldRejectWithoutApplyingWhenAnyQueueFull()
+    {
+        final HttpCacheCommands commands = new HttpCacheCommands(DIRECTORY);
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue0 = commands.newQueue();
+        final ManyToOneConcurrentArrayQueue<Consumer<HttpCacheProxyFactory>> queue1 = commands.newQueue();
+
+        while (queue1.remainingCapacity() > 0)
+        {
+            queue1.offer(c -> {});
+        }
+
+        CompletableFuture<Void> future = commands.onCommand(purge.typeId(), buffer, purge.offset(), purge.sizeof());
+
+        assertTrue(future.isCompletedExceptionally());
+        assertTrue(queue0.isEmpty());
+    }
+}
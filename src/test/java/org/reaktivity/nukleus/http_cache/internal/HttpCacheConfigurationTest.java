@@ -17,10 +17,30 @@ package org.reaktivity.nukleus.http_cache.internal;
 
 import static org.junit.Assert.assertEquals;
 import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_ALLOWED_CACHE_PERCENTAGE;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_BAN_WALK_LIMIT;
 import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_CAPACITY;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_CIRCUIT_BREAKER_FAILURES;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_CIRCUIT_BREAKER_OPEN;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_HEDGE_DELAY;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_HEURISTIC_FRESHNESS_MAXIMUM;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_HEURISTIC_FRESHNESS_PERCENTAGE;
 import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_MAXIMUM_CACHE_EVICTION_COUNT;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_MAXIMUM_FLUSH_BATCH;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_MAXIMUM_OBJECT_SIZE;
 import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_MAXIMUM_REQUESTS;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_MAXIMUM_TTL;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_MINIMUM_TTL;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_NEGATIVE_CAPACITY;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_NEGATIVE_ERROR_TTL;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_NEGATIVE_TTL;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_REFRESH_AHEAD_BETA;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_REFRESH_AHEAD_MINIMUM_FREQUENCY;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_RETRY_BACKOFF_BASE;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_RETRY_BACKOFF_MAXIMUM;
 import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_SLOT_CAPACITY;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_TAG_HEADER;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_TIMER_WHEEL_TICK;
 
 import org.junit.Test;
 
@@ -32,6 +52,28 @@ public class HttpCacheConfigurationTest
     public static final String HTTP_CACHE_SLOT_CAPACITY_NAME = "nukleus.http_cache.slot.capacity";
     public static final String HTTP_CACHE_ALLOWED_CACHE_PERCENTAGE_NAME = "nukleus.http_cache.allowed.cache.percentage";
     public static final String HTTP_CACHE_MAXIMUM_CACHE_EVICTION_COUNT_NAME = "nukleus.http_cache.maximum.cache.eviction.count";
+    public static final String HTTP_CACHE_MAXIMUM_FLUSH_BATCH_NAME = "nukleus.http_cache.maximum.flush.batch";
+    public static final String HTTP_CACHE_TIMER_WHEEL_TICK_NAME = "nukleus.http_cache.timer.wheel.tick";
+    public static final String HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS_NAME = "nukleus.http_cache.maximum.upstream.requests";
+    public static final String HTTP_CACHE_RETRY_BACKOFF_BASE_NAME = "nukleus.http_cache.retry.backoff.base";
+    public static final String HTTP_CACHE_RETRY_BACKOFF_MAXIMUM_NAME = "nukleus.http_cache.retry.backoff.maximum";
+    public static final String HTTP_CACHE_CIRCUIT_BREAKER_FAILURES_NAME = "nukleus.http_cache.circuit.breaker.failures";
+    public static final String HTTP_CACHE_CIRCUIT_BREAKER_OPEN_NAME = "nukleus.http_cache.circuit.breaker.open";
+    public static final String HTTP_CACHE_HEDGE_DELAY_NAME = "nukleus.http_cache.hedge.delay";
+    public static final String HTTP_CACHE_MAXIMUM_OBJECT_SIZE_NAME = "nukleus.http_cache.maximum.object.size";
+    public static final String HTTP_CACHE_HEURISTIC_FRESHNESS_PERCENTAGE_NAME =
+        "nukleus.http_cache.heuristic.freshness.percentage";
+    public static final String HTTP_CACHE_HEURISTIC_FRESHNESS_MAXIMUM_NAME = "nukleus.http_cache.heuristic.freshness.maximum";
+    public static final String HTTP_CACHE_MINIMUM_TTL_NAME = "nukleus.http_cache.minimum.ttl";
+    public static final String HTTP_CACHE_MAXIMUM_TTL_NAME = "nukleus.http_cache.maximum.ttl";
+    public static final String HTTP_CACHE_NEGATIVE_TTL_NAME = "nukleus.http_cache.negative.ttl";
+    public static final String HTTP_CACHE_NEGATIVE_ERROR_TTL_NAME = "nukleus.http_cache.negative.error.ttl";
+    public static final String HTTP_CACHE_NEGATIVE_CAPACITY_NAME = "nukleus.http_cache.negative.capacity";
+    public static final String HTTP_CACHE_TAG_HEADER_NAME = "nukleus.http_cache.tag.header";
+    public static final String HTTP_CACHE_BAN_WALK_LIMIT_NAME = "nukleus.http_cache.ban.walk.limit";
+    public static final String HTTP_CACHE_REFRESH_AHEAD_BETA_NAME = "nukleus.http_cache.refresh.ahead.beta";
+    public static final String HTTP_CACHE_REFRESH_AHEAD_MINIMUM_FREQUENCY_NAME =
+        "nukleus.http_cache.refresh.ahead.minimum.frequency";
 
     @Test
     public void shouldVerifyConstants() throws Exception
@@ -41,6 +83,26 @@ public class HttpCacheConfigurationTest
         assertEquals(HTTP_CACHE_SLOT_CAPACITY.name(), HTTP_CACHE_SLOT_CAPACITY_NAME);
         assertEquals(HTTP_CACHE_ALLOWED_CACHE_PERCENTAGE.name(), HTTP_CACHE_ALLOWED_CACHE_PERCENTAGE_NAME);
         assertEquals(HTTP_CACHE_MAXIMUM_CACHE_EVICTION_COUNT.name(), HTTP_CACHE_MAXIMUM_CACHE_EVICTION_COUNT_NAME);
+        assertEquals(HTTP_CACHE_MAXIMUM_FLUSH_BATCH.name(), HTTP_CACHE_MAXIMUM_FLUSH_BATCH_NAME);
+        assertEquals(HTTP_CACHE_TIMER_WHEEL_TICK.name(), HTTP_CACHE_TIMER_WHEEL_TICK_NAME);
+        assertEquals(HTTP_CACHE_REFRESH_AHEAD_BETA.name(), HTTP_CACHE_REFRESH_AHEAD_BETA_NAME);
+        assertEquals(HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS.name(), HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS_NAME);
+        assertEquals(HTTP_CACHE_RETRY_BACKOFF_BASE.name(), HTTP_CACHE_RETRY_BACKOFF_BASE_NAME);
+        assertEquals(HTTP_CACHE_RETRY_BACKOFF_MAXIMUM.name(), HTTP_CACHE_RETRY_BACKOFF_MAXIMUM_NAME);
+        assertEquals(HTTP_CACHE_CIRCUIT_BREAKER_FAILURES.name(), HTTP_CACHE_CIRCUIT_BREAKER_FAILURES_NAME);
+        assertEquals(HTTP_CACHE_CIRCUIT_BREAKER_OPEN.name(), HTTP_CACHE_CIRCUIT_BREAKER_OPEN_NAME);
+        assertEquals(HTTP_CACHE_HEDGE_DELAY.name(), HTTP_CACHE_HEDGE_DELAY_NAME);
+        assertEquals(HTTP_CACHE_MAXIMUM_OBJECT_SIZE.name(), HTTP_CACHE_MAXIMUM_OBJECT_SIZE_NAME);
+        assertEquals(HTTP_CACHE_HEURISTIC_FRESHNESS_PERCENTAGE.name(), HTTP_CACHE_HEURISTIC_FRESHNESS_PERCENTAGE_NAME);
+        assertEquals(HTTP_CACHE_HEURISTIC_FRESHNESS_MAXIMUM.name(), HTTP_CACHE_HEURISTIC_FRESHNESS_MAXIMUM_NAME);
+        assertEquals(HTTP_CACHE_MINIMUM_TTL.name(), HTTP_CACHE_MINIMUM_TTL_NAME);
+        assertEquals(HTTP_CACHE_MAXIMUM_TTL.name(), HTTP_CACHE_MAXIMUM_TTL_NAME);
+        assertEquals(HTTP_CACHE_NEGATIVE_TTL.name(), HTTP_CACHE_NEGATIVE_TTL_NAME);
+        assertEquals(HTTP_CACHE_NEGATIVE_ERROR_TTL.name(), HTTP_CACHE_NEGATIVE_ERROR_TTL_NAME);
+        assertEquals(HTTP_CACHE_NEGATIVE_CAPACITY.name(), HTTP_CACHE_NEGATIVE_CAPACITY_NAME);
+        assertEquals(HTTP_CACHE_TAG_HEADER.name(), HTTP_CACHE_TAG_HEADER_NAME);
+        assertEquals(HTTP_CACHE_BAN_WALK_LIMIT.name(), HTTP_CACHE_BAN_WALK_LIMIT_NAME);
+        assertEquals(HTTP_CACHE_REFRESH_AHEAD_MINIMUM_FREQUENCY.name(), HTTP_CACHE_REFRESH_AHEAD_MINIMUM_FREQUENCY_NAME);
 
     }
 }
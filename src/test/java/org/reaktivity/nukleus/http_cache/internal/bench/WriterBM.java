@@ -0,0 +1,147 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.bench;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.DefaultCacheEntry.NUM_OF_HEADER_SLOTS;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.Slab;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.Writer;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(3)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@OutputTimeUnit(SECONDS)
+public class WriterBM
+{
+    private static final int SLOT_CAPACITY = 0x4000;
+
+    private final MessageConsumer receiver = this::onMessage;
+
+    private Writer writer;
+    private Slab cachePool;
+    private IntArrayList responseSlots;
+    private Array32FW<HttpHeaderFW> requestHeaders;
+    private Array32FW<HttpHeaderFW> responseHeaders;
+    private int responseSize;
+    private long received;
+
+    @Setup(Level.Trial)
+    public void init()
+    {
+        final MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[64 * 1024]);
+        this.writer = new Writer(null, t -> 1, writeBuffer);
+        this.cachePool = new Slab(SLOT_CAPACITY * 8, SLOT_CAPACITY);
+        this.responseSlots = new IntArrayList();
+
+        final int headersSlot = cachePool.acquire(0L);
+        responseSlots.add(headersSlot);
+        final MutableDirectBuffer headersBuffer = cachePool.buffer(headersSlot);
+        this.responseHeaders = new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW())
+            .wrap(headersBuffer, 0, headersBuffer.capacity())
+            .item(h -> h.name(":status").value("200"))
+            .item(h -> h.name("content-type").value("application/json"))
+            .item(h -> h.name("cache-control").value("max-age=60"))
+            .item(h -> h.name("etag").value("\"abcdef0123456789\""))
+            .build();
+
+        final MutableDirectBuffer requestBuffer = new UnsafeBuffer(new byte[1024]);
+        this.requestHeaders = new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW())
+            .wrap(requestBuffer, 0, requestBuffer.capacity())
+            .item(h -> h.name(":method").value("GET"))
+            .item(h -> h.name(":scheme").value("http"))
+            .item(h -> h.name(":authority").value("localhost:8080"))
+            .item(h -> h.name(":path").value("/api/v1/catalog"))
+            .build();
+
+        for (int i = 0; i < 3; i++)
+        {
+            responseSlots.add(cachePool.acquire(i + 1));
+        }
+        this.responseSize = SLOT_CAPACITY * 3 - SLOT_CAPACITY / 2;
+    }
+
+    @Benchmark
+    public long cachedResponse()
+    {
+        writer.doHttpResponse(receiver, 1L, 2L, 0L, responseHeaders);
+
+        for (int progress = 0; progress < responseSize;)
+        {
+            final int length = Math.min(8192, responseSize - progress);
+            writer.doHttpData(receiver, 1L, 2L, 0L, 0L, length, cachePool, responseSlots,
+                              NUM_OF_HEADER_SLOTS, progress, length);
+            progress += length;
+        }
+
+        writer.doHttpEnd(receiver, 1L, 2L, 0L);
+
+        return received;
+    }
+
+    @Benchmark
+    public long doHttpResponseWithUpdatedHeaders()
+    {
+        writer.doHttpResponseWithUpdatedHeaders(receiver, 1L, 2L, responseHeaders, requestHeaders,
+                                                "\"abcdef0123456789\"", false, 0L);
+
+        return received;
+    }
+
+    private void onMessage(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        received += length;
+    }
+
+    public static void main(
+        String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(WriterBM.class.getSimpleName())
+                .forks(0)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
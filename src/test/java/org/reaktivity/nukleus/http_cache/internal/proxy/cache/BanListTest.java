@@ -0,0 +1,85 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.Slab;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+
+public class BanListTest
+{
+    private final Map<String, AtomicLong> values = new HashMap<>();
+    private final HttpCacheCounters counters = new HttpCacheCounters(
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::incrementAndGet,
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::addAndGet);
+    private final DefaultCache cache = new DefaultCache(null, new UnsafeBuffer(new byte[1024]), new Slab(8192, 1024),
+        counters, t -> 0, 100, 8192, 1, 0.0, 1, new FreshnessPolicy(10, 86400, 0, Integer.MAX_VALUE), "surrogate-key");
+
+    @Test
+    public void shouldInvalidateOlderEntriesMatchingPathPrefix()
+    {
+        cache.supply(cache.defaultPartition(), 1, (short) 0, "http://localhost:8080/api/v1/catalog/1?page=2");
+        cache.supply(cache.defaultPartition(), 2, (short) 0, "http://localhost:8080/api/v1/other");
+        cache.ban("http://localhost:8080/api/v1/catalog/", null, null);
+        cache.supply(cache.defaultPartition(), 3, (short) 0, "http://localhost:8080/api/v1/catalog/2");
+
+        assertTrue(cache.hasBans());
+        assertEquals(1L, values.get("http-cache.bans").get());
+
+        cache.walkBans(2);
+        assertTrue(cache.hasBans());
+        cache.walkBans(2);
+        assertFalse(cache.hasBans());
+
+        assertEquals(1L, values.get("http-cache.ban.invalidations").get());
+        assertEquals(0L, values.get("http-cache.bans").get());
+    }
+
+    @Test
+    public void shouldInvalidateEntriesMatchingResponseHeader()
+    {
+        cache.supply(cache.defaultPartition(), 1, (short) 0, "http://localhost:8080/a").storeResponseHeaders(headers("a"));
+        cache.supply(cache.defaultPartition(), 2, (short) 0, "http://localhost:8080/b").storeResponseHeaders(headers("b"));
+        cache.supply(cache.defaultPartition(), 3, (short) 0, "http://localhost:8080/c");
+        cache.ban(null, "x-tenant", "a");
+
+        cache.walkBans(8);
+
+        assertFalse(cache.hasBans());
+        assertEquals(1L, values.get("http-cache.ban.invalidations").get());
+    }
+
+    private Array32FW<HttpHeaderFW> headers(
+        String tenant)
+    {
+        return new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW())
+            .wrap(new UnsafeBuffer(new byte[256]), 0, 256)
+            .item(h -> h.name(":status").value("200"))
+            .item(h -> h.name("x-tenant").value(tenant))
+            .build();
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.RequestUtil;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.Slab;
+
+public class CachePartitionTest
+{
+    private final Map<String, AtomicLong> values = new HashMap<>();
+    private final HttpCacheCounters counters = new HttpCacheCounters(
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::incrementAndGet,
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::addAndGet);
+    private final DefaultCache cache = new DefaultCache(null, new UnsafeBuffer(new byte[1024]), new Slab(8192, 1024),
+        counters, t -> 0, 100, 8192, 8, 0.0, 1, new FreshnessPolicy(10, 86400, 0, Integer.MAX_VALUE), "surrogate-key");
+
+    @Test
+    public void shouldSupplySamePartitionByName()
+    {
+        final CachePartition partition = cache.supplyPartition("orders", 2048);
+
+        assertSame(partition, cache.supplyPartition("orders", 4096));
+        assertNotEquals(cache.defaultPartition().id(), partition.id());
+        assertEquals(4, partition.quotaSlots());
+    }
+
+    @Test
+    public void shouldClampQuotaToAllowedSlots()
+    {
+        final CachePartition orders = cache.supplyPartition("orders", 6144);
+        final CachePartition users = cache.supplyPartition("users", 4096);
+
+        assertEquals(6, orders.quotaSlots());
+        assertEquals(2, users.quotaSlots());
+
+        assertSame(orders, cache.supplyPartition("orders", 16384));
+        assertEquals(6, orders.quotaSlots());
+
+        cache.supplyPartition("orders", 2048);
+        assertEquals(2, orders.quotaSlots());
+        assertEquals(6, cache.supplyPartition("users", 8192).quotaSlots());
+    }
+
+    @Test
+    public void shouldNotCollideAcrossPartitions()
+    {
+        final CachePartition partition = cache.supplyPartition("orders", 2048);
+        final int requestURLHash = "http://localhost:8080/api/v1/orders".hashCode();
+
+        assertEquals(31 + requestURLHash, RequestUtil.requestHash(cache.defaultPartition().id(), (short) 1, requestURLHash));
+        assertNotEquals(RequestUtil.requestHash(cache.defaultPartition().id(), (short) 1, requestURLHash),
+                        RequestUtil.requestHash(partition.id(), (short) 1, requestURLHash));
+    }
+
+    @Test
+    public void shouldKeepReservedQuotaFromOverflow()
+    {
+        final CachePartition partition = cache.supplyPartition("orders", 4096);
+        final CachePartition defaultPartition = cache.defaultPartition();
+
+        for (int i = 0; i < 4; i++)
+        {
+            assertNotEquals(NO_SLOT, defaultPartition.requestPool().acquire(i));
+        }
+
+        assertTrue(cache.isCacheFull(defaultPartition));
+        assertFalse(cache.isCacheFull(partition));
+        assertEquals(NO_SLOT, defaultPartition.requestPool().acquire(4));
+
+        for (int i = 0; i < 4; i++)
+        {
+            assertNotEquals(NO_SLOT, partition.requestPool().acquire(i));
+        }
+
+        assertTrue(cache.isCacheFull(partition));
+        assertEquals(4L, values.get("http-cache.partition.default.slots").get());
+        assertEquals(4L, values.get("http-cache.partition.orders.slots").get());
+    }
+
+    @Test
+    public void shouldEvictFromLargestOverflowPartition()
+    {
+        final CachePartition partition = cache.supplyPartition("orders", 2048);
+        final CachePartition defaultPartition = cache.defaultPartition();
+
+        cache.lookup(cache.supply(defaultPartition, 1, (short) 0, "http://localhost:8080/api/v1/items/1").requestHash());
+        cache.lookup(cache.supply(defaultPartition, 2, (short) 0, "http://localhost:8080/api/v1/items/2").requestHash());
+        cache.lookup(cache.supply(partition, 3, (short) 0, "http://localhost:8080/api/v1/orders/1").requestHash());
+
+        for (int i = 0; i < 6; i++)
+        {
+            assertNotEquals(NO_SLOT, defaultPartition.responsePool().acquire(i));
+        }
+        for (int i = 0; i < 2; i++)
+        {
+            assertNotEquals(NO_SLOT, partition.responsePool().acquire(i));
+        }
+
+        assertTrue(cache.isCacheFull(partition));
+
+        cache.purgeEntriesForNonPendingRequests(partition, emptySet());
+
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(3));
+        assertEquals(2L, values.get("http-cache.partition.default.evictions").get());
+        assertEquals(1L, values.get("http-cache.partition.orders.entries").get());
+    }
+}
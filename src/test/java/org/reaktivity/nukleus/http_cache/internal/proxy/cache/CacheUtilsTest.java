@@ -0,0 +1,73 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils.NO_DATE;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+
+public class CacheUtilsTest
+{
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    @Test
+    public void shouldParseHttpDate()
+    {
+        Assert.assertEquals(1445412480000L, CacheUtils.parseDate(LAST_MODIFIED));
+        Assert.assertEquals(NO_DATE, CacheUtils.parseDate("yesterday"));
+        Assert.assertEquals(NO_DATE, CacheUtils.parseDate(null));
+    }
+
+    @Test
+    public void shouldMatchNotModifiedSince()
+    {
+        final long lastModifiedAt = CacheUtils.parseDate(LAST_MODIFIED);
+
+        Assert.assertTrue(CacheUtils.isNotModifiedSince(headers("if-modified-since", LAST_MODIFIED), lastModifiedAt));
+        Assert.assertTrue(CacheUtils.isNotModifiedSince(
+            headers("if-modified-since", "Thu, 22 Oct 2015 07:28:00 GMT"), lastModifiedAt));
+        Assert.assertFalse(CacheUtils.isNotModifiedSince(
+            headers("if-modified-since", "Tue, 20 Oct 2015 07:28:00 GMT"), lastModifiedAt));
+        Assert.assertFalse(CacheUtils.isNotModifiedSince(headers("if-modified-since", LAST_MODIFIED), NO_DATE));
+        Assert.assertFalse(CacheUtils.isNotModifiedSince(headers("if-modified-since", "invalid"), lastModifiedAt));
+    }
+
+    @Test
+    public void shouldPreferIfNoneMatchOverIfModifiedSince()
+    {
+        final Array32FW<HttpHeaderFW> headers = new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW())
+            .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024)
+            .item(h -> h.name("if-none-match").value("\"v1\""))
+            .item(h -> h.name("if-modified-since").value(LAST_MODIFIED))
+            .build();
+
+        Assert.assertFalse(CacheUtils.isNotModifiedSince(headers, CacheUtils.parseDate(LAST_MODIFIED)));
+    }
+
+    private static Array32FW<HttpHeaderFW> headers(
+        String name,
+        String value)
+    {
+        return new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW())
+            .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024)
+            .item(h -> h.name(name).value(value))
+            .build();
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.Slab;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.DataFW;
+
+public class DefaultCacheEntryTest
+{
+    private static final String REQUEST_URL = "http://localhost:8080/api/v1/items/1";
+    private static final String RECEIVED_AT = "Sun, 18 Oct 2026 00:00:00 GMT";
+
+    private final Map<String, AtomicLong> values = new HashMap<>();
+    private final HttpCacheCounters counters = new HttpCacheCounters(
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::incrementAndGet,
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::addAndGet);
+    private final DefaultCache cache = new DefaultCache(null, new UnsafeBuffer(new byte[1024]), new Slab(8192, 1024),
+        counters, t -> 0, 100, 8192, 8, 0.0, 1, new FreshnessPolicy(10, 86400, 0, Integer.MAX_VALUE), "surrogate-key");
+
+    @Test
+    public void shouldKeepPinnedVersionAcrossRefresh()
+    {
+        final CachePartition partition = cache.defaultPartition();
+        final DefaultCacheEntry entry = storeEntry(cache, "hello", "etag", "\"v1\"");
+        final int versionSlots = partition.acquiredSlots();
+
+        entry.pin();
+        entry.pin();
+
+        final DefaultCacheEntry refreshed = storeEntry(cache, "world!", "etag", "\"v2\"");
+
+        assertNotSame(entry, refreshed);
+        assertSame(refreshed, cache.get(1));
+        assertEquals("\"v1\"", entry.etag());
+        assertEquals("hello", responseData(entry));
+        assertEquals("\"v2\"", refreshed.etag());
+        assertEquals("world!", responseData(refreshed));
+        assertEquals(2 * versionSlots, partition.acquiredSlots());
+    }
+
+    @Test
+    public void shouldFreeRetiredVersionAfterLastUnpin()
+    {
+        final CachePartition partition = cache.defaultPartition();
+        final DefaultCacheEntry entry = storeEntry(cache, "hello", "etag", "\"v1\"");
+        final int versionSlots = partition.acquiredSlots();
+
+        entry.pin();
+        entry.pin();
+
+        final DefaultCacheEntry refreshed = storeEntry(cache, "world!", "etag", "\"v2\"");
+
+        entry.unpin();
+        assertEquals("hello", responseData(entry));
+        assertEquals(2 * versionSlots, partition.acquiredSlots());
+
+        entry.unpin();
+        assertTrue(entry.getResponseSlots().isEmpty());
+        assertEquals(versionSlots, partition.acquiredSlots());
+        assertEquals("world!", responseData(refreshed));
+        assertEquals(1L, values.get("http-cache.cache.entries").get());
+    }
+
+    @Test
+    public void shouldRefreshAheadOfStaleAtByFetchTime()
+    {
+        final DefaultCacheEntry entry = storeEntry(cache, "hello", "date", RECEIVED_AT, "cache-control", "max-age=10");
+        final Instant staleAt = Instant.parse("2026-10-18T00:00:10Z");
+
+        entry.fetchMillis(2000L);
+
+        assertFalse(entry.isRefreshAheadDue(staleAt.minusMillis(3000L), 1.0, Math.exp(-1.0)));
+        assertTrue(entry.isRefreshAheadDue(staleAt.minusMillis(2000L), 1.0, Math.exp(-1.0)));
+        assertTrue(entry.isRefreshAheadDue(staleAt.minusMillis(4000L), 1.0, Math.exp(-2.0)));
+        assertTrue(entry.isRefreshAheadDue(staleAt.minusMillis(4000L), 2.0, Math.exp(-1.0)));
+        assertFalse(entry.isRefreshAheadDue(staleAt.minusMillis(4000L), 1.0, Math.exp(-1.0)));
+    }
+
+    @Test
+    public void shouldRefreshAheadOnlyHotEntries()
+    {
+        final DefaultCache refreshAheadCache = new DefaultCache(null, new UnsafeBuffer(new byte[1024]),
+            new Slab(8192, 1024), counters, t -> 0, 100, 8192, 8, 1.0, 3,
+            new FreshnessPolicy(10, 86400, 0, Integer.MAX_VALUE), "surrogate-key");
+        final DefaultCacheEntry entry = storeEntry(refreshAheadCache, "hello", "date", RECEIVED_AT,
+            "cache-control", "max-age=10");
+        final Instant now = Instant.parse("2026-10-18T00:00:11Z");
+
+        assertFalse(refreshAheadCache.isRefreshAheadDue(entry, now));
+
+        refreshAheadCache.lookup(1);
+        refreshAheadCache.lookup(1);
+        assertFalse(refreshAheadCache.isRefreshAheadDue(entry, now));
+
+        refreshAheadCache.lookup(1);
+        assertTrue(refreshAheadCache.isRefreshAheadDue(entry, now));
+    }
+
+    @Test
+    public void shouldNotRefreshAheadWhenDisabled()
+    {
+        final DefaultCacheEntry entry = storeEntry(cache, "hello", "date", RECEIVED_AT, "cache-control", "max-age=10");
+        final Instant now = Instant.parse("2026-10-18T00:00:11Z");
+
+        for (int i = 0; i < 4; i++)
+        {
+            cache.lookup(1);
+        }
+
+        assertFalse(cache.isRefreshAheadDue(entry, now));
+    }
+
+    private DefaultCacheEntry storeEntry(
+        DefaultCache target,
+        String payload,
+        String... responseHeaders)
+    {
+        final String[] namesAndValues = new String[responseHeaders.length + 2];
+        namesAndValues[0] = ":status";
+        namesAndValues[1] = "200";
+        System.arraycopy(responseHeaders, 0, namesAndValues, 2, responseHeaders.length);
+
+        final DefaultCacheEntry entry = target.supply(target.defaultPartition(), 1, (short) 0, REQUEST_URL);
+        assertTrue(entry.storeRequestHeaders(headers(":method", "GET", ":path", "/api/v1/items/1")));
+        assertTrue(entry.storeResponseHeaders(headers(namesAndValues)));
+        assertTrue(entry.storeResponseData(data(payload)));
+        return entry;
+    }
+
+    private String responseData(
+        DefaultCacheEntry entry)
+    {
+        final int slot = entry.getResponseSlots().getInt(DefaultCacheEntry.NUM_OF_HEADER_SLOTS);
+        final DirectBuffer buffer = cache.getResponsePool().buffer(slot);
+        return buffer.getStringWithoutLengthUtf8(0, entry.responseSize());
+    }
+
+    private Array32FW<HttpHeaderFW> headers(
+        String... namesAndValues)
+    {
+        final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headersRW =
+            new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW());
+        headersRW.wrap(new UnsafeBuffer(new byte[256]), 0, 256);
+        for (int i = 0; i < namesAndValues.length; i += 2)
+        {
+            final String name = namesAndValues[i];
+            final String value = namesAndValues[i + 1];
+            headersRW.item(h -> h.name(name).value(value));
+        }
+        return headersRW.build();
+    }
+
+    private DataFW data(
+        String payload)
+    {
+        final byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[256]);
+        return new DataFW.Builder().wrap(buffer, 0, buffer.capacity())
+                                   .routeId(0L)
+                                   .streamId(0L)
+                                   .traceId(0L)
+                                   .budgetId(0L)
+                                   .reserved(bytes.length)
+                                   .payload(new UnsafeBuffer(bytes), 0, bytes.length)
+                                   .build();
+    }
+}
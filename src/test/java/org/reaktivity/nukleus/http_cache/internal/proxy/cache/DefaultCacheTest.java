@@ -0,0 +1,185 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
+import static org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget.PREFIX;
+import static org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget.URL;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
+import org.reaktivity.nukleus.http_cache.internal.stream.util.Slab;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+
+public class DefaultCacheTest
+{
+    private final Map<String, AtomicLong> values = new HashMap<>();
+    private final HttpCacheCounters counters = new HttpCacheCounters(
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::incrementAndGet,
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::addAndGet);
+    private final DefaultCache cache = new DefaultCache(null, new UnsafeBuffer(new byte[1024]), new Slab(8192, 1024),
+        counters, t -> 0, 100, 8192, 8, 0.0, 1, new FreshnessPolicy(10, 86400, 0, Integer.MAX_VALUE), "surrogate-key");
+
+    @Test
+    public void shouldInvalidateOnlyTaggedEntries()
+    {
+        final DefaultCacheEntry orders = storeEntry(1, "/orders", "orders, tenant-1");
+        final DefaultCacheEntry order = storeEntry(2, "/orders/1", "order-1 orders");
+        final DefaultCacheEntry users = storeEntry(3, "/users", "users tenant-1");
+        final DefaultCacheEntry untagged = storeEntry(4, "/items", null);
+
+        cache.invalidateTags(h -> null, "orders", 0L);
+
+        assertTrue(orders.isValidationRequired());
+        assertTrue(order.isValidationRequired());
+        assertFalse(users.isValidationRequired());
+        assertFalse(untagged.isValidationRequired());
+        assertEquals(1L, values.get("http-cache.tag.invalidations").get());
+    }
+
+    @Test
+    public void shouldInvalidateEachListedTag()
+    {
+        final DefaultCacheEntry orders = storeEntry(1, "/orders", "orders");
+        final DefaultCacheEntry users = storeEntry(2, "/users", "users");
+        final DefaultCacheEntry items = storeEntry(3, "/items", "items");
+
+        cache.invalidateTags(h -> null, "orders users unknown", 0L);
+
+        assertTrue(orders.isValidationRequired());
+        assertTrue(users.isValidationRequired());
+        assertFalse(items.isValidationRequired());
+        assertEquals(2L, values.get("http-cache.tag.invalidations").get());
+    }
+
+    @Test
+    public void shouldNotInvalidateUntaggedOrPurgedEntries()
+    {
+        final DefaultCacheEntry orders = storeEntry(1, "/orders", "orders");
+        final DefaultCacheEntry retagged = storeEntry(2, "/orders/1", "orders");
+        storeEntry(2, "/orders/1", "order-1");
+
+        cache.purge(1);
+        cache.invalidateTags(h -> null, "orders", 0L);
+
+        assertFalse(orders.isValidationRequired());
+        assertFalse(retagged.isValidationRequired());
+        assertEquals(0L, values.get("http-cache.tag.invalidations").get());
+    }
+
+    @Test
+    public void shouldPurgeOnlyMatchingRequestURL()
+    {
+        storeEntry(1, "/items?page=1", null);
+        storeEntry(2, "/items?page=2", null);
+        storeEntry(3, "/items", null);
+
+        cache.purge(h -> null, URL, "http://localhost:8080/items?page=1", 0L);
+
+        assertNull(cache.get(1));
+        assertNotNull(cache.get(2));
+        assertNotNull(cache.get(3));
+    }
+
+    @Test
+    public void shouldInvalidateOnlyMatchingRequestURL()
+    {
+        final DefaultCacheEntry page1 = storeEntry(1, "/items?page=1", null);
+        final DefaultCacheEntry page2 = storeEntry(2, "/items?page=2", null);
+        final DefaultCacheEntry items = storeEntry(3, "/items", null);
+
+        cache.invalidateURL(h -> null, "http://localhost:8080/items", 0L);
+
+        assertFalse(page1.isValidationRequired());
+        assertFalse(page2.isValidationRequired());
+        assertTrue(items.isValidationRequired());
+    }
+
+    @Test
+    public void shouldPurgeByPathPrefix()
+    {
+        storeEntry(1, "/api/v1/catalog/1", null);
+        storeEntry(2, "/api/v1/catalog/2?page=1", null);
+        storeEntry(3, "/api/v2/catalog/1", null);
+
+        cache.purge(h -> null, PREFIX, "/api/v1/catalog/", 0L);
+
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(3));
+    }
+
+    @Test
+    public void shouldMatchAbsoluteAndPathPrefixes()
+    {
+        assertTrue(DefaultCache.matchesPrefix("http://localhost:8080/api/v1/catalog/1", "http://localhost:8080/api/"));
+        assertTrue(DefaultCache.matchesPrefix("http://localhost:8080/api/v1/catalog/1", "/api/v1/catalog/"));
+        assertTrue(DefaultCache.matchesPrefix("https://example.com/api/v1/catalog/1", "/api/v1/catalog/"));
+        assertFalse(DefaultCache.matchesPrefix("http://localhost:8080/v1/api/v1/catalog/", "/api/v1/catalog/"));
+        assertFalse(DefaultCache.matchesPrefix("http://localhost:8080/api/v1/catalog/1", "/localhost"));
+    }
+
+    @Test
+    public void shouldEncodeNotModifiedHeadersForPreferWait()
+    {
+        final Array32FW<HttpHeaderFW> headers = cache.notModifiedHeaders("\"v1\"", "wait=5");
+
+        assertEquals("304", getHeader(headers, ":status"));
+        assertEquals("\"v1\"", getHeader(headers, "etag"));
+        assertEquals("wait=5", getHeader(headers, "preference-applied"));
+        assertEquals("preference-applied, etag", getHeader(headers, "access-control-expose-headers"));
+    }
+
+    @Test
+    public void shouldEncodeNotModifiedHeadersWithoutPreferWait()
+    {
+        final Array32FW<HttpHeaderFW> headers = cache.notModifiedHeaders(null, null);
+
+        assertEquals("304", getHeader(headers, ":status"));
+        assertNull(getHeader(headers, "etag"));
+        assertNull(getHeader(headers, "preference-applied"));
+    }
+
+    private DefaultCacheEntry storeEntry(
+        int requestHash,
+        String path,
+        String tags)
+    {
+        final DefaultCacheEntry entry = cache.supply(cache.defaultPartition(), requestHash, (short) 0,
+            "http://localhost:8080" + path);
+        final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headersRW =
+            new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW());
+        headersRW.wrap(new UnsafeBuffer(new byte[256]), 0, 256)
+                 .item(h -> h.name(":status").value("200"));
+        if (tags != null)
+        {
+            headersRW.item(h -> h.name("surrogate-key").value(tags));
+        }
+        assertTrue(entry.storeResponseHeaders(headersRW.build()));
+        return entry;
+    }
+}
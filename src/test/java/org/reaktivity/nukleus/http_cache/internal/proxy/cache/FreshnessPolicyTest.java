@@ -0,0 +1,79 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.CacheUtils.NO_DATE;
+
+import org.junit.Test;
+
+public class FreshnessPolicyTest
+{
+    private static final long RECEIVED_AT = 1_000_000_000L;
+
+    @Test
+    public void shouldPreferExplicitFreshness()
+    {
+        FreshnessPolicy policy = new FreshnessPolicy(10, 86400, 0, Integer.MAX_VALUE);
+
+        assertEquals(30, policy.freshnessLifetime(new CacheControl().parse("max-age=30"), false, 0, RECEIVED_AT, 0L));
+        assertEquals(5, policy.freshnessLifetime(new CacheControl().parse("max-age=30, s-maxage=5"), false, 0, RECEIVED_AT, 0L));
+        assertEquals(60, policy.freshnessLifetime(new CacheControl().parse("max-age=30"), false, 60, RECEIVED_AT, 0L));
+    }
+
+    @Test
+    public void shouldComputeHeuristicFreshness()
+    {
+        FreshnessPolicy policy = new FreshnessPolicy(10, 3600, 0, Integer.MAX_VALUE);
+        CacheControl cacheControl = new CacheControl().parse(null);
+
+        assertEquals(100, policy.freshnessLifetime(cacheControl, false, 0, RECEIVED_AT, RECEIVED_AT - 1_000_000L));
+        assertEquals(3600, policy.freshnessLifetime(cacheControl, false, 0, RECEIVED_AT, 0L));
+        assertEquals(0, policy.freshnessLifetime(cacheControl, true, 0, RECEIVED_AT, 0L));
+        assertEquals(0, policy.freshnessLifetime(cacheControl, false, 0, RECEIVED_AT, NO_DATE));
+    }
+
+    @Test
+    public void shouldClampToTtlBounds()
+    {
+        FreshnessPolicy policy = new FreshnessPolicy(10, 86400, 5, 60);
+
+        assertEquals(5, policy.freshnessLifetime(new CacheControl().parse("max-age=0"), false, 0, RECEIVED_AT, NO_DATE));
+        assertEquals(60, policy.freshnessLifetime(new CacheControl().parse("max-age=3600"), false, 0, RECEIVED_AT, NO_DATE));
+    }
+
+    @Test
+    public void shouldClampToExplicitTtlBounds()
+    {
+        FreshnessPolicy policy = new FreshnessPolicy(10, 86400, 5, 60);
+        CacheControl cacheControl = new CacheControl().parse("max-age=3600");
+
+        assertEquals(600, policy.freshnessLifetime(cacheControl, false, 0, RECEIVED_AT, NO_DATE, 0, 600));
+        assertEquals(3600, policy.freshnessLifetime(cacheControl, false, 0, RECEIVED_AT, NO_DATE, 0, Integer.MAX_VALUE));
+        assertEquals(7200, policy.freshnessLifetime(cacheControl, false, 0, RECEIVED_AT, NO_DATE, 7200, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldDetectImmutable()
+    {
+        FreshnessPolicy policy = new FreshnessPolicy(10, 86400, 0, Integer.MAX_VALUE);
+
+        assertTrue(policy.isImmutable(new CacheControl().parse("max-age=3600, immutable")));
+        assertFalse(policy.isImmutable(new CacheControl().parse("max-age=3600")));
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+
+public class NegativeCacheTest
+{
+    private final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headersRW =
+        new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW());
+
+    @Test
+    public void shouldStoreNegativeResponsesUntilExpired()
+    {
+        NegativeCache cache = new NegativeCache(10, 1, 16);
+
+        assertTrue(cache.store(1, false, headers("404", null), 0L));
+        assertTrue(cache.store(2, false, headers("503", "5"), 0L));
+
+        assertEquals("404", cache.get(1, 9999L).status());
+        assertEquals("5", cache.get(2, 999L).retryAfter());
+        assertNull(cache.get(2, 1000L));
+        assertNull(cache.get(1, 10000L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldNotStoreUnlessNegative()
+    {
+        NegativeCache cache = new NegativeCache(10, 0, 16);
+
+        assertFalse(cache.isNegative(headers("200", null)));
+        assertFalse(cache.isNegative(headers("403", null)));
+        assertFalse(cache.store(1, false, headers("500", null), 0L));
+        assertTrue(cache.isNegative(headers("410", null)));
+    }
+
+    @Test
+    public void shouldEvictOldestWhenFull()
+    {
+        NegativeCache cache = new NegativeCache(10, 10, 2);
+
+        assertTrue(cache.store(1, false, headers("404", null), 0L));
+        assertTrue(cache.store(2, false, headers("404", null), 100L));
+        assertTrue(cache.store(3, false, headers("404", null), 200L));
+
+        assertNull(cache.get(1, 300L));
+        assertEquals("404", cache.get(2, 300L).status());
+        assertEquals("404", cache.get(3, 300L).status());
+        assertEquals(2, cache.size());
+
+        cache.invalidate(2);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldReuseFreedEntries()
+    {
+        NegativeCache cache = new NegativeCache(1, 1, 1);
+
+        assertTrue(cache.store(1, false, headers("404", null), 0L));
+        final NegativeCacheEntry entry = cache.get(1, 0L);
+        assertNull(cache.get(1, 1000L));
+
+        assertTrue(cache.store(2, false, headers("503", "3"), 1000L));
+        assertSame(entry, cache.get(2, 1000L));
+        assertEquals("3", entry.retryAfter());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldLeaveOriginFreshnessToRegularCache()
+    {
+        NegativeCache cache = new NegativeCache(10, 10, 16);
+
+        assertTrue(cache.isNegative(headers("404", null)));
+        assertFalse(cache.isNegative(headers("404", null, "max-age=60")));
+        assertFalse(cache.isNegative(headers("410", null, "s-maxage=60")));
+    }
+
+    @Test
+    public void shouldUseOriginFreshnessWhenStored()
+    {
+        NegativeCache cache = new NegativeCache(10, 10, 16);
+
+        assertTrue(cache.store(1, false, headers("404", null, "max-age=2"), 0L));
+        assertTrue(cache.store(2, false, headers("503", null, "max-age=60, s-maxage=1"), 0L));
+        assertFalse(cache.store(3, false, headers("404", null, "max-age=0"), 0L));
+
+        assertEquals("404", cache.get(1, 1999L).status());
+        assertNull(cache.get(1, 2000L));
+        assertNull(cache.get(2, 1000L));
+        assertNull(cache.get(3, 0L));
+    }
+
+    @Test
+    public void shouldNotStoreAuthorizedUnlessPublic()
+    {
+        NegativeCache cache = new NegativeCache(10, 10, 16);
+
+        assertFalse(cache.store(1, true, headers("404", null), 0L));
+        assertFalse(cache.store(2, true, headers("503", null, "no-cache"), 0L));
+        assertTrue(cache.store(3, true, headers("404", null, "public"), 0L));
+
+        assertNull(cache.get(1, 0L));
+        assertNull(cache.get(2, 0L));
+        assertEquals("404", cache.get(3, 0L).status());
+    }
+
+    private Array32FW<HttpHeaderFW> headers(
+        String status,
+        String retryAfter)
+    {
+        return headers(status, retryAfter, null);
+    }
+
+    private Array32FW<HttpHeaderFW> headers(
+        String status,
+        String retryAfter,
+        String cacheControl)
+    {
+        headersRW.wrap(new UnsafeBuffer(new byte[256]), 0, 256)
+                 .item(h -> h.name(":status").value(status));
+        if (retryAfter != null)
+        {
+            headersRW.item(h -> h.name("retry-after").value(retryAfter));
+        }
+        if (cacheControl != null)
+        {
+            headersRW.item(h -> h.name("cache-control").value(cacheControl));
+        }
+        return headersRW.build();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.agrona.collections.IntHashSet;
+import org.junit.Test;
+
+public class PathTrieTest
+{
+    @Test
+    public void shouldVisitExactPath()
+    {
+        PathTrie trie = new PathTrie();
+        trie.add("http://localhost:8080/items", 1);
+        trie.add("http://localhost:8080/items", 2);
+        trie.add("http://localhost:8080/items-derived", 3);
+
+        IntHashSet visited = new IntHashSet();
+        trie.forEach("http://localhost:8080/items", visited::add);
+
+        assertEquals(2, visited.size());
+        assertTrue(visited.contains(1));
+        assertTrue(visited.contains(2));
+    }
+
+    @Test
+    public void shouldVisitPathPrefix()
+    {
+        PathTrie trie = new PathTrie();
+        trie.add("http://localhost:8080/items", 1);
+        trie.add("http://localhost:8080/items/1", 2);
+        trie.add("http://localhost:8080/other", 3);
+
+        IntHashSet visited = new IntHashSet();
+        trie.forEachPrefix("http://localhost:8080/items", visited::add);
+
+        assertEquals(2, visited.size());
+        assertFalse(visited.contains(3));
+    }
+
+    @Test
+    public void shouldPruneOnRemove()
+    {
+        PathTrie trie = new PathTrie();
+        trie.add("http://localhost:8080/items", 1);
+        trie.add("http://localhost:8080/items/1", 2);
+
+        assertFalse(trie.remove("http://localhost:8080/items", 2));
+        assertTrue(trie.remove("http://localhost:8080/items/1", 2));
+        assertFalse(trie.isEmpty());
+        assertTrue(trie.remove("http://localhost:8080/items", 1));
+        assertTrue(trie.isEmpty());
+    }
+}
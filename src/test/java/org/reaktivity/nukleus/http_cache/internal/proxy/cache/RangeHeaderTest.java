@@ -0,0 +1,60 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.proxy.cache;
+
+import static org.reaktivity.nukleus.http_cache.internal.proxy.cache.RangeHeader.UNSATISFIABLE;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RangeHeaderTest
+{
+    @Test
+    public void shouldParseSingleByteRange()
+    {
+        Assert.assertTrue(RangeHeader.isSingleByteRange("bytes=0-99"));
+        Assert.assertTrue(RangeHeader.isSingleByteRange("bytes=100-"));
+        Assert.assertTrue(RangeHeader.isSingleByteRange("bytes=-50"));
+        Assert.assertFalse(RangeHeader.isSingleByteRange("bytes=0-9,20-29"));
+        Assert.assertFalse(RangeHeader.isSingleByteRange("bytes=10-5"));
+        Assert.assertFalse(RangeHeader.isSingleByteRange("bytes=-"));
+        Assert.assertFalse(RangeHeader.isSingleByteRange("items=0-9"));
+    }
+
+    @Test
+    public void shouldResolveByteRangePositions()
+    {
+        Assert.assertEquals(0L, RangeHeader.firstBytePos("bytes=0-99", 1000));
+        Assert.assertEquals(99L, RangeHeader.lastBytePos("bytes=0-99", 1000));
+        Assert.assertEquals(999L, RangeHeader.lastBytePos("bytes=900-5000", 1000));
+        Assert.assertEquals(950L, RangeHeader.firstBytePos("bytes=-50", 1000));
+        Assert.assertEquals(999L, RangeHeader.lastBytePos("bytes=-50", 1000));
+        Assert.assertEquals(0L, RangeHeader.firstBytePos("bytes=-5000", 1000));
+        Assert.assertEquals(999L, RangeHeader.lastBytePos("bytes=100-", 1000));
+        Assert.assertEquals(UNSATISFIABLE, RangeHeader.firstBytePos("bytes=1000-", 1000));
+        Assert.assertEquals(UNSATISFIABLE, RangeHeader.firstBytePos("bytes=-0", 1000));
+    }
+
+    @Test
+    public void shouldApplyRangeOnlyForStrongIfRangeMatch()
+    {
+        Assert.assertTrue(RangeHeader.isRangeApplicable("bytes=0-9", null, null));
+        Assert.assertTrue(RangeHeader.isRangeApplicable("bytes=0-9", "\"v1\"", "\"v1\""));
+        Assert.assertFalse(RangeHeader.isRangeApplicable("bytes=0-9", "\"v2\"", "\"v1\""));
+        Assert.assertFalse(RangeHeader.isRangeApplicable("bytes=0-9", "W/\"v1\"", "W/\"v1\""));
+        Assert.assertFalse(RangeHeader.isRangeApplicable(null, null, "\"v1\""));
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HttpProxyAttachedResponsesTest
+{
+    private final HttpProxyAttachedResponses<Response> responses = new HttpProxyAttachedResponses<>();
+    private final List<String> flushed = new ArrayList<>();
+
+    @Test
+    public void shouldNotStallReadyResponsesBehindBlocked()
+    {
+        final Response first = attach("first", 1);
+        final Response second = attach("second", 1);
+        final Response third = attach("third", 1);
+
+        assertNull(responses.flush(8, 0L));
+        assertEquals(asList("first", "second", "third"), flushed);
+        assertNull(responses.readyHead());
+        assertSame(first, responses.blockedHead());
+
+        second.credit = 1;
+        responses.flushed(second);
+        flushed.clear();
+
+        assertNull(responses.flush(8, 0L));
+        assertEquals(asList("second"), flushed);
+        assertSame(first, responses.blockedHead());
+        assertSame(third, first.attachedNext);
+        assertSame(second, third.attachedNext);
+        assertFalse(second.ready);
+    }
+
+    @Test
+    public void shouldFlushAtMostBatchLimitInRoundRobin()
+    {
+        final Response r1 = attach("r1", 8);
+        attach("r2", 8);
+        final Response r3 = attach("r3", 8);
+        attach("r4", 8);
+        final Response r5 = attach("r5", 8);
+
+        assertSame(r3, responses.flush(2, 0L));
+        assertEquals(asList("r1", "r2"), flushed);
+
+        assertSame(r5, responses.flush(2, 0L));
+        assertEquals(asList("r1", "r2", "r3", "r4"), flushed);
+
+        responses.flush(2, 0L);
+        assertEquals(asList("r1", "r2", "r3", "r4", "r5", "r1"), flushed);
+
+        flushed.clear();
+        assertNull(responses.flush(5, 0L));
+        assertEquals(5, flushed.size());
+        assertTrue(r1.ready);
+    }
+
+    @Test
+    public void shouldUnlinkFromReadyAndBlocked()
+    {
+        final Response ready = attach("ready", 8);
+        final Response blocked = attach("blocked", 0);
+        responses.flushed(blocked);
+
+        assertSame(ready, responses.readyHead());
+        assertSame(blocked, responses.blockedHead());
+
+        responses.unlink(blocked);
+        assertNull(responses.blockedHead());
+        assertFalse(blocked.attached);
+
+        responses.unlink(ready);
+        assertTrue(responses.isEmpty());
+        assertNull(responses.flush(8, 0L));
+        assertTrue(flushed.isEmpty());
+    }
+
+    private Response attach(
+        String name,
+        int credit)
+    {
+        final Response response = new Response(name, credit);
+        responses.link(response, true);
+        return response;
+    }
+
+    private final class Response extends HttpProxyAttachedResponses.Member<Response>
+    {
+        private final String name;
+        private int credit;
+
+        private Response(
+            String name,
+            int credit)
+        {
+            this.name = name;
+            this.credit = credit;
+        }
+
+        @Override
+        boolean hasReplyWindow()
+        {
+            return credit > 0;
+        }
+
+        @Override
+        void doResponseFlush(
+            long traceId)
+        {
+            flushed.add(name);
+            credit = Math.max(credit - 1, 0);
+            if (attached)
+            {
+                responses.flushed(this);
+            }
+        }
+    }
+}
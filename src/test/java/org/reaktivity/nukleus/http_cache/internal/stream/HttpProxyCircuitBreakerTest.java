@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HttpProxyCircuitBreakerTest
+{
+    @Test
+    public void shouldOpenAfterConsecutiveFailures()
+    {
+        final HttpProxyCircuitBreaker breaker = new HttpProxyCircuitBreaker(2, 1000L);
+
+        assertTrue(breaker.tryAcquire(0L));
+        breaker.onFailure(0L);
+        breaker.onSuccess();
+        breaker.onFailure(10L);
+        assertTrue(breaker.tryAcquire(10L));
+        breaker.onFailure(20L);
+
+        assertTrue(breaker.isOpen(20L));
+        assertFalse(breaker.tryAcquire(500L));
+        assertTrue(breaker.retryAfter(500L) >= 1L);
+    }
+
+    @Test
+    public void shouldAdmitSingleProbeWhenHalfOpen()
+    {
+        final HttpProxyCircuitBreaker breaker = new HttpProxyCircuitBreaker(1, 1000L);
+        breaker.onFailure(0L);
+
+        assertTrue(breaker.tryAcquire(1000L));
+        assertTrue(breaker.isHalfOpen());
+        assertFalse(breaker.tryAcquire(1001L));
+
+        breaker.onProbeAbandoned();
+        assertTrue(breaker.tryAcquire(1002L));
+
+        breaker.onFailure(1003L);
+        assertTrue(breaker.isOpen(1003L));
+        assertFalse(breaker.tryAcquire(1500L));
+
+        assertTrue(breaker.tryAcquire(2003L));
+        breaker.onSuccess();
+        assertTrue(breaker.tryAcquire(2004L));
+        assertTrue(breaker.tryAcquire(2005L));
+    }
+}
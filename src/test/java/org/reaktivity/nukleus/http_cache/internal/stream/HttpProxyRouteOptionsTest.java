@@ -0,0 +1,138 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfigurationTest.HTTP_CACHE_HEDGE_DELAY_NAME;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfigurationTest.HTTP_CACHE_MAXIMUM_OBJECT_SIZE_NAME;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfigurationTest.HTTP_CACHE_MAXIMUM_TTL_NAME;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfigurationTest.HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS_NAME;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfigurationTest.HTTP_CACHE_MINIMUM_TTL_NAME;
+
+import java.util.Properties;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.Configuration;
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration;
+import org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheRouteExFW;
+
+public class HttpProxyRouteOptionsTest
+{
+    private final HttpCacheRouteExFW.Builder routeExRW = new HttpCacheRouteExFW.Builder();
+    private final UnsafeBuffer routeExBuffer = new UnsafeBuffer(new byte[256]);
+
+    @Test
+    public void shouldDefaultToConfiguration()
+    {
+        final HttpProxyRouteOptions defaults = newDefaults();
+        final HttpCacheRouteExFW routeEx = routeExRW.wrap(routeExBuffer, 0, routeExBuffer.capacity())
+                                                    .partition("")
+                                                    .quota(0)
+                                                    .build();
+
+        final HttpProxyRouteOptions options = new HttpProxyRouteOptions(defaults, routeEx);
+
+        assertEquals(8, options.maximumUpstreamRequests);
+        assertEquals(50, options.hedgeDelay);
+        assertEquals(65536, options.maximumObjectSize);
+        assertEquals(10, options.minimumTtl);
+        assertEquals(3600, options.maximumTtl);
+    }
+
+    @Test
+    public void shouldOverrideMaximumUpstreamRequests()
+    {
+        final HttpProxyRouteOptions defaults = newDefaults();
+        final HttpCacheRouteExFW routeEx = routeExRW.wrap(routeExBuffer, 0, routeExBuffer.capacity())
+                                                    .partition("")
+                                                    .quota(0)
+                                                    .maximumUpstreamRequests(2)
+                                                    .build();
+
+        final HttpProxyRouteOptions options = new HttpProxyRouteOptions(defaults, routeEx);
+
+        assertEquals(2, options.maximumUpstreamRequests);
+        assertEquals(50, options.hedgeDelay);
+    }
+
+    @Test
+    public void shouldOverrideHedgeDelay()
+    {
+        final HttpProxyRouteOptions defaults = newDefaults();
+        final HttpCacheRouteExFW routeEx = routeExRW.wrap(routeExBuffer, 0, routeExBuffer.capacity())
+                                                    .partition("")
+                                                    .quota(0)
+                                                    .maximumUpstreamRequests(-1)
+                                                    .hedgeDelay(0)
+                                                    .build();
+
+        final HttpProxyRouteOptions options = new HttpProxyRouteOptions(defaults, routeEx);
+
+        assertEquals(8, options.maximumUpstreamRequests);
+        assertEquals(0, options.hedgeDelay);
+    }
+
+    @Test
+    public void shouldOverrideMaximumObjectSize()
+    {
+        final HttpProxyRouteOptions defaults = newDefaults();
+        final HttpCacheRouteExFW routeEx = routeExRW.wrap(routeExBuffer, 0, routeExBuffer.capacity())
+                                                    .partition("")
+                                                    .quota(0)
+                                                    .maximumUpstreamRequests(-1)
+                                                    .hedgeDelay(-1)
+                                                    .maximumObjectSize(1024)
+                                                    .build();
+
+        final HttpProxyRouteOptions options = new HttpProxyRouteOptions(defaults, routeEx);
+
+        assertEquals(50, options.hedgeDelay);
+        assertEquals(1024, options.maximumObjectSize);
+    }
+
+    @Test
+    public void shouldOverrideTtlBounds()
+    {
+        final HttpProxyRouteOptions defaults = newDefaults();
+        final HttpCacheRouteExFW routeEx = routeExRW.wrap(routeExBuffer, 0, routeExBuffer.capacity())
+                                                    .partition("")
+                                                    .quota(0)
+                                                    .maximumUpstreamRequests(-1)
+                                                    .hedgeDelay(-1)
+                                                    .maximumObjectSize(-1)
+                                                    .minimumTtl(0)
+                                                    .maximumTtl(60)
+                                                    .build();
+
+        final HttpProxyRouteOptions options = new HttpProxyRouteOptions(defaults, routeEx);
+
+        assertEquals(65536, options.maximumObjectSize);
+        assertEquals(0, options.minimumTtl);
+        assertEquals(60, options.maximumTtl);
+    }
+
+    private static HttpProxyRouteOptions newDefaults()
+    {
+        final Properties properties = new Properties();
+        properties.setProperty(HTTP_CACHE_MAXIMUM_UPSTREAM_REQUESTS_NAME, "8");
+        properties.setProperty(HTTP_CACHE_HEDGE_DELAY_NAME, "50");
+        properties.setProperty(HTTP_CACHE_MAXIMUM_OBJECT_SIZE_NAME, "65536");
+        properties.setProperty(HTTP_CACHE_MINIMUM_TTL_NAME, "10");
+        properties.setProperty(HTTP_CACHE_MAXIMUM_TTL_NAME, "3600");
+        return new HttpProxyRouteOptions(new HttpCacheConfiguration(new Configuration(properties)));
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheCounters;
+
+public class HttpProxyUpstreamLimiterTest
+{
+    private final Map<String, AtomicLong> values = new HashMap<>();
+    private final HttpCacheCounters counters = new HttpCacheCounters(
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::incrementAndGet,
+        n -> values.computeIfAbsent(n, k -> new AtomicLong())::addAndGet);
+    private final List<String> acquired = new ArrayList<>();
+
+    @Test
+    public void shouldAcquireUpToMaximum()
+    {
+        final HttpProxyUpstreamLimiter limiter = new HttpProxyUpstreamLimiter(counters, 2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(0L);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void shouldHandOverPermitToWaitersInOrder()
+    {
+        final HttpProxyUpstreamLimiter limiter = new HttpProxyUpstreamLimiter(counters, 1);
+        final Waiter first = new Waiter("first");
+        final Waiter second = new Waiter("second");
+
+        assertTrue(limiter.tryAcquire());
+        limiter.enqueue(first);
+        limiter.enqueue(second);
+        assertEquals(2L, values.get("http-cache.upstream.queue.depth").get());
+
+        limiter.release(0L);
+        assertEquals(asList("first"), acquired);
+        assertFalse(first.isUpstreamWaiting());
+        assertTrue(second.isUpstreamWaiting());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(0L);
+        assertEquals(asList("first", "second"), acquired);
+        assertFalse(second.isUpstreamWaiting());
+        assertEquals(0L, values.get("http-cache.upstream.queue.depth").get());
+        assertEquals(2L, values.get("http-cache.upstream.requests.queued").get());
+    }
+
+    @Test
+    public void shouldNotAcquireAheadOfWaiters()
+    {
+        final HttpProxyUpstreamLimiter limiter = new HttpProxyUpstreamLimiter(counters, 2);
+        final Waiter waiter = new Waiter("waiter");
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        limiter.enqueue(waiter);
+
+        limiter.release(0L);
+        assertEquals(asList("waiter"), acquired);
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    public void shouldSkipDequeuedWaiter()
+    {
+        final HttpProxyUpstreamLimiter limiter = new HttpProxyUpstreamLimiter(counters, 1);
+        final Waiter first = new Waiter("first");
+        final Waiter second = new Waiter("second");
+        final Waiter third = new Waiter("third");
+
+        assertTrue(limiter.tryAcquire());
+        limiter.enqueue(first);
+        limiter.enqueue(second);
+        limiter.enqueue(third);
+
+        limiter.dequeue(second);
+        assertFalse(second.isUpstreamWaiting());
+        assertEquals(2L, values.get("http-cache.upstream.queue.depth").get());
+
+        limiter.release(0L);
+        limiter.release(0L);
+        assertEquals(asList("first", "third"), acquired);
+
+        limiter.release(0L);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(asList("first", "third"), acquired);
+    }
+
+    private final class Waiter extends HttpProxyUpstreamLimiter.Waiter
+    {
+        private final String name;
+
+        private Waiter(
+            String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        void onUpstreamAcquired(
+            long traceId)
+        {
+            acquired.add(name);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+public class ObjectPoolTest
+{
+    @Test
+    public void shouldRecycleReleasedObject()
+    {
+        final ObjectPool<Object> pool = new ObjectPool<>(Object::new, 1);
+        final Object object = pool.acquire();
+
+        pool.release(object);
+
+        assertEquals(1, pool.available());
+        assertSame(object, pool.acquire());
+        assertEquals(0, pool.available());
+    }
+
+    @Test
+    public void shouldNotRetainBeyondCapacity()
+    {
+        final ObjectPool<Object> pool = new ObjectPool<>(Object::new, 1);
+        final Object object1 = pool.acquire();
+        final Object object2 = pool.acquire();
+
+        pool.release(object1);
+        pool.release(object2);
+
+        assertEquals(1, pool.available());
+    }
+
+    @Test
+    public void shouldNotAllocatePerRequestWhenRecycling()
+    {
+        final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final ObjectPool<long[]> pool = new ObjectPool<>(() -> new long[8], 16);
+
+        for (int i = 0; i < 1024; i++)
+        {
+            pool.release(pool.acquire());
+        }
+
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++)
+        {
+            pool.release(pool.acquire());
+        }
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(String.format("allocated %d bytes", allocated), allocated < 1024L);
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.ProgressHeap.NO_INDEX;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ProgressHeapTest
+{
+    @Test
+    public void shouldReturnLeastProgressedMember()
+    {
+        final ProgressHeap<Reader> heap = new ProgressHeap<>(1);
+        final Reader fast = new Reader(30);
+        final Reader slow = new Reader(10);
+        final Reader medium = new Reader(20);
+
+        heap.add(fast);
+        heap.add(slow);
+        heap.add(medium);
+
+        assertEquals(3, heap.size());
+        assertSame(slow, heap.least());
+    }
+
+    @Test
+    public void shouldReorderWhenLeastProgresses()
+    {
+        final ProgressHeap<Reader> heap = new ProgressHeap<>(4);
+        final Reader first = new Reader(0);
+        final Reader second = new Reader(5);
+        heap.add(first);
+        heap.add(second);
+
+        first.progress = 10;
+        heap.progressed(first);
+
+        assertSame(second, heap.least());
+    }
+
+    @Test
+    public void shouldRemoveMember()
+    {
+        final ProgressHeap<Reader> heap = new ProgressHeap<>(4);
+        final Reader first = new Reader(0);
+        final Reader second = new Reader(5);
+        heap.add(first);
+        heap.add(second);
+
+        heap.remove(first);
+
+        assertEquals(NO_INDEX, first.heapIndex);
+        assertSame(second, heap.least());
+
+        heap.remove(second);
+
+        assertTrue(heap.isEmpty());
+        assertNull(heap.least());
+    }
+
+    @Test
+    public void shouldMatchLinearScanUnderRandomOperations()
+    {
+        final Random random = new Random(42L);
+        final ProgressHeap<Reader> heap = new ProgressHeap<>(2);
+        final Reader[] readers = new Reader[64];
+        for (int i = 0; i < readers.length; i++)
+        {
+            readers[i] = new Reader(random.nextInt(100));
+            heap.add(readers[i]);
+        }
+
+        for (int step = 0; step < 10_000; step++)
+        {
+            final Reader reader = readers[random.nextInt(readers.length)];
+            if (reader.heapIndex == NO_INDEX)
+            {
+                heap.add(reader);
+            }
+            else if (random.nextInt(8) == 0)
+            {
+                heap.remove(reader);
+            }
+            else
+            {
+                reader.progress += random.nextInt(16);
+                heap.progressed(reader);
+            }
+
+            Reader least = null;
+            for (Reader candidate : readers)
+            {
+                if (candidate.heapIndex != NO_INDEX && (least == null || candidate.progress < least.progress))
+                {
+                    least = candidate;
+                }
+            }
+            assertEquals(least != null ? least.progress : -1, heap.isEmpty() ? -1 : heap.least().progress);
+        }
+    }
+
+    private static final class Reader implements ProgressHeap.Member
+    {
+        private int progress;
+        private int heapIndex = NO_INDEX;
+
+        private Reader(
+            int progress)
+        {
+            this.progress = progress;
+        }
+
+        @Override
+        public int progress()
+        {
+            return progress;
+        }
+
+        @Override
+        public int heapIndex()
+        {
+            return heapIndex;
+        }
+
+        @Override
+        public void heapIndex(
+            int heapIndex)
+        {
+            this.heapIndex = heapIndex;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream.util;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.agrona.collections.IntArrayList;
+import org.junit.Test;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.SignalFW;
+
+public class TimerWheelTest
+{
+    private final SignalFW signalRO = new SignalFW();
+    private final IntArrayList signalIds = new IntArrayList();
+    private final MessageConsumer handler = (t, b, i, l) -> signalIds.addInt(signalRO.wrap(b, i, i + l).signalId());
+
+    private long now;
+
+    @Test
+    public void shouldExpireTimersInDeadlineOrderAcrossTicks()
+    {
+        final TimerWheel timers = new TimerWheel(() -> now, 100L, 8, 2);
+
+        timers.schedule(250, MILLISECONDS, 1L, 2L, 1, handler);
+        timers.schedule(2, SECONDS, 1L, 4L, 2, handler);
+        timers.schedule(50, MILLISECONDS, 1L, 6L, 3, handler);
+
+        now = 100L;
+        assertEquals(1, timers.expire(0L));
+        assertEquals(3, signalIds.getInt(0));
+
+        now = 300L;
+        assertEquals(1, timers.expire(0L));
+        assertEquals(1, signalIds.getInt(1));
+
+        now = 1900L;
+        assertEquals(0, timers.expire(0L));
+
+        now = 2000L;
+        assertEquals(1, timers.expire(0L));
+        assertEquals(2, signalIds.getInt(2));
+        assertTrue(timers.isEmpty());
+    }
+
+    @Test
+    public void shouldShareDeadlineTickWithinSameTick()
+    {
+        final TimerWheel timers = new TimerWheel(() -> now, 100L, 8, 2);
+
+        now = 10L;
+        final long deadlineTick = timers.deadlineTick(1, SECONDS);
+        timers.schedule(1, SECONDS, 1L, 2L, 1, handler);
+
+        now = 90L;
+        assertEquals(deadlineTick, timers.deadlineTick(1, SECONDS));
+        timers.schedule(1, SECONDS, 1L, 4L, 2, handler);
+
+        now = 101L;
+        assertEquals(deadlineTick + 1, timers.deadlineTick(1, SECONDS));
+
+        now = 1000L;
+        assertEquals(0, timers.expire(0L));
+
+        now = 1100L;
+        assertEquals(2, timers.expire(0L));
+        assertTrue(timers.isEmpty());
+    }
+
+    @Test
+    public void shouldScheduleAtDeadlineTick()
+    {
+        final TimerWheel timers = new TimerWheel(() -> now, 100L, 8, 2);
+
+        now = 10L;
+        final long deadlineTick = timers.deadlineTick(1, SECONDS);
+        timers.scheduleAt(deadlineTick, 1L, 2L, 1, handler);
+
+        now = 90L;
+        timers.scheduleAt(deadlineTick, 1L, 4L, 2, handler);
+
+        now = 1000L;
+        assertEquals(0, timers.expire(0L));
+
+        now = 1100L;
+        assertEquals(2, timers.expire(0L));
+        assertTrue(timers.isEmpty());
+    }
+
+    @Test
+    public void shouldNotExpireCancelledTimer()
+    {
+        final TimerWheel timers = new TimerWheel(() -> now, 100L, 8, 1);
+
+        final long timerId = timers.schedule(100, MILLISECONDS, 1L, 2L, 1, handler);
+
+        assertTrue(timers.cancel(timerId));
+        assertFalse(timers.cancel(timerId));
+
+        now = 1000L;
+        assertEquals(0, timers.expire(0L));
+        assertTrue(signalIds.isEmpty());
+    }
+
+    @Test
+    public void shouldNotCancelRecycledTimer()
+    {
+        final TimerWheel timers = new TimerWheel(() -> now, 100L, 8, 1);
+
+        final long timerId = timers.schedule(100, MILLISECONDS, 1L, 2L, 1, handler);
+        now = 100L;
+        timers.expire(0L);
+
+        final long recycledId = timers.schedule(100, MILLISECONDS, 1L, 2L, 2, handler);
+
+        assertFalse(timers.cancel(timerId));
+        assertEquals(1, timers.size());
+        assertTrue(timers.cancel(recycledId));
+    }
+}
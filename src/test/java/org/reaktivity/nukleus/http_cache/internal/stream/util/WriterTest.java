@@ -0,0 +1,103 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.stream.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.reaktivity.nukleus.http_cache.internal.stream.util.HttpHeadersUtil.getHeader;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.http_cache.internal.types.Array32FW;
+import org.reaktivity.nukleus.http_cache.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.BeginFW;
+import org.reaktivity.nukleus.http_cache.internal.types.stream.HttpBeginExFW;
+
+public class WriterTest
+{
+    private final MutableDirectBuffer writeBuffer = new UnsafeBuffer(new byte[1024]);
+    private final MutableDirectBuffer beginBuffer = new UnsafeBuffer(new byte[1024]);
+    private final BeginFW beginRO = new BeginFW();
+    private final HttpBeginExFW httpBeginExRO = new HttpBeginExFW();
+    private final Writer writer = new Writer(null, t -> 1, writeBuffer);
+
+    private final MessageConsumer receiver = (t, b, i, l) -> beginBuffer.putBytes(0, b, i, l);
+
+    @Test
+    public void shouldEncodeContentRangeForPartialContent()
+    {
+        final Array32FW<HttpHeaderFW> responseHeaders = headers(":status", "200", "content-length", "100");
+        final Array32FW<HttpHeaderFW> requestHeaders = headers(":method", "GET", "range", "bytes=10-19");
+
+        writer.doHttpRangeResponseWithUpdatedHeaders(receiver, 1L, 2L, responseHeaders, requestHeaders,
+                                                     null, false, 10L, 19L, 100L, 0L);
+
+        final Array32FW<HttpHeaderFW> headers = responseHeaders();
+        assertEquals("206", getHeader(headers, ":status"));
+        assertEquals("10", getHeader(headers, "content-length"));
+        assertEquals("bytes 10-19/100", getHeader(headers, "content-range"));
+    }
+
+    @Test
+    public void shouldNotEncodeContentRangeForFullContent()
+    {
+        final Array32FW<HttpHeaderFW> responseHeaders = headers(":status", "200", "content-length", "100");
+        final Array32FW<HttpHeaderFW> requestHeaders = headers(":method", "GET", "range", "bytes=10-19");
+
+        writer.doHttpRangeResponseWithUpdatedHeaders(receiver, 1L, 2L, responseHeaders, requestHeaders,
+                                                     null, false, 10L, 19L, 100L, 0L);
+        writer.doHttpResponseWithUpdatedHeaders(receiver, 1L, 2L, responseHeaders, requestHeaders, null, false, 0L);
+
+        final Array32FW<HttpHeaderFW> headers = responseHeaders();
+        assertEquals("200", getHeader(headers, ":status"));
+        assertEquals("100", getHeader(headers, "content-length"));
+        assertEquals(null, getHeader(headers, "content-range"));
+    }
+
+    @Test
+    public void shouldEncodeUnsatisfiedContentRange()
+    {
+        writer.doHttpResponseNotSatisfiable(receiver, 1L, 2L, 12345L, 0L);
+
+        final Array32FW<HttpHeaderFW> headers = responseHeaders();
+        assertEquals("416", getHeader(headers, ":status"));
+        assertEquals("0", getHeader(headers, "content-length"));
+        assertEquals("bytes */12345", getHeader(headers, "content-range"));
+    }
+
+    private Array32FW<HttpHeaderFW> headers(
+        String... namesAndValues)
+    {
+        final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> builder =
+            new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW());
+        builder.wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+        for (int i = 0; i < namesAndValues.length; i += 2)
+        {
+            final String name = namesAndValues[i];
+            final String value = namesAndValues[i + 1];
+            builder.item(h -> h.name(name).value(value));
+        }
+        return builder.build();
+    }
+
+    private Array32FW<HttpHeaderFW> responseHeaders()
+    {
+        final BeginFW begin = beginRO.wrap(beginBuffer, 0, beginBuffer.capacity());
+        return httpBeginExRO.wrap(begin.extension().buffer(), begin.extension().offset(), begin.extension().limit())
+                            .headers();
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.streams.proxy;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_TIMER_WHEEL_TICK;
+import static org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget.PREFIX;
+import static org.reaktivity.nukleus.http_cache.internal.types.control.HttpCacheTarget.URL;
+import static org.reaktivity.reaktor.test.ReaktorRule.EXTERNAL_AFFINITY_MASK;
+
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.kaazing.k3po.junit.annotation.Specification;
+import org.kaazing.k3po.junit.rules.K3poRule;
+import org.reaktivity.nukleus.http_cache.internal.HttpCacheController;
+import org.reaktivity.nukleus.http_cache.internal.test.HttpCacheCountersRule;
+import org.reaktivity.reaktor.test.ReaktorRule;
+
+public class ProxyBanIT
+{
+    private final K3poRule k3po = new K3poRule()
+        .addScriptRoot("route", "org/reaktivity/specification/nukleus/http_cache/control/route")
+        .addScriptRoot("streams", "org/reaktivity/specification/nukleus/http_cache/streams/proxy/rfc7234");
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
+
+    private final ReaktorRule reaktor = new ReaktorRule()
+            .nukleus("http-cache"::equals)
+            .controller("http-cache"::equals)
+            .directory("target/nukleus-itests")
+            .commandBufferCapacity(1024)
+            .responseBufferCapacity(1024)
+            .counterValuesBufferCapacity(16384)
+            .configure(HTTP_CACHE_TIMER_WHEEL_TICK, 10)
+            .affinityMask("target#0", EXTERNAL_AFFINITY_MASK)
+            .clean();
+
+    private final HttpCacheCountersRule counters = new HttpCacheCountersRule(reaktor);
+
+    @Rule
+    public final TestRule chain = outerRule(reaktor).around(k3po).around(counters).around(timeout);
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/cache.max-age/accept/client",
+        "${streams}/cache.max-age/connect/server",
+        })
+    public void shouldBanCachedEntryByResponseHeader() throws Exception
+    {
+        k3po.finish();
+        counters.assertExpectedCacheEntries(1);
+
+        reaktor.controller(HttpCacheController.class)
+               .ban(null, ":status", "200")
+               .get();
+
+        counters.awaitCounter("http-cache.ban.invalidations", 1L);
+        counters.awaitCounter("http-cache.bans", 0L);
+    }
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/cache.max-age/accept/client",
+        "${streams}/cache.max-age/connect/server",
+        })
+    public void shouldNotBanCachedEntryWithDifferentHeaderValue() throws Exception
+    {
+        k3po.finish();
+        counters.assertExpectedCacheEntries(1);
+
+        reaktor.controller(HttpCacheController.class)
+               .ban(null, ":status", "404")
+               .get();
+
+        counters.awaitCounter("http-cache.bans", 0L);
+        assertEquals(0L, reaktor.counter("http-cache.ban.invalidations"));
+    }
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/cache.max-age/accept/client",
+        "${streams}/cache.max-age/connect/server",
+        })
+    public void shouldBanCachedEntryByPathPrefix() throws Exception
+    {
+        k3po.finish();
+        counters.assertExpectedCacheEntries(1);
+
+        reaktor.controller(HttpCacheController.class)
+               .ban("/pa", null, null)
+               .get();
+
+        counters.awaitCounter("http-cache.ban.invalidations", 1L);
+        counters.awaitCounter("http-cache.bans", 0L);
+    }
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/cache.max-age/accept/client",
+        "${streams}/cache.max-age/connect/server",
+        })
+    public void shouldInvalidateCachedEntryByPathPrefix() throws Exception
+    {
+        k3po.finish();
+        counters.assertExpectedCacheEntries(1);
+
+        reaktor.controller(HttpCacheController.class)
+               .invalidate(PREFIX, "/path")
+               .get();
+
+        counters.awaitCounter("http-cache.ban.invalidations", 1L);
+        counters.awaitCounter("http-cache.bans", 0L);
+    }
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/cache.max-age/accept/client",
+        "${streams}/cache.max-age/connect/server",
+        })
+    public void shouldNotInvalidateCachedEntryByOtherPathPrefix() throws Exception
+    {
+        k3po.finish();
+        counters.assertExpectedCacheEntries(1);
+
+        reaktor.controller(HttpCacheController.class)
+               .invalidate(PREFIX, "/api/v1/catalog/")
+               .get();
+
+        counters.awaitCounter("http-cache.bans", 0L);
+        assertEquals(0L, reaktor.counter("http-cache.ban.invalidations"));
+    }
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/cache.max-age/accept/client",
+        "${streams}/cache.max-age/connect/server",
+        })
+    public void shouldPurgeCachedEntryByPathPrefix() throws Exception
+    {
+        k3po.finish();
+        counters.assertExpectedCacheEntries(1);
+
+        reaktor.controller(HttpCacheController.class)
+               .purge(PREFIX, "/pa")
+               .get();
+
+        counters.awaitCounter("http-cache.cache.entries", 0L);
+    }
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/cache.max-age/accept/client",
+        "${streams}/cache.max-age/connect/server",
+        })
+    public void shouldPurgeCachedEntryByRequestURL() throws Exception
+    {
+        k3po.finish();
+        counters.assertExpectedCacheEntries(1);
+
+        reaktor.controller(HttpCacheController.class)
+               .purge(URL, "http://localhost:8080/path?v=2")
+               .get();
+
+        assertEquals(1L, reaktor.counter("http-cache.cache.entries"));
+
+        reaktor.controller(HttpCacheController.class)
+               .purge(URL, "http://localhost:8080/path")
+               .get();
+
+        counters.awaitCounter("http-cache.cache.entries", 0L);
+    }
+
+    @Test(expected = ExecutionException.class)
+    @Specification({
+        "${route}/proxy/controller"
+        })
+    public void shouldRejectBanWithoutPredicate() throws Exception
+    {
+        k3po.finish();
+
+        reaktor.controller(HttpCacheController.class)
+               .ban(null, null, null)
+               .get();
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http_cache.internal.streams.proxy;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_ALLOWED_CACHE_PERCENTAGE;
+import static org.reaktivity.nukleus.http_cache.internal.HttpCacheConfiguration.HTTP_CACHE_HEDGE_DELAY;
+import static org.reaktivity.reaktor.test.ReaktorRule.EXTERNAL_AFFINITY_MASK;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.kaazing.k3po.junit.annotation.Specification;
+import org.kaazing.k3po.junit.rules.K3poRule;
+import org.reaktivity.nukleus.http_cache.internal.test.HttpCacheCountersRule;
+import org.reaktivity.reaktor.test.ReaktorRule;
+
+public class ProxyHedgeIT
+{
+    private final K3poRule k3po = new K3poRule()
+        .addScriptRoot("route", "org/reaktivity/specification/nukleus/http_cache/control/route")
+        .addScriptRoot("streams", "org/reaktivity/specification/nukleus/http_cache/streams/proxy/rfc7234");
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
+
+    private final ReaktorRule reaktor = new ReaktorRule()
+            .nukleus("http-cache"::equals)
+            .controller("http-cache"::equals)
+            .directory("target/nukleus-itests")
+            .commandBufferCapacity(1024)
+            .responseBufferCapacity(1024)
+            .counterValuesBufferCapacity(16384)
+            .configure(HTTP_CACHE_ALLOWED_CACHE_PERCENTAGE, 0)
+            .configure(HTTP_CACHE_HEDGE_DELAY, 5000)
+            .affinityMask("target#0", EXTERNAL_AFFINITY_MASK)
+            .clean();
+
+    private final HttpCacheCountersRule counters = new HttpCacheCountersRule(reaktor);
+
+    @Rule
+    public final TestRule chain = outerRule(reaktor).around(k3po).around(counters).around(timeout);
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/proxy.get.request/accept/client",
+        "${streams}/proxy.get.request/connect/server",
+        })
+    public void shouldNotHedgeWhenResponseBeginsBeforeDelay() throws Exception
+    {
+        k3po.finish();
+        counters.assertRequests(1);
+        counters.assertResponses(1);
+        counters.assertRequestsHedged(0, 0);
+        counters.assertRequestGroups(0);
+    }
+
+    @Test
+    @Specification({
+        "${route}/proxy/controller",
+        "${streams}/proxy.get.request/accept/client",
+        "${streams}/proxy.get.request/accept/client",
+        "${streams}/proxy.get.request/connect/server",
+        })
+    public void shouldNotHedgeCoalescedRequestsWhenResponseBeginsBeforeDelay() throws Exception
+    {
+        k3po.finish();
+        counters.assertRequests(2);
+        counters.assertResponses(2);
+        counters.assertRequestsHedged(0, 0);
+        counters.assertRequestGroups(0);
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.reaktivity.nukleus.http_cache.internal.test;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
 
 import org.junit.rules.TestRule;
@@ -25,6 +26,7 @@ import org.reaktivity.reaktor.test.ReaktorRule;
 public class HttpCacheCountersRule implements TestRule
 {
     private static final int NUM_OF_SLOTS_PER_CACHE_ENTRY = 3;
+    private static final long AWAIT_TIMEOUT_MILLIS = 5000L;
 
     private final ReaktorRule reaktor;
 
@@ -57,6 +59,26 @@ public class HttpCacheCountersRule implements TestRule
         return reaktor.counter("http-cache.requests.prefer.wait");
     }
 
+    public long requestsCoalesced()
+    {
+        return reaktor.counter("http-cache.requests.coalesced");
+    }
+
+    public long requestsHedged()
+    {
+        return reaktor.counter("http-cache.requests.hedged");
+    }
+
+    public long requestsHedgeWins()
+    {
+        return reaktor.counter("http-cache.requests.hedge.wins");
+    }
+
+    public long responsesSpilled()
+    {
+        return reaktor.counter("http-cache.responses.spilled");
+    }
+
     public long responses()
     {
         return reaktor.counter("http-cache.responses");
@@ -128,6 +150,28 @@ public class HttpCacheCountersRule implements TestRule
         return cachedRequestAcquires() + cachedResponseAcquires() - cachedRequestReleases() - cachedResponseReleases();
     }
 
+    public void awaitCounter(
+        String name,
+        long expected) throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT_MILLIS;
+        while (reaktor.counter(name) != expected && System.currentTimeMillis() < deadline)
+        {
+            MILLISECONDS.sleep(10L);
+        }
+        assertEquals(name, expected, reaktor.counter(name));
+    }
+
+    public void awaitCacheSlots(
+        long expected) throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT_MILLIS;
+        while (cacheSlots() != expected && System.currentTimeMillis() < deadline)
+        {
+            MILLISECONDS.sleep(10L);
+        }
+    }
+
     public void assertExpectedCacheEntries(
         int numberOfResponses)
     {
@@ -166,6 +210,26 @@ public class HttpCacheCountersRule implements TestRule
         assertEquals(expected, requestsPreferWait());
     }
 
+    public void assertRequestsCoalesced(
+        int expected)
+    {
+        assertEquals(expected, requestsCoalesced());
+    }
+
+    public void assertRequestsHedged(
+        int expected,
+        int expectedWins)
+    {
+        assertEquals(expected, requestsHedged());
+        assertEquals(expectedWins, requestsHedgeWins());
+    }
+
+    public void assertResponsesSpilled(
+        int expected)
+    {
+        assertEquals(expected, responsesSpilled());
+    }
+
     public void assertResponses(
         int expected)
     {